@@ -0,0 +1,166 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.java.decompiler.util;
+
+import jdk.jfr.*;
+
+/**
+ * Java Flight Recorder events for loading and writing classes, decompiling methods, the passes of the method pipeline
+ * and saving results. Events are only created while a recording has them enabled.
+ */
+public final class JfrEvents {
+  public interface Recording {
+    void commit();
+  }
+
+  public interface PassRecording {
+    /**
+     * Ends the current pass under the given name and starts the next one.
+     */
+    void mark(String pass);
+  }
+
+  private static final Recording NONE = () -> { };
+  private static final PassRecording NO_PASSES = pass -> { };
+
+  private static final EventType CLASS_LOAD = EventType.getEventType(ClassLoadEvent.class);
+  private static final EventType CLASS_WRITE = EventType.getEventType(ClassWriteEvent.class);
+  private static final EventType METHOD = EventType.getEventType(MethodEvent.class);
+  private static final EventType PASS = EventType.getEventType(PassEvent.class);
+  private static final EventType SAVE = EventType.getEventType(SaveEvent.class);
+
+  public static Recording beginClassLoad(String className) {
+    if (!CLASS_LOAD.isEnabled()) {
+      return NONE;
+    }
+
+    ClassLoadEvent event = new ClassLoadEvent();
+    event.className = className;
+    event.begin();
+    return event;
+  }
+
+  public static Recording beginClassWrite(String className) {
+    if (!CLASS_WRITE.isEnabled()) {
+      return NONE;
+    }
+
+    ClassWriteEvent event = new ClassWriteEvent();
+    event.className = className;
+    event.begin();
+    return event;
+  }
+
+  public static Recording beginMethod(String className, String methodName, String descriptor) {
+    if (!METHOD.isEnabled()) {
+      return NONE;
+    }
+
+    MethodEvent event = new MethodEvent();
+    event.className = className;
+    event.methodName = methodName;
+    event.descriptor = descriptor;
+    event.begin();
+    return event;
+  }
+
+  public static PassRecording beginPasses(String className, String methodName, String descriptor) {
+    if (!PASS.isEnabled()) {
+      return NO_PASSES;
+    }
+
+    return new PassRecording() {
+      private PassEvent event = begin();
+
+      private PassEvent begin() {
+        PassEvent event = new PassEvent();
+        event.className = className;
+        event.methodName = methodName;
+        event.descriptor = descriptor;
+        event.begin();
+        return event;
+      }
+
+      @Override
+      public void mark(String pass) {
+        event.pass = pass;
+        event.commit();
+        event = begin();
+      }
+    };
+  }
+
+  public static Recording beginSave(String path, String entryName) {
+    if (!SAVE.isEnabled()) {
+      return NONE;
+    }
+
+    SaveEvent event = new SaveEvent();
+    event.path = path;
+    event.entryName = entryName;
+    event.begin();
+    return event;
+  }
+
+  @Name("org.quiltmc.quiltflower.ClassLoad")
+  @Label("Class Load")
+  @Description("Reading and parsing a class file")
+  @Category("Quiltflower")
+  static final class ClassLoadEvent extends Event implements Recording {
+    @Label("Class")
+    String className;
+  }
+
+  @Name("org.quiltmc.quiltflower.ClassWrite")
+  @Label("Class Write")
+  @Description("Decompiling a class with its nested classes and writing its source")
+  @Category("Quiltflower")
+  static final class ClassWriteEvent extends Event implements Recording {
+    @Label("Class")
+    String className;
+  }
+
+  @Name("org.quiltmc.quiltflower.Method")
+  @Label("Method")
+  @Description("Decompiling a method")
+  @Category("Quiltflower")
+  static final class MethodEvent extends Event implements Recording {
+    @Label("Class")
+    String className;
+
+    @Label("Method")
+    String methodName;
+
+    @Label("Descriptor")
+    String descriptor;
+  }
+
+  @Name("org.quiltmc.quiltflower.Pass")
+  @Label("Pass")
+  @Description("A pass of the method pipeline")
+  @Category("Quiltflower")
+  static final class PassEvent extends Event {
+    @Label("Class")
+    String className;
+
+    @Label("Method")
+    String methodName;
+
+    @Label("Descriptor")
+    String descriptor;
+
+    @Label("Pass")
+    String pass;
+  }
+
+  @Name("org.quiltmc.quiltflower.Save")
+  @Label("Save")
+  @Description("Writing a decompiled class or copying a file to the output")
+  @Category("Quiltflower")
+  static final class SaveEvent extends Event implements Recording {
+    @Label("Path")
+    String path;
+
+    @Label("Entry")
+    String entryName;
+  }
+}
@@ -5,6 +5,7 @@ import org.jetbrains.java.decompiler.code.*;
 import org.jetbrains.java.decompiler.code.interpreter.InstructionImpact;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.modules.code.DeadCodeHelper;
+import org.jetbrains.java.decompiler.modules.decompiler.decompose.GenericDominatorEngine;
 import org.jetbrains.java.decompiler.struct.StructClass;
 import org.jetbrains.java.decompiler.struct.StructMethod;
 import org.jetbrains.java.decompiler.struct.consts.ConstantPool;
@@ -103,8 +104,10 @@ public class ControlFlowGraph implements CodeConstants {
   }
 
   public void inlineJsr(StructClass cl, StructMethod mt) {
-    processJsr();
-    removeJsr(cl, mt);
+    if (mt.hasFeature(StructMethod.FEATURE_JSR)) {
+      processJsr();
+      removeJsr(cl, mt);
+    }
 
     removeMarkers();
 
@@ -555,6 +558,8 @@ public class ControlFlowGraph implements CodeConstants {
     lstNodes.add(jsr);
 
     BasicBlock dom = jsr.getSuccs().get(0);
+    // the graph does not change while the range is collected
+    GenericDominatorEngine engine = DeadCodeHelper.buildDominatorEngine(this);
 
     while (!lstNodes.isEmpty()) {
 
@@ -585,13 +590,13 @@ public class ControlFlowGraph implements CodeConstants {
 
             if (node != jsr) {
               for (int k = 0; k < child.getPreds().size(); k++) {
-                if (!DeadCodeHelper.isDominator(this, child.getPreds().get(k), dom)) {
+                if (!DeadCodeHelper.isDominator(engine, child.getPreds().get(k), dom)) {
                   continue CHILD;
                 }
               }
 
               for (int k = 0; k < child.getPredExceptions().size(); k++) {
-                if (!DeadCodeHelper.isDominator(this, child.getPredExceptions().get(k), dom)) {
+                if (!DeadCodeHelper.isDominator(engine, child.getPredExceptions().get(k), dom)) {
                   continue CHILD;
                 }
               }
@@ -704,10 +709,10 @@ public class ControlFlowGraph implements CodeConstants {
         List<BasicBlock> lstNewRange;
 
         if (setBoth.size() == lstRange.size()) {
-          lstNewRange = new ArrayList<>();
-          ExceptionRangeCFG newRange = new ExceptionRangeCFG(lstNewRange,
+          ExceptionRangeCFG newRange = new ExceptionRangeCFG(new ArrayList<>(),
                                                              mapNewNodes.get(range.getHandler().id), range.getExceptionTypes());
           exceptions.add(newRange);
+          lstNewRange = newRange.getProtectedRange();
         }
         else {
           lstNewRange = lstRange;
@@ -769,7 +774,7 @@ public class ControlFlowGraph implements CodeConstants {
 
         DataPoint point = new DataPoint();
         point.setLocalVariables(new ArrayList<>(data.getLocalVariables()));
-        point.getStack().push(new VarType(CodeConstants.TYPE_OBJECT, 0, null));
+        point.getStack().push(VarType.of(CodeConstants.TYPE_OBJECT, 0, null));
 
         removeJsrInstructions(pool, suc, point);
       }
@@ -3,17 +3,16 @@ package org.jetbrains.java.decompiler.code.cfg;
 
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 public class ExceptionRangeCFG {
-  private final List<BasicBlock> protectedRange; // FIXME: replace with set
+  private final BlockList protectedRange;
   private BasicBlock handler;
   private List<String> exceptionTypes;
 
   public ExceptionRangeCFG(List<BasicBlock> protectedRange, BasicBlock handler, List<String> exceptionType) {
-    this.protectedRange = protectedRange;
+    this.protectedRange = new BlockList(protectedRange);
     this.handler = handler;
 
     if (exceptionType != null) {
@@ -22,7 +21,7 @@ public class ExceptionRangeCFG {
   }
 
   public ExceptionRangeCFG(List<BasicBlock> protectedRange, BasicBlock handler, String exceptionType) {
-    this.protectedRange = protectedRange;
+    this.protectedRange = new BlockList(protectedRange);
     this.handler = handler;
 
     if (exceptionType != null) {
@@ -71,6 +70,10 @@ public class ExceptionRangeCFG {
     this.handler = handler;
   }
 
+  /**
+   * The protected blocks in the order they were added. The list is owned by the range and answers {@code contains}
+   * from the number of occurrences of every block id.
+   */
   public List<BasicBlock> getProtectedRange() {
     return protectedRange;
   }
@@ -95,4 +98,80 @@ public class ExceptionRangeCFG {
   public String getUniqueExceptionsString() {
     return exceptionTypes != null ? exceptionTypes.stream().distinct().collect(Collectors.joining(":")) : null;
   }
-}
\ No newline at end of file
+
+  private static final class BlockList extends AbstractList<BasicBlock> implements RandomAccess {
+    private final List<BasicBlock> blocks;
+    // occurrences of every block id in the list
+    private int[] counts = new int[16];
+
+    private BlockList(Collection<BasicBlock> blocks) {
+      this.blocks = new ArrayList<>(blocks.size());
+      addAll(blocks);
+    }
+
+    @Override
+    public BasicBlock get(int index) {
+      return blocks.get(index);
+    }
+
+    @Override
+    public int size() {
+      return blocks.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      if (!(o instanceof BasicBlock)) {
+        return false;
+      }
+      int id = ((BasicBlock)o).id;
+      return id < counts.length && counts[id] > 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+      return contains(o) ? blocks.indexOf(o) : -1;
+    }
+
+    @Override
+    public BasicBlock set(int index, BasicBlock block) {
+      BasicBlock old = blocks.set(index, block);
+      removed(old);
+      added(block);
+      return old;
+    }
+
+    @Override
+    public void add(int index, BasicBlock block) {
+      blocks.add(index, block);
+      added(block);
+      modCount++;
+    }
+
+    @Override
+    public BasicBlock remove(int index) {
+      BasicBlock old = blocks.remove(index);
+      removed(old);
+      modCount++;
+      return old;
+    }
+
+    @Override
+    public void clear() {
+      blocks.clear();
+      Arrays.fill(counts, 0);
+      modCount++;
+    }
+
+    private void added(BasicBlock block) {
+      if (block.id >= counts.length) {
+        counts = Arrays.copyOf(counts, Math.max(block.id + 1, counts.length * 2));
+      }
+      counts[block.id]++;
+    }
+
+    private void removed(BasicBlock block) {
+      counts[block.id]--;
+    }
+  }
+}
@@ -42,7 +42,7 @@ public final class ClassReference14Processor {
     ctor.setStringDescriptor("()V");
     ctor.setFunctype(InvocationExprent.TYP_INIT);
     ctor.setDescriptor(MethodDescriptor.parseDescriptor("()V"));
-    NewExprent newExpr = new NewExprent(new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/NoClassDefFoundError"), new ArrayList<>(), null);
+    NewExprent newExpr = new NewExprent(VarType.of(CodeConstants.TYPE_OBJECT, 0, "java/lang/NoClassDefFoundError"), new ArrayList<>(), null);
     newExpr.setConstructor(ctor);
     InvocationExprent invCause = new InvocationExprent();
     invCause.setName("initCause");
@@ -51,7 +51,7 @@ public final class ClassReference14Processor {
     invCause.setDescriptor(MethodDescriptor.parseDescriptor("(Ljava/lang/Throwable;)Ljava/lang/Throwable;"));
     invCause.setInstance(newExpr);
     invCause.setLstParameters(
-      Collections.singletonList(new VarExprent(2, new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/ClassNotFoundException"), null)));
+      Collections.singletonList(new VarExprent(2, VarType.of(CodeConstants.TYPE_OBJECT, 0, "java/lang/ClassNotFoundException"), null)));
     HANDLER_EXPR = new ExitExprent(ExitExprent.EXIT_THROW, invCause, null, null, null);
   }
 
@@ -137,7 +137,7 @@ public final class ClassReference14Processor {
           CatchStatement cst = (CatchStatement)root.getFirst();
           if (cst.getStats().size() == 2 && cst.getFirst().type == Statement.TYPE_BASICBLOCK &&
               cst.getStats().get(1).type == Statement.TYPE_BASICBLOCK &&
-              cst.getVars().get(0).getVarType().equals(new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/ClassNotFoundException"))) {
+              cst.getVars().get(0).getVarType().equals(VarType.of(CodeConstants.TYPE_OBJECT, 0, "java/lang/ClassNotFoundException"))) {
 
             BasicBlockStatement body = (BasicBlockStatement)cst.getFirst();
             BasicBlockStatement handler = (BasicBlockStatement)cst.getStats().get(1);
@@ -141,7 +141,7 @@ public class ClassWriter {
       if (node.lambdaInformation.is_method_reference) {
         if (!node.lambdaInformation.is_content_method_static && method_object != null) {
           // reference to a virtual method
-          method_object.getInferredExprType(new VarType(CodeConstants.TYPE_OBJECT, 0, node.lambdaInformation.content_class_name));
+          method_object.getInferredExprType(VarType.of(CodeConstants.TYPE_OBJECT, 0, node.lambdaInformation.content_class_name));
           TextBuffer instance = method_object.toJava(indent);
           // If the instance is casted, then we need to wrap it
           if (method_object.type == Exprent.EXPRENT_FUNCTION && ((FunctionExprent)method_object).getFuncType() == FunctionExprent.FUNCTION_CAST && ((FunctionExprent)method_object).doesCast()) {
@@ -153,7 +153,7 @@ public class ClassWriter {
         }
         else {
           // reference to a static method
-          buffer.append(ExprProcessor.getCastTypeName(new VarType(node.lambdaInformation.content_class_name, true)));
+          buffer.append(ExprProcessor.getCastTypeName(VarType.of(node.lambdaInformation.content_class_name, true)));
         }
 
         buffer.append("::")
@@ -577,7 +577,7 @@ public class ClassWriter {
     buffer.pushNewlineGroup(indent, 1);
 
     if (!isEnum && !isInterface && components == null && cl.superClass != null) {
-      VarType supertype = new VarType(cl.superClass.getString(), true);
+      VarType supertype = VarType.of(cl.superClass.getString(), true);
       if (!VarType.VARTYPE_OBJECT.equals(supertype)) {
         buffer.appendPossibleNewline(" ");
         buffer.append("extends ");
@@ -595,7 +595,7 @@ public class ClassWriter {
             buffer.append(",");
             buffer.appendPossibleNewline(" ");
           }
-          buffer.append(ExprProcessor.getCastTypeName(descriptor == null ? new VarType(cl.getInterface(i), true) : descriptor.superinterfaces.get(i)));
+          buffer.append(ExprProcessor.getCastTypeName(descriptor == null ? VarType.of(cl.getInterface(i), true) : descriptor.superinterfaces.get(i)));
         }
       }
     }
@@ -608,7 +608,7 @@ public class ClassWriter {
           buffer.append(",");
           buffer.appendPossibleNewline(" ");
         }
-        buffer.append(ExprProcessor.getCastTypeName(new VarType(permittedSubClasses.get(i), true)));
+        buffer.append(ExprProcessor.getCastTypeName(VarType.of(permittedSubClasses.get(i), true)));
       }
     }
 
@@ -1047,7 +1047,7 @@ public class ClassWriter {
             if (i > 0) {
               buffer.append(", ");
             }
-            VarType type = useDescriptor ? descriptor.exceptionTypes.get(i) : new VarType(attr.getExcClassname(i, cl.getPool()), true);
+            VarType type = useDescriptor ? descriptor.exceptionTypes.get(i) : VarType.of(attr.getExcClassname(i, cl.getPool()), true);
             buffer.append(ExprProcessor.getCastTypeName(type));
           }
         }
@@ -1326,7 +1326,7 @@ public class ClassWriter {
   }
 
   private static Map.Entry<VarType, GenericFieldDescriptor> getFieldTypeData(StructField fd) {
-    VarType fieldType = new VarType(fd.getDescriptor(), false);
+    VarType fieldType = VarType.of(fd.getDescriptor(), false);
 
     GenericFieldDescriptor descriptor = fd.getSignature();
     return new AbstractMap.SimpleImmutableEntry<>(fieldType, descriptor);
@@ -6,6 +6,7 @@ import org.jetbrains.java.decompiler.code.Instruction;
 import org.jetbrains.java.decompiler.code.InstructionSequence;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeSourceMapper;
 import org.jetbrains.java.decompiler.main.collectors.ImportCollector;
+import org.jetbrains.java.decompiler.main.collectors.PassMetrics;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.main.extern.IIdentifierRenamer;
@@ -26,6 +27,7 @@ import org.jetbrains.java.decompiler.struct.attr.StructLineNumberTableAttribute;
 import org.jetbrains.java.decompiler.struct.consts.ConstantPool;
 import org.jetbrains.java.decompiler.struct.gen.VarType;
 import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.jetbrains.java.decompiler.util.JfrEvents;
 import org.jetbrains.java.decompiler.util.TextBuffer;
 
 import java.io.IOException;
@@ -38,7 +40,6 @@ public class ClassesProcessor implements CodeConstants {
 
   private final StructContext context;
   private final Map<String, ClassNode> mapRootClasses = new ConcurrentHashMap<>();
-  private final Set<String> whitelist = new HashSet<>();
 
   private static class Inner {
     private String simpleName;
@@ -66,19 +67,15 @@ public class ClassesProcessor implements CodeConstants {
   }
 
   public void addWhitelist(String prefix) {
-    this.whitelist.add(prefix);
+    context.getClassFilter().include(prefix);
   }
 
-  public boolean isWhitelisted(String cls) {
-    if (this.whitelist.isEmpty())
-      return true;
-
-    for (String prefix : this.whitelist) {
-      if (cls.startsWith(prefix))
-        return true;
-    }
+  public void addBlacklist(String filter) {
+    context.getClassFilter().exclude(filter);
+  }
 
-    return false;
+  public boolean isWhitelisted(String cls) {
+    return context.getClassFilter().accepts(cls);
   }
 
   public void loadClasses(IIdentifierRenamer renamer) {
@@ -278,10 +275,10 @@ public class ClassesProcessor implements CodeConstants {
 
                   int[] interfaces = cl.getInterfaces();
                   if (interfaces.length > 0) {
-                    nestedNode.anonymousClassType = new VarType(cl.getInterface(0), true);
+                    nestedNode.anonymousClassType = VarType.of(cl.getInterface(0), true);
                   }
                   else {
-                    nestedNode.anonymousClassType = new VarType(cl.superClass.getString(), true);
+                    nestedNode.anonymousClassType = VarType.of(cl.superClass.getString(), true);
                   }
                 }
                 else if (nestedNode.type == ClassNode.CLASS_LOCAL) {
@@ -316,7 +313,7 @@ public class ClassesProcessor implements CodeConstants {
     // checking super class and interfaces
     int[] interfaces = cl.getInterfaces();
     if (interfaces.length > 0) {
-      boolean hasNonTrivialSuperClass = cl.superClass != null && !VarType.VARTYPE_OBJECT.equals(new VarType(cl.superClass.getString(), true));
+      boolean hasNonTrivialSuperClass = cl.superClass != null && !VarType.VARTYPE_OBJECT.equals(VarType.of(cl.superClass.getString(), true));
       if (hasNonTrivialSuperClass || interfaces.length > 1) { // can't have multiple 'sources'
         String message = "Inconsistent anonymous class definition: '" + cl.qualifiedName + "'. Multiple interfaces and/or super class defined.";
         DecompilerContext.getLogger().writeMessage(message, IFernflowerLogger.Severity.WARN);
@@ -407,6 +404,10 @@ public class ClassesProcessor implements CodeConstants {
     boolean packageInfo = cl.isSynthetic() && "package-info".equals(root.simpleName);
     boolean moduleInfo = cl.hasModifier(CodeConstants.ACC_MODULE) && cl.hasAttribute(StructGeneralAttribute.ATTRIBUTE_MODULE);
 
+    // null unless pass metrics are collected
+    PassMetrics.PassRecord stages = PassMetrics.isEnabled() ? new PassMetrics.PassRecord() : null;
+    JfrEvents.Recording event = JfrEvents.beginClassWrite(cl.qualifiedName);
+
     DecompilerContext.getLogger().startReadingClass(cl.qualifiedName);
     try {
       ImportCollector importCollector = new ImportCollector(root);
@@ -428,6 +429,7 @@ public class ClassesProcessor implements CodeConstants {
       else {
         try {
           new LambdaProcessor().processClass(root);
+          recordStage(stages, "ProcessLambdas");
         } catch (Throwable t) {
           DecompilerContext.getLogger().writeMessage("Class " + root.simpleName + " couldn't be written.",
             IFernflowerLogger.Severity.WARN,
@@ -452,11 +454,13 @@ public class ClassesProcessor implements CodeConstants {
 
         // build wrappers for all nested classes (that's where actual processing takes place)
         initWrappers(root);
+        recordStage(stages, "InitWrappers");
 
         try {
           new NestedClassProcessor().processClass(root, root);
 
           new NestedMemberAccess().propagateMemberAccess(root);
+          recordStage(stages, "ProcessNestedClasses");
         } catch (Throwable t) {
           DecompilerContext.getLogger().writeMessage("Class " + root.simpleName + " couldn't be written.",
             IFernflowerLogger.Severity.WARN,
@@ -479,6 +483,7 @@ public class ClassesProcessor implements CodeConstants {
         TextBuffer classBuffer = new TextBuffer(AVERAGE_CLASS_SIZE);
         new ClassWriter().classToJava(root, classBuffer, 0);
         classBuffer.reformat();
+        recordStage(stages, "ClassToJava");
         classBuffer.getTracers().forEach((classAndMethod, tracer) -> {
           // get the class by name
           StructClass clazz = DecompilerContext.getStructContext().getClass(classAndMethod.a);
@@ -522,6 +527,19 @@ public class ClassesProcessor implements CodeConstants {
     finally {
       destroyWrappers(root);
       DecompilerContext.getLogger().endReadingClass();
+
+      if (stages != null) {
+        recordStage(stages, "Finish");
+        DecompilerContext.getStructContext().getPassMetrics().addStages(cl.qualifiedName, stages);
+      }
+
+      event.commit();
+    }
+  }
+
+  private static void recordStage(PassMetrics.PassRecord stages, String name) {
+    if (stages != null) {
+      stages.addPass(name);
     }
   }
 
@@ -629,7 +647,7 @@ public class ClassesProcessor implements CodeConstants {
       lambdaInformation.content_method_key =
         InterpreterUtil.makeUniqueKey(lambdaInformation.content_method_name, lambdaInformation.content_method_descriptor);
 
-      anonymousClassType = new VarType(lambda_class_name, true);
+      anonymousClassType = VarType.of(lambda_class_name, true);
 
       boolean is_method_reference = !classStruct.qualifiedName.equals(content_class_name);
       if (!is_method_reference) { // content method in the same class, check synthetic flag
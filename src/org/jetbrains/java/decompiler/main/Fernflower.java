@@ -2,6 +2,7 @@
 package org.jetbrains.java.decompiler.main;
 
 import org.jetbrains.java.decompiler.main.ClassesProcessor.ClassNode;
+import org.jetbrains.java.decompiler.main.collectors.PassMetrics;
 import org.jetbrains.java.decompiler.main.extern.*;
 import org.jetbrains.java.decompiler.modules.renamer.ConverterHelper;
 import org.jetbrains.java.decompiler.modules.renamer.IdentifierConverter;
@@ -9,15 +10,15 @@ import org.jetbrains.java.decompiler.modules.renamer.PoolInterceptor;
 import org.jetbrains.java.decompiler.struct.IDecompiledData;
 import org.jetbrains.java.decompiler.struct.StructClass;
 import org.jetbrains.java.decompiler.struct.StructContext;
+import org.jetbrains.java.decompiler.struct.gen.VarType;
 import org.jetbrains.java.decompiler.struct.lazy.LazyLoader;
 import org.jetbrains.java.decompiler.util.JADNameProvider;
 import org.jetbrains.java.decompiler.util.JrtFinder;
 import org.jetbrains.java.decompiler.util.TextBuffer;
 import org.jetbrains.java.decompiler.util.ClasspathScanner;
 
-import java.io.File;
-import java.io.IOException;
-import java.io.UncheckedIOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -123,14 +124,55 @@ public class Fernflower implements IDecompiledData {
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
+
+    writePassMetrics();
+  }
+
+  private void writePassMetrics() {
+    String fileName = DecompilerContext.getProperty(IFernflowerPreferences.PASS_METRICS_FILE).toString();
+    if (fileName.isEmpty()) {
+      return;
+    }
+
+    try (Writer writer = new OutputStreamWriter(new FileOutputStream(fileName), StandardCharsets.UTF_8)) {
+      if (fileName.toLowerCase(Locale.ENGLISH).endsWith(".csv")) {
+        getPassMetrics().writeCsv(writer);
+      }
+      else {
+        getPassMetrics().writeJson(writer);
+      }
+    }
+    catch (IOException e) {
+      DecompilerContext.getLogger().writeMessage("Cannot write pass metrics to " + fileName, IFernflowerLogger.Severity.WARN, e);
+    }
+  }
+
+  /**
+   * Time spent in the passes of every decompiled method, collected if {@link IFernflowerPreferences#COLLECT_PASS_METRICS}
+   * or {@link IFernflowerPreferences#PASS_METRICS_FILE} is set.
+   */
+  public PassMetrics getPassMetrics() {
+    return structContext.getPassMetrics();
+  }
+
+  /**
+   * Registers a listener for the progress of the decompilation. It may be called from several threads at once.
+   */
+  public void addListener(IDecompilationListener listener) {
+    structContext.getListeners().add(listener);
   }
 
   public void addWhitelist(String prefix) {
     classProcessor.addWhitelist(prefix);
   }
 
+  public void addBlacklist(String filter) {
+    classProcessor.addBlacklist(filter);
+  }
+
   public void clearContext() {
     DecompilerContext.setCurrentContext(null);
+    VarType.clearInternTables();
   }
 
   @Override
@@ -173,7 +173,7 @@ public final class RecordHelper {
       buffer.append(annotation).append(' ');
     }
 
-    VarType fieldType = new VarType(cd.getDescriptor(), false);
+    VarType fieldType = VarType.of(cd.getDescriptor(), false);
     GenericFieldDescriptor descriptor = cd.getSignature();
 
     if (descriptor != null) fieldType = descriptor.type;
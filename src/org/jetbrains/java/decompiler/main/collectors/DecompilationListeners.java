@@ -0,0 +1,72 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.java.decompiler.main.collectors;
+
+import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.extern.IDecompilationListener;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Forwards events to the registered listeners. Callers check {@link #isActive()} before measuring anything for an
+ * event, so a run without listeners does no extra work. An exception thrown by a listener is logged and does not stop
+ * the decompilation.
+ */
+public final class DecompilationListeners implements IDecompilationListener {
+  private final List<IDecompilationListener> listeners = new CopyOnWriteArrayList<>();
+
+  public void add(IDecompilationListener listener) {
+    listeners.add(listener);
+  }
+
+  public void remove(IDecompilationListener listener) {
+    listeners.remove(listener);
+  }
+
+  public boolean isActive() {
+    return !listeners.isEmpty();
+  }
+
+  @Override
+  public void classQueued(String className, long bytesIn) {
+    dispatch(l -> l.classQueued(className, bytesIn));
+  }
+
+  @Override
+  public void classStarted(String className) {
+    dispatch(l -> l.classStarted(className));
+  }
+
+  @Override
+  public void classFinished(String className, long nanos, long bytesIn, long bytesOut, boolean decompiled) {
+    dispatch(l -> l.classFinished(className, nanos, bytesIn, bytesOut, decompiled));
+  }
+
+  @Override
+  public void methodFailed(String className, String methodName, String descriptor, Throwable error) {
+    dispatch(l -> l.methodFailed(className, methodName, descriptor, error));
+  }
+
+  @Override
+  public void methodTimedOut(String className, String methodName, String descriptor, long millis) {
+    dispatch(l -> l.methodTimedOut(className, methodName, descriptor, millis));
+  }
+
+  @Override
+  public void methodMetrics(String className, PassMetrics.MethodMetrics metrics) {
+    dispatch(l -> l.methodMetrics(className, metrics));
+  }
+
+  private void dispatch(Consumer<IDecompilationListener> event) {
+    for (IDecompilationListener listener : listeners) {
+      try {
+        event.accept(listener);
+      }
+      catch (RuntimeException e) {
+        DecompilerContext.getLogger().writeMessage("Decompilation listener " + listener + " failed", IFernflowerLogger.Severity.WARN, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,376 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.java.decompiler.main.collectors;
+
+import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Time spent in the passes of the method pipeline and iterations of its loops, per method, aggregated per class and
+ * per run. A method fills its {@link MethodMetrics} on the thread decompiling it and hands it over once it is done.
+ * Pass names are the names of the decompile record with their iteration suffix removed, the first pass "Initial"
+ * covers building and parsing the control flow graph. The stages of writing a class are recorded the same way, the
+ * stage that builds the class wrappers includes the pipelines of all methods of the class and its nested classes.
+ * <p>
+ * If enabled, the bytes allocated by the thread are counted along with the time, on JVMs that support it.
+ */
+public final class PassMetrics {
+  private final Map<String, ClassMetrics> classes = new ConcurrentHashMap<>();
+
+  public static boolean isEnabled() {
+    return DecompilerContext.getOption(IFernflowerPreferences.COLLECT_PASS_METRICS) ||
+           DecompilerContext.getOption(IFernflowerPreferences.COLLECT_PASS_ALLOCATIONS) ||
+           !DecompilerContext.getProperty(IFernflowerPreferences.PASS_METRICS_FILE).toString().isEmpty();
+  }
+
+  public static boolean isAllocationEnabled() {
+    return DecompilerContext.getOption(IFernflowerPreferences.COLLECT_PASS_ALLOCATIONS) && AllocationCounter.isSupported();
+  }
+
+  public void addMethod(String className, MethodMetrics method) {
+    classes.computeIfAbsent(className, ClassMetrics::new).add(method);
+  }
+
+  public void addStages(String className, PassRecord stages) {
+    classes.computeIfAbsent(className, ClassMetrics::new).addStages(stages);
+  }
+
+  /**
+   * Metrics of every class with at least one processed method or written stage, ordered by class name.
+   */
+  public List<ClassMetrics> getClasses() {
+    List<ClassMetrics> res = new ArrayList<>(classes.values());
+    res.sort(Comparator.comparing(ClassMetrics::getName));
+    return res;
+  }
+
+  /**
+   * Passes of all methods of the run.
+   */
+  public Map<String, PassStats> getPasses() {
+    Map<String, PassStats> res = new LinkedHashMap<>();
+    for (ClassMetrics cl : getClasses()) {
+      mergeInto(res, cl.getPasses());
+    }
+    return res;
+  }
+
+  public void clear() {
+    classes.clear();
+  }
+
+  public void writeJson(Writer writer) throws IOException {
+    writer.write("{\n  \"passes\": ");
+    writePassesJson(writer, getPasses(), "  ");
+    writer.write(",\n  \"classes\": [");
+
+    boolean firstClass = true;
+    for (ClassMetrics cl : getClasses()) {
+      writer.write(firstClass ? "\n" : ",\n");
+      firstClass = false;
+
+      writer.write("    {\n      \"name\": " + quote(cl.getName()) + ",\n      \"nanos\": " + cl.getNanos() + ",\n      \"bytes\": " + cl.getBytes() +
+                   ",\n      \"stages\": ");
+      writePassesJson(writer, cl.getStages(), "      ");
+      writer.write(",\n      \"passes\": ");
+      writePassesJson(writer, cl.getPasses(), "      ");
+      writer.write(",\n      \"methods\": [");
+
+      boolean firstMethod = true;
+      for (MethodMetrics mt : cl.getMethods()) {
+        writer.write(firstMethod ? "\n" : ",\n");
+        firstMethod = false;
+
+        writer.write("        {\n          \"name\": " + quote(mt.getName()) +
+                     ",\n          \"nanos\": " + mt.getNanos() +
+                     ",\n          \"bytes\": " + mt.getBytes() +
+                     ",\n          \"mainLoopIterations\": " + mt.getMainLoopIterations() +
+                     ",\n          \"mergeLoopIterations\": " + mt.getMergeLoopIterations() +
+                     ",\n          \"passes\": ");
+        writePassesJson(writer, mt.getPasses(), "          ");
+        writer.write("\n        }");
+      }
+      writer.write("\n      ]\n    }");
+    }
+    writer.write("\n  ]\n}\n");
+  }
+
+  /**
+   * One row per pass of every method, with the loop iterations of the method repeated on each of its rows. The stages
+   * of a class come first, with an empty method name.
+   */
+  public void writeCsv(Writer writer) throws IOException {
+    writer.write("class,method,main_loop_iterations,merge_loop_iterations,pass,invocations,nanos,bytes\n");
+    for (ClassMetrics cl : getClasses()) {
+      writePassesCsv(writer, csv(cl.getName()) + ",,0,0,", cl.getStages());
+      for (MethodMetrics mt : cl.getMethods()) {
+        String prefix = csv(cl.getName()) + ',' + csv(mt.getName()) + ',' + mt.getMainLoopIterations() + ',' + mt.getMergeLoopIterations() + ',';
+        writePassesCsv(writer, prefix, mt.getPasses());
+      }
+    }
+  }
+
+  private static void writePassesCsv(Writer writer, String prefix, Map<String, PassStats> passes) throws IOException {
+    for (Map.Entry<String, PassStats> entry : passes.entrySet()) {
+      PassStats stats = entry.getValue();
+      writer.write(prefix + csv(entry.getKey()) + ',' + stats.getInvocations() + ',' + stats.getNanos() + ',' + stats.getBytes() + '\n');
+    }
+  }
+
+  private static void writePassesJson(Writer writer, Map<String, PassStats> passes, String indent) throws IOException {
+    writer.write("{");
+    boolean first = true;
+    for (Map.Entry<String, PassStats> entry : passes.entrySet()) {
+      PassStats stats = entry.getValue();
+      writer.write(first ? "\n" : ",\n");
+      first = false;
+      writer.write(indent + "  " + quote(entry.getKey()) + ": {\"invocations\": " + stats.getInvocations() + ", \"nanos\": " + stats.getNanos() +
+                   ", \"bytes\": " + stats.getBytes() + "}");
+    }
+    writer.write(first ? "}" : "\n" + indent + "}");
+  }
+
+  private static void mergeInto(Map<String, PassStats> target, Map<String, PassStats> passes) {
+    for (Map.Entry<String, PassStats> entry : passes.entrySet()) {
+      target.computeIfAbsent(entry.getKey(), k -> new PassStats()).add(entry.getValue());
+    }
+  }
+
+  private static String quote(String value) {
+    StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        builder.append('\\').append(c);
+      }
+      else if (c < 0x20) {
+        builder.append(String.format("\\u%04x", (int)c));
+      }
+      else {
+        builder.append(c);
+      }
+    }
+    return builder.append('"').toString();
+  }
+
+  private static String csv(String value) {
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+
+  public static final class PassStats {
+    private int invocations;
+    private long nanos;
+    private long bytes;
+
+    void add(long nanos, long bytes) {
+      this.invocations++;
+      this.nanos += nanos;
+      this.bytes += bytes;
+    }
+
+    void add(PassStats other) {
+      this.invocations += other.invocations;
+      this.nanos += other.nanos;
+      this.bytes += other.bytes;
+    }
+
+    public int getInvocations() {
+      return invocations;
+    }
+
+    public long getNanos() {
+      return nanos;
+    }
+
+    /**
+     * Bytes allocated by the pass, 0 unless allocations are collected.
+     */
+    public long getBytes() {
+      return bytes;
+    }
+  }
+
+  /**
+   * Passes run one after the other on a single thread. Each pass is charged with everything since the previous one.
+   */
+  public static class PassRecord {
+    private final Map<String, PassStats> passes = new LinkedHashMap<>();
+    private final boolean allocations;
+    private long checkpointNanos;
+    private long checkpointBytes;
+    private long nanos;
+    private long bytes;
+
+    public PassRecord() {
+      allocations = isAllocationEnabled();
+      checkpointNanos = System.nanoTime();
+      checkpointBytes = allocations ? AllocationCounter.getAllocatedBytes() : 0;
+    }
+
+    public void addPass(String pass) {
+      long now = System.nanoTime();
+      long allocated = allocations ? AllocationCounter.getAllocatedBytes() : 0;
+
+      passes.computeIfAbsent(pass, k -> new PassStats()).add(now - checkpointNanos, allocated - checkpointBytes);
+      nanos += now - checkpointNanos;
+      bytes += allocated - checkpointBytes;
+
+      checkpointNanos = now;
+      checkpointBytes = allocated;
+    }
+
+    public Map<String, PassStats> getPasses() {
+      return passes;
+    }
+
+    public long getNanos() {
+      return nanos;
+    }
+
+    public long getBytes() {
+      return bytes;
+    }
+  }
+
+  public static final class MethodMetrics extends PassRecord {
+    private final String name;
+    private int mainLoopIterations;
+    private int mergeLoopIterations;
+
+    public MethodMetrics(String name) {
+      this.name = name;
+    }
+
+    public void incrementMainLoop() {
+      mainLoopIterations++;
+    }
+
+    public void incrementMergeLoop() {
+      mergeLoopIterations++;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public int getMainLoopIterations() {
+      return mainLoopIterations;
+    }
+
+    public int getMergeLoopIterations() {
+      return mergeLoopIterations;
+    }
+  }
+
+  public static final class ClassMetrics {
+    private final String name;
+    private final List<MethodMetrics> methods = new ArrayList<>();
+    private final Map<String, PassStats> stages = new LinkedHashMap<>();
+
+    ClassMetrics(String name) {
+      this.name = name;
+    }
+
+    synchronized void add(MethodMetrics method) {
+      methods.add(method);
+    }
+
+    synchronized void addStages(PassRecord record) {
+      mergeInto(stages, record.getPasses());
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public synchronized List<MethodMetrics> getMethods() {
+      return new ArrayList<>(methods);
+    }
+
+    /**
+     * Stages of writing the class, empty for nested classes which are written as part of their root class.
+     */
+    public synchronized Map<String, PassStats> getStages() {
+      return new LinkedHashMap<>(stages);
+    }
+
+    public Map<String, PassStats> getPasses() {
+      Map<String, PassStats> res = new LinkedHashMap<>();
+      for (MethodMetrics mt : getMethods()) {
+        mergeInto(res, mt.getPasses());
+      }
+      return res;
+    }
+
+    /**
+     * Time spent in the pipelines of the methods of the class.
+     */
+    public long getNanos() {
+      long res = 0;
+      for (MethodMetrics mt : getMethods()) {
+        res += mt.getNanos();
+      }
+      return res;
+    }
+
+    public long getBytes() {
+      long res = 0;
+      for (MethodMetrics mt : getMethods()) {
+        res += mt.getBytes();
+      }
+      return res;
+    }
+  }
+
+  // Bytes allocated by the current thread, as counted by HotSpot and compatible JVMs. Only BeanCounter links against
+  // com.sun.management, so a runtime without the jdk.management module fails its lookup here instead of every pass.
+  private static final class AllocationCounter {
+    private static final LongSupplier counter = findCounter();
+
+    private static LongSupplier findCounter() {
+      try {
+        return BeanCounter.find();
+      }
+      catch (LinkageError e) { // com.sun.management is not available
+        return null;
+      }
+    }
+
+    static boolean isSupported() {
+      return counter != null;
+    }
+
+    static long getAllocatedBytes() {
+      return counter.getAsLong();
+    }
+  }
+
+  private static final class BeanCounter {
+    static LongSupplier find() {
+      try {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+          com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean)bean;
+          if (allocationBean.isThreadAllocatedMemorySupported()) {
+            if (!allocationBean.isThreadAllocatedMemoryEnabled()) {
+              allocationBean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return () -> allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+          }
+        }
+      }
+      catch (UnsupportedOperationException | SecurityException ignored) { }
+
+      return null;
+    }
+  }
+}
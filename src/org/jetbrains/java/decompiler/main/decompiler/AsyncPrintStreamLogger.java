@@ -0,0 +1,248 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.java.decompiler.main.decompiler;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link PrintStreamLogger} that does not write on the calling thread. Messages are formatted by the caller, with its
+ * indentation, and put into a bounded ring buffer that a single background thread writes to the stream. Callers only
+ * contend on claiming a slot of the buffer, not on the lock of the stream.
+ * <p>
+ * Messages of one thread are written in order. When the buffer is full, the caller either waits for a free slot or
+ * drops the message, in which case the number of dropped messages is written instead. {@link #close()} writes all
+ * pending messages and stops the background thread, later messages are written directly.
+ */
+public class AsyncPrintStreamLogger extends PrintStreamLogger implements AutoCloseable {
+  public enum OverflowPolicy {
+    BLOCK, DROP
+  }
+
+  public static final int DEFAULT_CAPACITY = 8192;
+  private static final int MAX_BATCH_LENGTH = 64 * 1024;
+  private static final long FULL_WAIT_NANOS = 100_000;
+
+  private final PrintStream stream;
+  private final OverflowPolicy policy;
+
+  // Bounded queue of Vyukov: a slot is free for the entry with ticket t once its sequence is t and holds it once its
+  // sequence is t + 1. The writer hands the slot to the ticket one lap later by setting it to t + capacity.
+  private final String[] entries;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  private long head = 0; // only accessed by the writer, and under the lock of the stream once it stopped
+
+  private final AtomicLong dropped = new AtomicLong();
+  private final Thread writer;
+  private volatile boolean waiting = false;
+  private volatile boolean closed = false;
+
+  public AsyncPrintStreamLogger(PrintStream printStream) {
+    this(printStream, DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+  }
+
+  /**
+   * @param capacity number of messages the buffer holds, rounded up to a power of two
+   */
+  public AsyncPrintStreamLogger(PrintStream printStream, int capacity, OverflowPolicy policy) {
+    super(printStream);
+    this.stream = printStream;
+    this.policy = policy;
+
+    int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+    entries = new String[size];
+    sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+    mask = size - 1;
+
+    writer = new Thread(this::writeEntries, "Log writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  @Override
+  public void writeMessage(String message, Severity severity) {
+    if (accepts(severity)) {
+      enqueue(formatMessage(message, severity) + System.lineSeparator());
+    }
+  }
+
+  @Override
+  public void writeMessage(String message, Severity severity, Throwable t) {
+    if (accepts(severity)) {
+      StringWriter text = new StringWriter();
+      PrintWriter out = new PrintWriter(text);
+      out.println(formatMessage(message, severity));
+      t.printStackTrace(out);
+      out.flush();
+      enqueue(text.toString());
+    }
+  }
+
+  /**
+   * Writes all pending messages and stops the background thread.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    LockSupport.unpark(writer);
+    drainClosed(null);
+  }
+
+  // Writes the entries of threads that were still logging while the writer stopped, then the given entry. A slot
+  // claimed before that is waited for until its entry is published, an entry published later is written by the thread
+  // that logged it. Draining first keeps the messages of a thread in order when it logs on after the close.
+  private void drainClosed(String entry) {
+    boolean interrupted = false;
+    while (writer.isAlive()) {
+      try {
+        writer.join();
+      }
+      catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+
+    synchronized (stream) {
+      while (head < tail.get()) {
+        String pending = poll();
+        if (pending == null) {
+          Thread.yield(); // claimed, but not published yet
+        }
+        else {
+          stream.print(pending);
+        }
+      }
+
+      long lost = dropped.getAndSet(0);
+      if (lost > 0) {
+        stream.print(getDroppedNotice(lost));
+      }
+      if (entry != null) {
+        stream.print(entry);
+      }
+      stream.flush();
+    }
+  }
+
+  private void enqueue(String entry) {
+    while (!closed) {
+      if (offer(entry)) {
+        if (closed) {
+          drainClosed(null); // the writer may have stopped before seeing the entry
+        }
+        else if (waiting) {
+          LockSupport.unpark(writer);
+        }
+        return;
+      }
+
+      if (policy == OverflowPolicy.DROP) {
+        dropped.incrementAndGet();
+        return;
+      }
+
+      LockSupport.unpark(writer);
+      LockSupport.parkNanos(this, FULL_WAIT_NANOS);
+    }
+
+    // closed, the writer is gone or about to stop
+    drainClosed(entry);
+  }
+
+  private boolean offer(String entry) {
+    long ticket = tail.get();
+    while (true) {
+      int index = (int)ticket & mask;
+      long diff = sequences.get(index) - ticket;
+
+      if (diff == 0) {
+        if (tail.compareAndSet(ticket, ticket + 1)) {
+          entries[index] = entry;
+          sequences.set(index, ticket + 1);
+          return true;
+        }
+        ticket = tail.get();
+      }
+      else if (diff < 0) { // the slot still holds the entry of the previous lap
+        return false;
+      }
+      else { // another thread claimed the ticket
+        ticket = tail.get();
+      }
+    }
+  }
+
+  private String poll() {
+    int index = (int)head & mask;
+    if (sequences.get(index) != head + 1) {
+      return null;
+    }
+
+    String entry = entries[index];
+    entries[index] = null;
+    sequences.lazySet(index, head + entries.length);
+    head++;
+    return entry;
+  }
+
+  // not indented, the writer has no decompiler context
+  private static String getDroppedNotice(long count) {
+    return Severity.WARN.prefix + count + " log messages dropped, the log buffer was full" + System.lineSeparator();
+  }
+
+  private void writeEntries() {
+    StringBuilder batch = new StringBuilder();
+
+    while (true) {
+      boolean done = closed;
+
+      String entry = poll();
+      if (entry != null) {
+        batch.append(entry);
+        if (batch.length() < MAX_BATCH_LENGTH) {
+          continue;
+        }
+      }
+
+      long lost = dropped.getAndSet(0);
+      if (lost > 0) {
+        batch.append(getDroppedNotice(lost));
+      }
+
+      if (batch.length() > 0) {
+        synchronized (stream) {
+          stream.print(batch);
+          if (entry == null) {
+            stream.flush();
+          }
+        }
+        batch.setLength(0);
+      }
+
+      if (entry != null) {
+        continue;
+      }
+      if (done) {
+        return;
+      }
+
+      // producers check the flag after publishing an entry, so one published before it was set is seen below
+      waiting = true;
+      if (sequences.get((int)head & mask) != head + 1 && !closed) {
+        LockSupport.park(this);
+      }
+      waiting = false;
+    }
+  }
+}
@@ -3,6 +3,7 @@ package org.jetbrains.java.decompiler.main.decompiler;
 
 import org.jetbrains.java.decompiler.main.Fernflower;
 import org.jetbrains.java.decompiler.main.extern.IBytecodeProvider;
+import org.jetbrains.java.decompiler.main.extern.IDecompilationListener;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
 import org.jetbrains.java.decompiler.main.extern.IResultSaver;
 
@@ -25,6 +26,10 @@ public class BaseDecompiler {
     engine.addLibrary(library);
   }
 
+  public void addListener(IDecompilationListener listener) {
+    engine.addListener(listener);
+  }
+
   public void decompileContext() {
     try {
       engine.decompileContext();
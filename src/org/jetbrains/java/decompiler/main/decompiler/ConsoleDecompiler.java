@@ -71,6 +71,7 @@ public class ConsoleDecompiler implements IBytecodeProvider, IResultSaver {
     List<File> sources = new ArrayList<>();
     List<File> libraries = new ArrayList<>();
     Set<String> whitelist = new HashSet<>();
+    Set<String> blacklist = new HashSet<>();
 
     SaveType userSaveType = null;
     boolean isOption = true;
@@ -121,6 +122,9 @@ public class ConsoleDecompiler implements IBytecodeProvider, IResultSaver {
         else if (arg.startsWith("-only=")) {
           whitelist.add(arg.substring(6));
         }
+        else if (arg.startsWith("-exclude=")) {
+          blacklist.add(arg.substring(9));
+        }
         else {
           addPath(sources, arg);
         }
@@ -152,20 +156,29 @@ public class ConsoleDecompiler implements IBytecodeProvider, IResultSaver {
     }
 
 
-    PrintStreamLogger logger = new PrintStreamLogger(System.out);
-    ConsoleDecompiler decompiler = new ConsoleDecompiler(destination, mapOptions, logger, saveType);
+    AsyncPrintStreamLogger logger = new AsyncPrintStreamLogger(System.out);
+    try {
+      ConsoleDecompiler decompiler = new ConsoleDecompiler(destination, mapOptions, logger, saveType);
 
-    for (File library : libraries) {
-      decompiler.addLibrary(library);
-    }
-    for (File source : sources) {
-      decompiler.addSource(source);
+      // filters are applied while sources are loaded
+      for (String prefix : whitelist) {
+        decompiler.addWhitelist(prefix);
+      }
+      for (String filter : blacklist) {
+        decompiler.addBlacklist(filter);
+      }
+      for (File library : libraries) {
+        decompiler.addLibrary(library);
+      }
+      for (File source : sources) {
+        decompiler.addSource(source);
+      }
+
+      decompiler.decompileContext();
     }
-    for (String prefix : whitelist) {
-      decompiler.addWhitelist(prefix);
+    finally {
+      logger.close();
     }
-
-    decompiler.decompileContext();
   }
 
   @SuppressWarnings("UseOfSystemOutOrSystemErr")
@@ -210,6 +223,10 @@ public class ConsoleDecompiler implements IBytecodeProvider, IResultSaver {
     engine.addWhitelist(prefix);
   }
 
+  public void addBlacklist(String filter) {
+    engine.addBlacklist(filter);
+  }
+
   public void decompileContext() {
     try {
       engine.decompileContext();
@@ -20,7 +20,7 @@ public class PrintStreamLogger extends IFernflowerLogger {
   @Override
   public void writeMessage(String message, Severity severity) {
     if (accepts(severity)) {
-      stream.println(severity.prefix + TextUtil.getIndentString(indent.get().get()) + message);
+      stream.println(formatMessage(message, severity));
     }
   }
 
@@ -32,6 +32,11 @@ public class PrintStreamLogger extends IFernflowerLogger {
     }
   }
 
+  // the line of a message, indented for the calling thread
+  protected String formatMessage(String message, Severity severity) {
+    return severity.prefix + TextUtil.getIndentString(indent.get().get()) + message;
+  }
+
   @Override
   public void startReadingClass(String className) {
     if (accepts(Severity.INFO)) {
@@ -0,0 +1,45 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.java.decompiler.main.extern;
+
+import org.jetbrains.java.decompiler.main.collectors.PassMetrics;
+
+/**
+ * Receives the progress of a decompilation. Classes are decompiled by several threads at once, so every method may be
+ * called concurrently and from threads other than the one that started the decompilation. Class names are internal
+ * names, as in {@code java/lang/String}.
+ */
+public interface IDecompilationListener {
+  /**
+   * A root class will be decompiled. All classes of an archive or folder are queued before the first one is finished.
+   *
+   * @param bytesIn size of the class file, -1 if unknown
+   */
+  default void classQueued(String className, long bytesIn) { }
+
+  default void classStarted(String className) { }
+
+  /**
+   * A root class has been decompiled along with its nested classes, before its source is saved.
+   *
+   * @param nanos time spent decompiling the class
+   * @param bytesIn size of the class file, -1 if unknown
+   * @param bytesOut size of the source in UTF-8, 0 if the class couldn't be decompiled
+   * @param decompiled false if the class couldn't be decompiled at all
+   */
+  default void classFinished(String className, long nanos, long bytesIn, long bytesOut, boolean decompiled) { }
+
+  /**
+   * A method couldn't be decompiled. Its body is replaced by the bytecode or an error comment.
+   */
+  default void methodFailed(String className, String methodName, String descriptor, Throwable error) { }
+
+  /**
+   * A method exceeded {@link IFernflowerPreferences#MAX_PROCESSING_METHOD} and its decompilation was stopped.
+   */
+  default void methodTimedOut(String className, String methodName, String descriptor, long millis) { }
+
+  /**
+   * The passes of a decompiled method, only reported while pass metrics are collected.
+   */
+  default void methodMetrics(String className, PassMetrics.MethodMetrics metrics) { }
+}
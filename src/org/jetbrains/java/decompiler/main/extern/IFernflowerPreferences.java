@@ -209,6 +209,38 @@ public interface IFernflowerPreferences {
   @Description("How many threads to use to decompile.")
   String THREADS = "thr";
 
+  @Name("Deduplicate Classes")
+  @Description("Decompile byte-identical copies of a class (e.g. in several input archives) only once and reuse the source for every copy.")
+  String DEDUPLICATE_CLASSES = "ddc";
+
+  @Name("Multi-Release Version")
+  @Description("Java release to decompile multi-release archives and directories for. Only the base classes and their highest versioned variants up to this release are loaded. 0 loads every variant.")
+  String MULTI_RELEASE_VERSION = "mrv";
+
+  @Name("Irreducible Split Budget")
+  @Description("Maximum number of instructions copied while splitting irreducible control flow, as a percentage of the method size. Loops of methods over the budget get a single entry through a dispatch variable instead. 0 means no limit.")
+  String IRREDUCIBLE_SPLIT_BUDGET = "isb";
+
+  @Name("Irreducible Split Copies")
+  @Description("Maximum number of statements copied while splitting irreducible control flow in one method. Loops of methods over the limit get a single entry through a dispatch variable instead. 0 means no limit.")
+  String IRREDUCIBLE_SPLIT_COPIES = "isc";
+
+  @Name("Method Work Budget")
+  @Description("Units of work, counted as pipeline loop iterations, SSA sweeps and node splits, after which a method skips optional simplifications instead of running further. Unlike the time limit the result does not depend on the machine load. 0 means no limit.")
+  String METHOD_WORK_BUDGET = "mwb";
+
+  @Name("Collect Pass Metrics")
+  @Description("Record the time spent in every pass of the method pipeline and the iterations of its loops, per method, class and run.")
+  String COLLECT_PASS_METRICS = "cpm";
+
+  @Name("Pass Metrics File")
+  @Description("File to write the pass metrics to once decompilation is done, as CSV if the name ends with .csv and as JSON otherwise. Implies collecting pass metrics.")
+  String PASS_METRICS_FILE = "pmf";
+
+  @Name("Collect Pass Allocations")
+  @Description("Count the bytes allocated by every pass of the method pipeline and every stage of writing a class, on JVMs that can count allocations per thread. Implies collecting pass metrics.")
+  String COLLECT_PASS_ALLOCATIONS = "cpa";
+
   String DUMP_ORIGINAL_LINES = "__dump_original_lines__";
   String UNIT_TEST_MODE = "__unit_test_mode__";
 
@@ -293,6 +325,14 @@ public interface IFernflowerPreferences {
     defaults.put(UNIT_TEST_MODE, "0");
     defaults.put(DUMP_ORIGINAL_LINES, "0");
     defaults.put(THREADS, String.valueOf(Runtime.getRuntime().availableProcessors()));
+    defaults.put(DEDUPLICATE_CLASSES, "0");
+    defaults.put(MULTI_RELEASE_VERSION, "0");
+    defaults.put(IRREDUCIBLE_SPLIT_BUDGET, "0");
+    defaults.put(IRREDUCIBLE_SPLIT_COPIES, "0");
+    defaults.put(METHOD_WORK_BUDGET, "0");
+    defaults.put(COLLECT_PASS_METRICS, "0");
+    defaults.put(PASS_METRICS_FILE, "");
+    defaults.put(COLLECT_PASS_ALLOCATIONS, "0");
     defaults.put(USE_JAD_VARNAMING, "0");
     defaults.put(SKIP_EXTRA_FILES, "0");
     defaults.put(WARN_INCONSISTENT_INNER_CLASSES, "1");
@@ -18,6 +18,7 @@ import org.jetbrains.java.decompiler.struct.attr.StructLocalVariableTableAttribu
 import org.jetbrains.java.decompiler.struct.gen.MethodDescriptor;
 import org.jetbrains.java.decompiler.util.DotExporter;
 import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.jetbrains.java.decompiler.util.JfrEvents;
 import org.jetbrains.java.decompiler.util.VBStyleCollection;
 
 import java.util.HashSet;
@@ -48,6 +49,7 @@ public class ClassWrapper {
 
     for (StructMethod mt : classStruct.getMethods()) {
       DecompilerContext.getLogger().startMethod(mt.getName() + " " + mt.getDescriptor());
+      JfrEvents.Recording event = JfrEvents.beginMethod(classStruct.qualifiedName, mt.getName(), mt.getDescriptor());
 
       MethodDescriptor md = MethodDescriptor.parseDescriptor(mt, null);
       VarProcessor varProc = new VarProcessor(mt, md);
@@ -64,6 +66,7 @@ public class ClassWrapper {
         MethodWrapper methodWrapper = new MethodWrapper(null, varProc, mt, classStruct, counter);
         methods.addWithKey(methodWrapper, InterpreterUtil.makeUniqueKey(mt.getName(), mt.getDescriptor()));
         DecompilerContext.getLogger().endMethod();
+        event.commit();
 
         continue;
       }
@@ -97,6 +100,7 @@ public class ClassWrapper {
                 DecompilerContext.getLogger().writeMessage(message, IFernflowerLogger.Severity.ERROR);
                 killThread(mtThread);
                 error = new TimeoutException();
+                DecompilerContext.getStructContext().getListeners().methodTimedOut(classStruct.qualifiedName, mt.getName(), mt.getDescriptor(), maxSec * 1000L);
                 break;
               }
             }
@@ -138,6 +142,7 @@ public class ClassWrapper {
         String message = "Method " + mt.getName() + " " + mt.getDescriptor() + " in class " + classStruct.qualifiedName + " couldn't be decompiled.";
         DecompilerContext.getLogger().writeMessage(message, IFernflowerLogger.Severity.WARN, t);
         error = t;
+        DecompilerContext.getStructContext().getListeners().methodFailed(classStruct.qualifiedName, mt.getName(), mt.getDescriptor(), t);
         RootStatement rootStat = MethodProcessorRunnable.debugCurrentlyDecompiling.get();
         if (rootStat != null) {
           DotExporter.errorToDotFile(rootStat, mt, "fail");
@@ -194,6 +199,7 @@ public class ClassWrapper {
       }
 
       DecompilerContext.getLogger().endMethod();
+      event.commit();
     }
 
     DecompilerContext.getLogger().endClass();
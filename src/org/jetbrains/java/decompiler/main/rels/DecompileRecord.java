@@ -1,8 +1,11 @@
 package org.jetbrains.java.decompiler.main.rels;
 
+import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.collectors.PassMetrics;
 import org.jetbrains.java.decompiler.modules.decompiler.stats.RootStatement;
 import org.jetbrains.java.decompiler.struct.StructMethod;
 import org.jetbrains.java.decompiler.util.DotExporter;
+import org.jetbrains.java.decompiler.util.JfrEvents;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,12 +15,23 @@ public final class DecompileRecord {
   private final StructMethod mt;
   private int mainLoopIteration = 0;
   private int mergeLoopIteration = 0;
+  // null unless pass metrics are collected
+  private final PassMetrics.MethodMetrics metrics;
+  private final JfrEvents.PassRecording passes;
 
   public DecompileRecord(StructMethod mt) {
     this.mt = mt;
+    this.metrics = PassMetrics.isEnabled() ? new PassMetrics.MethodMetrics(mt.getName() + " " + mt.getDescriptor()) : null;
+    this.passes = JfrEvents.beginPasses(mt.getClassQualifiedName(), mt.getName(), mt.getDescriptor());
   }
 
+  /**
+   * Records a pass that changed the statement. The time and allocations since the previous record are attributed to
+   * this pass.
+   */
   public void add(String name, RootStatement root) {
+    recordPass(name);
+
     String exportName = "";
     if (this.mainLoopIteration > 0) {
       exportName += "Loop_" + this.mainLoopIteration + "_";
@@ -34,16 +48,66 @@ public final class DecompileRecord {
     DotExporter.toDotFile(root, mt, "debug", exportName);
   }
 
+  /**
+   * Records a pass that may have left the statement unchanged. Unchanged passes only count in the metrics.
+   *
+   * @return whether the pass changed the statement
+   */
+  public boolean add(String name, boolean changed, RootStatement root) {
+    if (changed) {
+      add(name, root);
+    }
+    else {
+      recordPass(name);
+    }
+
+    return changed;
+  }
+
+  private void recordPass(String name) {
+    passes.mark(name);
+
+    if (metrics != null) {
+      metrics.addPass(getPassName(name));
+    }
+  }
+
+  // strips the iteration counter, e.g. ProcessFinally_2 or SimplifyStackVars_PPMM_1
+  private static String getPassName(String name) {
+    int end = name.length();
+    while (end > 0 && Character.isDigit(name.charAt(end - 1))) {
+      end--;
+    }
+
+    return end < name.length() && end > 1 && name.charAt(end - 1) == '_' ? name.substring(0, end - 1) : name;
+  }
+
+  /**
+   * Hands the metrics of the method over to the metrics of the run, if they are collected.
+   */
+  public void finish(String className) {
+    if (metrics != null) {
+      DecompilerContext.getStructContext().getPassMetrics().addMethod(className, metrics);
+      DecompilerContext.getStructContext().getListeners().methodMetrics(className, metrics);
+    }
+  }
+
   public void add(String name) {
     this.names.add(name);
   }
 
   public void incrementMainLoop() {
     this.mainLoopIteration++;
+    if (metrics != null) {
+      metrics.incrementMainLoop();
+    }
   }
 
   public void incrementMergeLoop() {
     this.mergeLoopIteration++;
+    if (metrics != null) {
+      metrics.incrementMergeLoop();
+    }
   }
 
   public void resetMainLoop() {
@@ -12,6 +12,7 @@ import org.jetbrains.java.decompiler.modules.code.DeadCodeHelper;
 import org.jetbrains.java.decompiler.modules.decompiler.*;
 import org.jetbrains.java.decompiler.modules.decompiler.deobfuscator.ExceptionDeobfuscator;
 import org.jetbrains.java.decompiler.modules.decompiler.stats.RootStatement;
+import org.jetbrains.java.decompiler.modules.decompiler.stats.Statement;
 import org.jetbrains.java.decompiler.modules.decompiler.vars.VarProcessor;
 import org.jetbrains.java.decompiler.struct.StructClass;
 import org.jetbrains.java.decompiler.struct.StructMethod;
@@ -75,10 +76,35 @@ public class MethodProcessorRunnable implements Runnable {
     debugCurrentCFG.set(null);
     debugCurrentDecompileRecord.set(null);
 
+    // Once the budget is spent, only the passes needed for valid output are run. The budget must not outlive a failed
+    // method, the thread goes on with other work that would be charged to it.
+    WorkBudget budget = WorkBudget.start();
+    try {
+      return codeToJava(cl, mt, md, varProc, budget);
+    }
+    finally {
+      WorkBudget.finish();
+    }
+  }
+
+  private static RootStatement codeToJava(StructClass cl, StructMethod mt, MethodDescriptor md, VarProcessor varProc, WorkBudget budget) throws IOException {
     boolean isInitializer = CodeConstants.CLINIT_NAME.equals(mt.getName()); // for now static initializer only
 
+    DecompileRecord decompileRecord = new DecompileRecord(mt);
+
     mt.expandData(cl);
     InstructionSequence seq = mt.getInstructionSequence();
+
+    // Passes that only act on constructs absent from the bytecode are skipped
+    boolean hasHandlers = mt.hasFeature(StructMethod.FEATURE_EXCEPTION_HANDLERS);
+    boolean hasMonitors = mt.hasFeature(StructMethod.FEATURE_MONITOR);
+    boolean hasSwitches = mt.hasFeature(StructMethod.FEATURE_SWITCH);
+    boolean hasInvokeDynamic = mt.hasFeature(StructMethod.FEATURE_INVOKEDYNAMIC);
+    // Without backward jumps and exception handlers the graph is acyclic, so no loop statements are ever built
+    boolean hasLoops = mt.hasFeature(StructMethod.FEATURE_BACK_EDGES | StructMethod.FEATURE_EXCEPTION_HANDLERS);
+    // Methods without any control flow end up as a single basic block, see isStraightLine
+    boolean mayBeStraightLine = !mt.hasFeature(StructMethod.FEATURE_BRANCHES | StructMethod.FEATURE_SWITCH | StructMethod.FEATURE_JSR |
+                                               StructMethod.FEATURE_EXCEPTION_HANDLERS | StructMethod.FEATURE_MONITOR);
     ControlFlowGraph graph = new ControlFlowGraph(seq);
     debugCurrentCFG.set(graph);
     DotExporter.toDotFile(graph, mt, "cfgConstructed", true);
@@ -129,7 +155,6 @@ public class MethodProcessorRunnable implements Runnable {
     DotExporter.toDotFile(graph, mt, "cfgParsed", true);
     RootStatement root = DomHelper.parseGraph(graph, mt);
 
-    DecompileRecord decompileRecord = new DecompileRecord(mt);
     debugCurrentDecompileRecord.set(decompileRecord);
 
     decompileRecord.add("Initial", root);
@@ -139,7 +164,13 @@ public class MethodProcessorRunnable implements Runnable {
     FinallyProcessor fProc = new FinallyProcessor(md, varProc);
     int finallyProcessed = 0;
 
-    while (fProc.iterateGraph(cl, mt, root, graph)) {
+    while (hasHandlers && !budget.isExhausted()) {
+      if (!fProc.iterateGraph(cl, mt, root, graph)) {
+        decompileRecord.add("ProcessFinally", false, root);
+        break;
+      }
+
+      WorkBudget.spend();
       finallyProcessed++;
       RootStatement oldRoot = root;
       root = DomHelper.parseGraph(graph, mt);
@@ -152,8 +183,8 @@ public class MethodProcessorRunnable implements Runnable {
 
     // remove synchronized exception handler
     // not until now because of comparison between synchronized statements in the finally cycle
-    if (DomHelper.removeSynchronizedHandler(root)) {
-      decompileRecord.add("RemoveSynchronizedHandler", root);
+    if (hasMonitors) {
+      decompileRecord.add("RemoveSynchronizedHandler", DomHelper.removeSynchronizedHandler(root), root);
     }
 
     //		LabelHelper.lowContinueLabels(root, new HashSet<StatEdge>());
@@ -176,6 +207,8 @@ public class MethodProcessorRunnable implements Runnable {
 
     // Process and simplify variables on the stack
     int stackVarsProcessed = 0;
+    // whether a pass may have changed the tree since the stack vars were last simplified
+    boolean stackVarsDirty;
     do {
       stackVarsProcessed++;
 
@@ -184,28 +217,33 @@ public class MethodProcessorRunnable implements Runnable {
 
       varProc.setVarVersions(root);
       decompileRecord.add("SetVarVersions_PPMM_" + stackVarsProcessed, root);
-    } while (new PPandMMHelper(varProc).findPPandMM(root));
+
+      stackVarsDirty = !budget.isExhausted() && new PPandMMHelper(varProc).findPPandMM(root);
+    } while (stackVarsDirty);
 
     // Inline ppi/mmi that we may have missed
-    if (PPandMMHelper.inlinePPIandMMIIf(root)) {
-      decompileRecord.add("InlinePPIandMMI", root);
-    }
+    stackVarsDirty |= decompileRecord.add("InlinePPIandMMI", PPandMMHelper.inlinePPIandMMIIf(root), root);
 
-    // Process invokedynamic string concat
-    if (cl.getVersion().hasIndyStringConcat()) {
+    // Process invokedynamic string concat, StringBuilder chains are already contracted by SecondaryFunctionsHelper
+    if (hasInvokeDynamic && cl.getVersion().hasIndyStringConcat()) {
       ConcatenationHelper.simplifyStringConcat(root);
       decompileRecord.add("SimplifyStringConcat", root);
+      stackVarsDirty = true;
     }
 
     // Process ternary values
     if (DecompilerContext.getOption(IFernflowerPreferences.TERNARY_CONDITIONS)) {
-      if (TernaryProcessor.processTernary(root)) {
-        decompileRecord.add("ProcessTernary", root);
-      }
+      stackVarsDirty |= decompileRecord.add("ProcessTernary", TernaryProcessor.processTernary(root), root);
+    }
+
+    boolean straightLine = mayBeStraightLine && isStraightLine(root);
+    if (straightLine) {
+      processStraightLine(root, cl, mt, stackProc, varProc, decompileRecord);
     }
 
     // Main loop
-    while (true) {
+    while (!straightLine) {
+      WorkBudget.spend();
       decompileRecord.incrementMainLoop();
       decompileRecord.add("Start", root);
 
@@ -214,25 +252,25 @@ public class MethodProcessorRunnable implements Runnable {
 
       // Merge loop
       while (true) {
+        WorkBudget.spend();
         decompileRecord.incrementMergeLoop();
         decompileRecord.add("MergeLoopStart", root);
 
-        if (EliminateLoopsHelper.eliminateLoops(root, cl)) {
-          decompileRecord.add("EliminateLoops", root);
+        if (hasLoops && decompileRecord.add("EliminateLoops", EliminateLoopsHelper.eliminateLoops(root, cl), root)) {
+          stackVarsDirty = true;
           continue;
         }
 
-        MergeHelper.enhanceLoops(root);
-        decompileRecord.add("EnhanceLoops", root);
+        stackVarsDirty |= decompileRecord.add("EnhanceLoops", MergeHelper.enhanceLoops(root), root);
 
-        if (LoopExtractHelper.extractLoops(root)) {
-          decompileRecord.add("ExtractLoops", root);
+        if (hasLoops && decompileRecord.add("ExtractLoops", LoopExtractHelper.extractLoops(root), root)) {
+          stackVarsDirty = true;
           continue;
         }
 
-        if (IfHelper.mergeAllIfs(root)) {
-          decompileRecord.add("MergeAllIfs", root);
+        if (!budget.isExhausted() && decompileRecord.add("MergeAllIfs", IfHelper.mergeAllIfs(root), root)) {
           // Continues with merge loop
+          stackVarsDirty = true;
         } else {
           break;
         }
@@ -242,64 +280,68 @@ public class MethodProcessorRunnable implements Runnable {
       decompileRecord.add("MergeLoopEnd", root);
 
       if (DecompilerContext.getOption(IFernflowerPreferences.IDEA_NOT_NULL_ANNOTATION)) {
-        if (IdeaNotNullHelper.removeHardcodedChecks(root, mt)) {
-          decompileRecord.add("RemoveIdeaNull", root);
+        if (decompileRecord.add("RemoveIdeaNull", IdeaNotNullHelper.removeHardcodedChecks(root, mt), root)) {
           SequenceHelper.condenseSequences(root);
           decompileRecord.add("CondenseSequences_RIN", root);
+          stackVarsDirty = true;
         }
       }
 
-      stackProc.simplifyStackVars(root, mt, cl);
-      decompileRecord.add("SimplifyStackVars", root);
+      // CleanupEdges and EnhanceLoops' sequence condensing only move labels and nest sequences, the flattened graph the
+      // stack vars are simplified on stays the same
+      if (stackVarsDirty) {
+        stackProc.simplifyStackVars(root, mt, cl);
+        decompileRecord.add("SimplifyStackVars", root);
 
-      varProc.setVarVersions(root);
-      decompileRecord.add("SetVarVersions", root);
+        varProc.setVarVersions(root);
+        decompileRecord.add("SetVarVersions", root);
+      }
+
+      // every pass below only loops back to the start after changing the tree
+      stackVarsDirty = true;
 
       LabelHelper.identifyLabels(root);
       decompileRecord.add("IdentifyLabels", root);
 
+      // everything from here on only beautifies a structure that is already valid
+      if (budget.isExhausted()) {
+        break;
+      }
+
       if (DecompilerContext.getOption(IFernflowerPreferences.PATTERN_MATCHING)) {
         if (cl.getVersion().hasIfPatternMatching()) {
-          if (IfPatternMatchProcessor.matchInstanceof(root)) {
-            decompileRecord.add("MatchIfInstanceof", root);
+          if (decompileRecord.add("MatchIfInstanceof", IfPatternMatchProcessor.matchInstanceof(root), root)) {
             continue;
           }
         }
       }
 
       if (SwitchExpressionHelper.hasSwitchExpressions(root)) {
-        if (SwitchExpressionHelper.processAllSwitchExpressions(root)) {
-          decompileRecord.add("ProcessSwitchExpr", root);
+        if (decompileRecord.add("ProcessSwitchExpr", SwitchExpressionHelper.processAllSwitchExpressions(root), root)) {
           continue;
         }
       }
 
-      if (TryHelper.enhanceTryStats(root, cl)) {
-        decompileRecord.add("EnhanceTry", root);
+      if (hasHandlers && decompileRecord.add("EnhanceTry", TryHelper.enhanceTryStats(root, cl), root)) {
         continue;
       }
 
-      if (InlineSingleBlockHelper.inlineSingleBlocks(root)) {
-        decompileRecord.add("InlineSingleBlocks", root);
+      if (decompileRecord.add("InlineSingleBlocks", InlineSingleBlockHelper.inlineSingleBlocks(root), root)) {
         continue;
       }
 
       // this has to be done last so it does not screw up the formation of for loops
-      if (MergeHelper.makeDoWhileLoops(root)) {
-        decompileRecord.add("MatchDoWhile", root);
+      if (hasLoops && decompileRecord.add("MatchDoWhile", MergeHelper.makeDoWhileLoops(root), root)) {
         continue;
       }
 
-      if (MergeHelper.condenseInfiniteLoopsWithReturn(root)) {
-        decompileRecord.add("CondenseDo", root);
+      if (hasLoops && decompileRecord.add("CondenseDo", MergeHelper.condenseInfiniteLoopsWithReturn(root), root)) {
         continue;
       }
 
       // initializer may have at most one return point, so no transformation of method exits permitted
-      if (isInitializer || !ExitHelper.condenseExits(root)) {
+      if (isInitializer || !decompileRecord.add("CondenseExits", ExitHelper.condenseExits(root), root)) {
         break;
-      } else {
-        decompileRecord.add("CondenseExits", root);
       }
 
       // FIXME: !!
@@ -311,17 +353,13 @@ public class MethodProcessorRunnable implements Runnable {
     decompileRecord.add("MainLoopEnd", root);
 
     // this has to be done after all inlining is done so the case values do not get reverted
-    if (SwitchHelper.simplifySwitches(root, mt, root)) {
-      decompileRecord.add("SimplifySwitches", root);
-
+    if (hasSwitches && decompileRecord.add("SimplifySwitches", SwitchHelper.simplifySwitches(root, mt, root), root)) {
       SequenceHelper.condenseSequences(root); // remove empty blocks
       decompileRecord.add("CondenseSequences_SS", root);
 
       // If we have simplified switches, try to make switch expressions
-      if (SwitchExpressionHelper.hasSwitchExpressions(root)) {
-        if (SwitchExpressionHelper.processAllSwitchExpressions(root)) {
-          decompileRecord.add("ProcessSwitchExpr_SS", root);
-
+      if (!budget.isExhausted() && SwitchExpressionHelper.hasSwitchExpressions(root)) {
+        if (decompileRecord.add("ProcessSwitchExpr_SS", SwitchExpressionHelper.processAllSwitchExpressions(root), root)) {
           // Simplify stack vars to integrate and inline switch expressions
           stackProc.simplifyStackVars(root, mt, cl);
           decompileRecord.add("SimplifyStackVars_SS", root);
@@ -333,62 +371,95 @@ public class MethodProcessorRunnable implements Runnable {
     }
 
     // Makes constant returns the same type as the method descriptor
-    if (ExitHelper.adjustReturnType(root, md)) {
-      decompileRecord.add("AdjustReturnType", root);
-    }
+    decompileRecord.add("AdjustReturnType", ExitHelper.adjustReturnType(root, md), root);
 
     // Remove returns that don't need to exist
-    if (ExitHelper.removeRedundantReturns(root)) {
-      decompileRecord.add("RedundantReturns", root);
-    }
+    decompileRecord.add("RedundantReturns", ExitHelper.removeRedundantReturns(root), root);
 
     // Apply post processing transformations
-    if (SecondaryFunctionsHelper.identifySecondaryFunctions(root, varProc)) {
-      decompileRecord.add("IdentifySecondary", root);
-    }
+    decompileRecord.add("IdentifySecondary", SecondaryFunctionsHelper.identifySecondaryFunctions(root, varProc), root);
 
     // Improve synchronized monitor assignments
-    if (SynchronizedHelper.cleanSynchronizedVar(root)) {
-      decompileRecord.add("ClearSynchronized", root);
+    if (hasMonitors) {
+      decompileRecord.add("ClearSynchronized", SynchronizedHelper.cleanSynchronizedVar(root), root);
     }
 
-    if (SynchronizedHelper.insertSink(root, varProc, root)) {
-      decompileRecord.add("InsertSynchronizedAssignments", root);
+    if (hasMonitors) {
+      decompileRecord.add("InsertSynchronizedAssignments", SynchronizedHelper.insertSink(root, varProc, root), root);
     }
 
     varProc.setVarDefinitions(root);
     decompileRecord.add("SetVarDefinitions", root);
 
     // Make sure to update assignments after setting the var definitions!
-    if (SecondaryFunctionsHelper.updateAssignments(root)) {
-      decompileRecord.add("UpdateAssignments", root);
-    }
+    decompileRecord.add("UpdateAssignments", SecondaryFunctionsHelper.updateAssignments(root), root);
 
     // Hide empty default edges caused by switch statement processing
-    if (LabelHelper.hideDefaultSwitchEdges(root)) {
-      decompileRecord.add("HideEmptyDefault", root);
+    if (hasSwitches) {
+      decompileRecord.add("HideEmptyDefault", LabelHelper.hideDefaultSwitchEdges(root), root);
     }
 
-    if (GenericsProcessor.qualifyChains(root)) {
-      decompileRecord.add("QualifyGenericChains", root);
-    }
+    decompileRecord.add("QualifyGenericChains", GenericsProcessor.qualifyChains(root), root);
 
     // must be the last invocation, because it makes the statement structure inconsistent
     // FIXME: new edge type needed
-    if (LabelHelper.replaceContinueWithBreak(root)) {
-      decompileRecord.add("ReplaceContinues", root);
+    decompileRecord.add("ReplaceContinues", LabelHelper.replaceContinueWithBreak(root), root);
+
+    if (budget.isExhausted()) {
+      DecompilerContext.getLogger().writeMessage("Method " + mt.getName() + " " + mt.getDescriptor() + " ran out of its work budget of " +
+                                                 budget.getLimit() + " units, optional simplifications were skipped",
+                                                 IFernflowerLogger.Severity.WARN);
+      root.addComment("$FF: Work budget exceeded, some simplifications were skipped");
     }
 
     DotExporter.toDotFile(root, mt, "finalStatement");
 
     // Debug print the decompile record
     DotExporter.toDotFile(decompileRecord, mt, "decompileRecord", false);
+    decompileRecord.finish(cl.qualifiedName);
 
     mt.releaseResources();
 
     return root;
   }
 
+  /**
+   * Whether the method body is a single basic block, as built by {@link DomHelper#parseGraph} for methods without any
+   * control flow. The bytecode features only rule out branches, this confirms that nothing else split the graph.
+   */
+  private static boolean isStraightLine(RootStatement root) {
+    Statement first = root.getFirst();
+    return first.type == Statement.TYPE_BASICBLOCK && first.getAllSuccessorEdges().size() == 1;
+  }
+
+  /**
+   * Accessors, delegates and other straight-line methods give the main loop nothing to restructure: there are no
+   * loops, ifs, labels or exits to merge. Only the passes that can still change a single basic block are run, once,
+   * in the order the main loop would run them.
+   */
+  private static void processStraightLine(RootStatement root,
+                                          StructClass cl,
+                                          StructMethod mt,
+                                          StackVarsProcessor stackProc,
+                                          VarProcessor varProc,
+                                          DecompileRecord decompileRecord) {
+    LabelHelper.cleanUpEdges(root);
+    decompileRecord.add("CleanupEdges", root);
+
+    // the only lasting effect of enhanceLoops without loops
+    SequenceHelper.condenseSequences(root);
+    decompileRecord.add("CondenseSequences_SL", root);
+
+    stackProc.simplifyStackVars(root, mt, cl);
+    decompileRecord.add("SimplifyStackVars", root);
+
+    varProc.setVarVersions(root);
+    decompileRecord.add("SetVarVersions", root);
+
+    LabelHelper.identifyLabels(root);
+    decompileRecord.add("IdentifyLabels", root);
+  }
+
   public RootStatement getResult() throws Throwable {
     Throwable t = error;
     if (t != null) throw t;
@@ -250,7 +250,7 @@ public class NestedClassProcessor {
     String parent_class_name = parent.getWrapper().getClassStruct().qualifiedName;
     String lambda_class_name = child.simpleName;
 
-    VarType lambda_class_type = new VarType(lambda_class_name, true);
+    VarType lambda_class_type = VarType.of(lambda_class_name, true);
 
     // this pointer
     if (!is_static_lambda_content && DecompilerContext.getOption(IFernflowerPreferences.LAMBDA_TO_ANONYMOUS_CLASS)) {
@@ -986,7 +986,7 @@ public class NestedClassProcessor {
     }
 
     Set<Statement> setStats = new HashSet<>();
-    VarType classType = new VarType(node.classStruct.qualifiedName, true);
+    VarType classType = VarType.of(node.classStruct.qualifiedName, true);
 
     Statement statement = getDefStatement(root, classType, setStats);
     if (statement == null) {
@@ -1110,45 +1110,39 @@ public class NestedClassProcessor {
   }
 
   private static boolean searchForClass(Exprent exprent, VarType classType) {
-    List<Exprent> lst = exprent.getAllExprents(true);
-    lst.add(exprent);
+    return isClassReference(exprent, classType) || !exprent.forEachExprent(expr -> !isClassReference(expr, classType), true);
+  }
 
+  private static boolean isClassReference(Exprent expr, VarType classType) {
     String classname = classType.value;
+    boolean res = false;
 
-    for (Exprent expr : lst) {
-      boolean res = false;
-
-      switch (expr.type) {
-        case Exprent.EXPRENT_CONST:
-          ConstExprent constExpr = (ConstExprent)expr;
-          res = (VarType.VARTYPE_CLASS.equals(constExpr.getConstType()) && classname.equals(constExpr.getValue()) ||
-                 classType.equals(constExpr.getConstType()));
-          break;
-        case Exprent.EXPRENT_FIELD:
-          res = classname.equals(((FieldExprent)expr).getClassname());
-          break;
-        case Exprent.EXPRENT_INVOCATION:
-          res = containsType(((InvocationExprent) expr), classType);
-          break;
-        case Exprent.EXPRENT_NEW:
-          NewExprent newExpr = (NewExprent) expr;
-          VarType newType = newExpr.getNewType();
-          res = newType.type == CodeConstants.TYPE_OBJECT && classname.equals(newType.value) || containsType(newExpr.getConstructor(), classType);
-          break;
-        case Exprent.EXPRENT_VAR:
-          VarExprent varExpr = (VarExprent)expr;
-          if (varExpr.isDefinition()) {
-            res = containsType(varExpr.getInferredExprType(null), classType);
-          }
-          break;
-      }
-
-      if (res) {
-        return true;
-      }
+    switch (expr.type) {
+      case Exprent.EXPRENT_CONST:
+        ConstExprent constExpr = (ConstExprent)expr;
+        res = (VarType.VARTYPE_CLASS.equals(constExpr.getConstType()) && classname.equals(constExpr.getValue()) ||
+               classType.equals(constExpr.getConstType()));
+        break;
+      case Exprent.EXPRENT_FIELD:
+        res = classname.equals(((FieldExprent)expr).getClassname());
+        break;
+      case Exprent.EXPRENT_INVOCATION:
+        res = containsType(((InvocationExprent) expr), classType);
+        break;
+      case Exprent.EXPRENT_NEW:
+        NewExprent newExpr = (NewExprent) expr;
+        VarType newType = newExpr.getNewType();
+        res = newType.type == CodeConstants.TYPE_OBJECT && classname.equals(newType.value) || containsType(newExpr.getConstructor(), classType);
+        break;
+      case Exprent.EXPRENT_VAR:
+        VarExprent varExpr = (VarExprent)expr;
+        if (varExpr.isDefinition()) {
+          res = containsType(varExpr.getInferredExprType(null), classType);
+        }
+        break;
     }
 
-    return false;
+    return res;
   }
 
   private static boolean containsType(InvocationExprent haystack, VarType needle) {
@@ -0,0 +1,57 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.java.decompiler.main.rels;
+
+import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+
+/**
+ * Abstract amount of work the decompiler may spend on one method. Iterations of the pipeline loops, SSA sweeps and
+ * irreducible node splits are charged one unit each, wherever they happen while the method is processed. Once the
+ * budget is spent, {@link MethodProcessorRunnable#codeToJava} leaves out optional passes instead of giving up on the
+ * method, so the result depends on the bytecode only and not on the machine load.
+ */
+public final class WorkBudget {
+  private static final ThreadLocal<WorkBudget> current = new ThreadLocal<>();
+
+  private final int limit;
+  private int spent = 0;
+
+  private WorkBudget(int limit) {
+    this.limit = limit;
+  }
+
+  /**
+   * Starts the budget of the method about to be processed on this thread, replacing the budget of the previous one.
+   */
+  public static WorkBudget start() {
+    WorkBudget budget = new WorkBudget(DecompilerContext.getIntOption(IFernflowerPreferences.METHOD_WORK_BUDGET));
+    current.set(budget);
+    return budget;
+  }
+
+  public static void finish() {
+    current.remove();
+  }
+
+  /**
+   * Charges one unit of work to the method processed on this thread, if any.
+   */
+  public static void spend() {
+    WorkBudget budget = current.get();
+    if (budget != null) {
+      budget.spent++;
+    }
+  }
+
+  public boolean isExhausted() {
+    return limit > 0 && spent >= limit;
+  }
+
+  public int getSpent() {
+    return spent;
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+}
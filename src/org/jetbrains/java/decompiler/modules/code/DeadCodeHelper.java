@@ -7,6 +7,9 @@ import org.jetbrains.java.decompiler.code.cfg.ControlFlowGraph;
 import org.jetbrains.java.decompiler.code.cfg.ExceptionRangeCFG;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.jetbrains.java.decompiler.modules.decompiler.decompose.GenericDominatorEngine;
+import org.jetbrains.java.decompiler.modules.decompiler.decompose.IGraph;
+import org.jetbrains.java.decompiler.modules.decompiler.decompose.IGraphNode;
 import org.jetbrains.java.decompiler.struct.StructMethod;
 import org.jetbrains.java.decompiler.util.DotExporter;
 
@@ -189,47 +192,26 @@ public final class DeadCodeHelper {
   }
 
 
-  public static boolean isDominator(ControlFlowGraph graph, BasicBlock block, BasicBlock dom) {
-
-    HashSet<BasicBlock> marked = new HashSet<>();
-
-    if (block == dom) {
-      return true;
-    }
-
-    LinkedList<BasicBlock> lstNodes = new LinkedList<>();
-    lstNodes.add(block);
-
-    while (!lstNodes.isEmpty()) {
-
-      BasicBlock node = lstNodes.remove(0);
-      if (marked.contains(node)) {
-        continue;
-      }
-      else {
-        marked.add(node);
+  public static GenericDominatorEngine buildDominatorEngine(ControlFlowGraph graph) {
+    GenericDominatorEngine engine = new GenericDominatorEngine(new IGraph() {
+      @Override
+      public List<? extends IGraphNode> getReversePostOrderList() {
+        return graph.getReversePostOrder();
       }
 
-      if (node == graph.getFirst()) {
-        return false;
+      @Override
+      public Set<? extends IGraphNode> getRoots() {
+        return Collections.singleton(graph.getFirst());
       }
+    });
 
-      for (int i = 0; i < node.getPreds().size(); i++) {
-        BasicBlock pred = node.getPreds().get(i);
-        if (pred != dom && !marked.contains(pred)) {
-          lstNodes.add(pred);
-        }
-      }
-
-      for (int i = 0; i < node.getPredExceptions().size(); i++) {
-        BasicBlock pred = node.getPredExceptions().get(i);
-        if (pred != dom && !marked.contains(pred)) {
-          lstNodes.add(pred);
-        }
-      }
-    }
+    engine.initialize();
+    return engine;
+  }
 
-    return true;
+  public static boolean isDominator(GenericDominatorEngine engine, BasicBlock block, BasicBlock dom) {
+    // no path from the first block leads to an unreachable block, so any block dominates it
+    return !engine.containsNode(block) || engine.isDominator(block, dom);
   }
 
   public static void removeGotos(ControlFlowGraph graph) {
@@ -17,8 +17,8 @@ public final class ConcatenationHelper {
   private static final String bufferClass = "java/lang/StringBuffer";
   private static final String stringClass = "java/lang/String";
 
-  private static final VarType builderType = new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/StringBuilder");
-  private static final VarType bufferType = new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/StringBuffer");
+  private static final VarType builderType = VarType.of(CodeConstants.TYPE_OBJECT, 0, "java/lang/StringBuilder");
+  private static final VarType bufferType = VarType.of(CodeConstants.TYPE_OBJECT, 0, "java/lang/StringBuffer");
 
   public static void simplifyStringConcat(Statement stat) {
     for (Statement s : stat.getStats()) {
@@ -7,14 +7,13 @@ import org.jetbrains.java.decompiler.code.cfg.ExceptionRangeCFG;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.jetbrains.java.decompiler.main.rels.WorkBudget;
+import org.jetbrains.java.decompiler.modules.decompiler.decompose.DominatorTree;
 import org.jetbrains.java.decompiler.modules.decompiler.decompose.FastExtendedPostdominanceHelper;
 import org.jetbrains.java.decompiler.modules.decompiler.deobfuscator.IrreducibleCFGDeobfuscator;
 import org.jetbrains.java.decompiler.modules.decompiler.stats.*;
 import org.jetbrains.java.decompiler.struct.StructMethod;
 import org.jetbrains.java.decompiler.util.DotExporter;
-import org.jetbrains.java.decompiler.util.FastFixedSetFactory;
-import org.jetbrains.java.decompiler.util.FastFixedSetFactory.FastFixedSet;
-import org.jetbrains.java.decompiler.util.InterpreterUtil;
 import org.jetbrains.java.decompiler.util.VBStyleCollection;
 
 import java.util.*;
@@ -25,8 +24,10 @@ public final class DomHelper {
     VBStyleCollection<Statement, Integer> stats = new VBStyleCollection<>();
     VBStyleCollection<BasicBlock, Integer> blocks = graph.getBlocks();
 
+    int size = 0;
     for (BasicBlock block : blocks) {
       stats.addWithKey(new BasicBlockStatement(block), block.id);
+      size += block.size();
     }
 
     BasicBlock firstblock = graph.getFirst();
@@ -86,82 +87,84 @@ public final class DomHelper {
 
     general.buildContinueSet();
     general.buildMonitorFlags();
-    return new RootStatement(general, dummyexit, mt);
+
+    RootStatement root = new RootStatement(general, dummyexit, mt);
+    root.size = size;
+    return root;
   }
 
   // Returns a postdominator tree for a given general statement
   public static VBStyleCollection<List<Integer>, Integer> calcPostDominators(Statement general) {
 
-    HashMap<Statement, FastFixedSet<Statement>> lists = new HashMap<>();
-
     // Calculate strong connectivity
     StrongConnectivityHelper schelper = new StrongConnectivityHelper(general);
     List<List<Statement>> components = schelper.getComponents();
 
     List<Statement> lstStats = general.getPostReversePostOrderList(StrongConnectivityHelper.getExitReps(components));
 
-    FastFixedSetFactory<Statement> factory = new FastFixedSetFactory<>(lstStats);
-
-    FastFixedSet<Statement> setFlagNodes = factory.createCopiedSet();
-    FastFixedSet<Statement> initSet = factory.createCopiedSet();
+    // Postdominators are the dominators of the reversed graph, in which a virtual exit node precedes every exit
+    // component. Statements of an exit component postdominate each other, so each component is a single node.
+    List<List<Statement>> lstNodes = new ArrayList<>();
+    lstNodes.add(Collections.emptyList()); // virtual exit
+    Map<Statement, Integer> mapNodes = new HashMap<>();
+    List<Integer> lstExitNodes = new ArrayList<>();
 
     for (List<Statement> component : components) {
-      FastFixedSet<Statement> tmpSet;
-
       if (StrongConnectivityHelper.isExitComponent(component)) {
-        tmpSet = factory.createEmptySet();
-        tmpSet.addAll(component);
+        lstExitNodes.add(lstNodes.size());
+        for (Statement stat : component) {
+          mapNodes.put(stat, lstNodes.size());
+        }
+        lstNodes.add(component);
       } else {
-        tmpSet = initSet.getCopy();
-      }
-
-      for (Statement stat : component) {
-        lists.put(stat, tmpSet);
+        for (Statement stat : component) {
+          mapNodes.put(stat, lstNodes.size());
+          lstNodes.add(Collections.singletonList(stat));
+        }
       }
     }
 
-    do {
-      for (Statement stat : lstStats) {
+    int[] order = reversedGraphOrder(lstNodes, mapNodes, lstExitNodes);
 
-        if (!setFlagNodes.contains(stat)) {
-          continue;
-        }
+    boolean[] exitNodes = new boolean[lstNodes.size()];
+    for (int node : lstExitNodes) {
+      exitNodes[node] = true;
+    }
 
-        setFlagNodes.remove(stat);
+    int[][] predecessors = new int[lstNodes.size()][];
+    boolean[] roots = new boolean[lstNodes.size()];
+    roots[0] = true;
+    predecessors[0] = new int[0];
 
-        FastFixedSet<Statement> doms = lists.get(stat);
-        FastFixedSet<Statement> domsSuccs = factory.createEmptySet();
+    for (int node = 1; node < lstNodes.size(); node++) {
+      int[] preds;
 
+      if (exitNodes[node]) {
+        preds = new int[]{0};
+      } else {
+        Statement stat = lstNodes.get(node).get(0);
         List<Statement> successors = stat.getNeighbours(StatEdge.TYPE_REGULAR, Statement.DIRECTION_FORWARD);
 
-        for (int j = 0; j < successors.size(); j++) {
-          Statement succ = successors.get(j);
-          FastFixedSet<Statement> succlst = lists.get(succ);
-
-          // first
-          if (j == 0) {
-            // Union the sets as it is empty at this point
-            domsSuccs.union(succlst);
-          } else {
-            domsSuccs.intersection(succlst);
+        int count = 0;
+        preds = new int[successors.size()];
+        for (Statement succ : successors) {
+          Integer succNode = mapNodes.get(succ);
+          if (succNode != null && succNode != node) {
+            preds[count++] = order[succNode];
           }
         }
+        preds = Arrays.copyOf(preds, count);
+      }
 
-        if (!domsSuccs.contains(stat)) {
-          domsSuccs.add(stat);
-        }
-
-        if (!InterpreterUtil.equalObjects(domsSuccs, doms)) {
+      predecessors[order[node]] = preds;
+    }
 
-          lists.put(stat, domsSuccs);
+    DominatorTree tree = new DominatorTree(predecessors, roots);
 
-          List<Statement> lstPreds = stat.getNeighbours(StatEdge.TYPE_REGULAR, Statement.DIRECTION_BACKWARD);
-          for (Statement pred : lstPreds) {
-            setFlagNodes.add(pred);
-          }
-        }
-      }
-    } while (!setFlagNodes.isEmpty());
+    int[] nodesByOrder = new int[order.length];
+    for (int node = 0; node < order.length; node++) {
+      nodesByOrder[order[node]] = node;
+    }
 
     VBStyleCollection<List<Integer>, Integer> postDominators = new VBStyleCollection<>();
 
@@ -176,8 +179,10 @@ public final class DomHelper {
 
       List<Integer> lstPosts = new ArrayList<>();
 
-      for (Statement stt : lists.get(st)) {
-        lstPosts.add(stt.id);
+      for (int index = order[mapNodes.get(st)]; index != 0; index = tree.getIDom(index)) {
+        for (Statement stt : lstNodes.get(nodesByOrder[index])) {
+          lstPosts.add(stt.id);
+        }
       }
 
       lstPosts.sort(Comparator.comparing(mapSortOrder::get));
@@ -192,12 +197,90 @@ public final class DomHelper {
     return postDominators;
   }
 
+  // Numbers the nodes of the reversed graph in reverse post order, starting from the virtual exit
+  private static int[] reversedGraphOrder(List<List<Statement>> lstNodes, Map<Statement, Integer> mapNodes, List<Integer> lstExitNodes) {
+    int size = lstNodes.size();
+    List<int[]> successors = new ArrayList<>(size);
+
+    successors.add(lstExitNodes.stream().mapToInt(Integer::intValue).toArray());
+    for (int node = 1; node < size; node++) {
+      List<Integer> lst = new ArrayList<>();
+      for (Statement stat : lstNodes.get(node)) {
+        for (Statement pred : stat.getNeighbours(StatEdge.TYPE_REGULAR, Statement.DIRECTION_BACKWARD)) {
+          Integer predNode = mapNodes.get(pred);
+          if (predNode != null && predNode != node) {
+            lst.add(predNode);
+          }
+        }
+      }
+      successors.add(lst.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    int[] postOrder = new int[size];
+    int counter = 0;
+
+    boolean[] visited = new boolean[size];
+    int[] stackNodes = new int[size];
+    int[] stackIndices = new int[size];
+    int depth = 0;
+
+    stackNodes[depth++] = 0;
+    visited[0] = true;
+
+    while (depth > 0) {
+      int node = stackNodes[depth - 1];
+      int[] succs = successors.get(node);
+      int index = stackIndices[depth - 1];
+
+      while (index < succs.length && visited[succs[index]]) {
+        index++;
+      }
+
+      if (index < succs.length) {
+        stackIndices[depth - 1] = index + 1;
+        visited[succs[index]] = true;
+        stackNodes[depth] = succs[index];
+        stackIndices[depth] = 0;
+        depth++;
+      } else {
+        postOrder[node] = counter++;
+        depth--;
+      }
+    }
+
+    if (counter != size) {
+      throw new RuntimeException("computing post dominators failed!");
+    }
+
+    int[] order = new int[size];
+    for (int node = 0; node < size; node++) {
+      order[node] = size - 1 - postOrder[node];
+    }
+    return order;
+  }
+
   public static RootStatement parseGraph(ControlFlowGraph graph, StructMethod mt) {
 
     RootStatement root = graphToStatement(graph, mt);
     root.addComments(graph);
 
-    if (!processStatement(root, root, new LinkedHashMap<>())) {
+    boolean parsed = processStatement(root, root, new LinkedHashMap<>());
+    logSplits(root, mt);
+
+    // over the split limits, loops with several entries are given a single one through a dispatch variable
+    if (!parsed && root.splitLimited && IrreducibleCFGDeobfuscator.addLoopDispatchers(graph, mt.getBytecodeVersion())) {
+      DecompilerContext.getLogger().writeMessage("Irreducible loops in " + mt.getName() + mt.getDescriptor() + " are entered through a dispatch variable",
+                                                 IFernflowerLogger.Severity.WARN);
+      graph.addComment("$FF: Irreducible bytecode exceeded the node splitting limits, its loops are entered through a dispatch variable");
+
+      root = graphToStatement(graph, mt);
+      root.addComments(graph);
+
+      parsed = processStatement(root, root, new LinkedHashMap<>());
+      logSplits(root, mt);
+    }
+
+    if (!parsed) {
       DotExporter.errorToDotFile(graph, mt, "parseGraphFail");
       DotExporter.errorToDotFile(root, mt, "parseGraphFailStat");
       throw new RuntimeException("parsing failure!");
@@ -214,6 +297,14 @@ public final class DomHelper {
     return root;
   }
 
+  private static void logSplits(RootStatement root, StructMethod mt) {
+    if (root.splitCopies > 0) {
+      DecompilerContext.getLogger().writeMessage("Irreducible node splitting in " + mt.getName() + mt.getDescriptor() + ": " +
+                                                 root.splitCopies + " copies, " + root.splitInstructions + " instructions copied",
+                                                 IFernflowerLogger.Severity.TRACE);
+    }
+  }
+
   public static boolean removeSynchronizedHandler(Statement stat) {
     boolean res = false;
 
@@ -333,11 +424,15 @@ public final class DomHelper {
 
           // take care of irreducible control flow graphs
           if (IrreducibleCFGDeobfuscator.isStatementIrreducible(general)) {
-            if (!IrreducibleCFGDeobfuscator.splitIrreducibleNode(general)) {
-              DecompilerContext.getLogger().writeMessage("Irreducible statement cannot be decomposed!", IFernflowerLogger.Severity.ERROR);
+            if (!IrreducibleCFGDeobfuscator.splitIrreducibleNode(general, root)) {
+              if (!root.splitLimited) {
+                DecompilerContext.getLogger().writeMessage("Irreducible statement cannot be decomposed!", IFernflowerLogger.Severity.ERROR);
+              }
 
               break;
             } else {
+              WorkBudget.spend();
+
               // Mirrors comment from reducibility loop, unsure if this is ever hit but it's here just in case
               if (reducibility == 4 && (mapstage == 1 || mapRefreshed)) {
                 DecompilerContext.getLogger().writeMessage("Irreducible statement too complex to be decomposed!", IFernflowerLogger.Severity.ERROR);
@@ -112,14 +112,14 @@ public class ExprProcessor implements CodeConstants {
     Set<String> setFinallyShortRangeEntryPoints = new HashSet<>();
     for (List<FinallyPathWrapper> lst : dgraph.mapShortRangeFinallyPaths.values()) {
       for (FinallyPathWrapper finwrap : lst) {
-        setFinallyShortRangeEntryPoints.add(finwrap.entry);
+        setFinallyShortRangeEntryPoints.add(finwrap.entry.id);
       }
     }
 
     Set<String> setFinallyLongRangeEntryPaths = new HashSet<>();
     for (List<FinallyPathWrapper> lst : dgraph.mapLongRangeFinallyPaths.values()) {
       for (FinallyPathWrapper finwrap : lst) {
-        setFinallyLongRangeEntryPaths.add(finwrap.source + "##" + finwrap.entry);
+        setFinallyLongRangeEntryPaths.add(finwrap.source.id + "##" + finwrap.entry.id);
       }
     }
 
@@ -162,10 +162,10 @@ public class ExprProcessor implements CodeConstants {
       for (DirectNode nd : node.succs) {
 
         boolean isSuccessor = true;
-        if (currentEntrypoint != null && dgraph.mapLongRangeFinallyPaths.containsKey(node.id)) {
+        if (currentEntrypoint != null && dgraph.mapLongRangeFinallyPaths.containsKey(node)) {
           isSuccessor = false;
-          for (FinallyPathWrapper finwraplong : dgraph.mapLongRangeFinallyPaths.get(node.id)) {
-            if (finwraplong.source.equals(currentEntrypoint) && finwraplong.destination.equals(nd.id)) {
+          for (FinallyPathWrapper finwraplong : dgraph.mapLongRangeFinallyPaths.get(node)) {
+            if (finwraplong.source.id.equals(currentEntrypoint) && finwraplong.destination == nd) {
               isSuccessor = true;
               break;
             }
@@ -179,7 +179,7 @@ public class ExprProcessor implements CodeConstants {
           if (setFinallyLongRangeEntryPaths.contains(node.id + "##" + nd.id)) {
             ndentrypoints.addLast(node.id);
           }
-          else if (!setFinallyShortRangeEntryPoints.contains(nd.id) && dgraph.mapLongRangeFinallyPaths.containsKey(node.id)) {
+          else if (!setFinallyShortRangeEntryPoints.contains(nd.id) && dgraph.mapLongRangeFinallyPaths.containsKey(node)) {
             ndentrypoints.removeLast(); // currentEntrypoint should
             // not be null at this point
           }
@@ -251,7 +251,7 @@ public class ExprProcessor implements CodeConstants {
 
     if (lst != null) {
       for (int i = 1; i < stat.getStats().size(); i++) {
-        map.put(flatthelper.getMapDestinationNodes().get(stat.getStats().get(i).id)[0], lst.get(i - 1));
+        map.put(flatthelper.getMapDestinationNodes().get(stat.getStats().get(i).id)[0].id, lst.get(i - 1));
       }
     }
 
@@ -524,7 +524,7 @@ public class ExprProcessor implements CodeConstants {
           break;
         case opc_checkcast:
         case opc_instanceof:
-          stack.push(new ConstExprent(new VarType(pool.getPrimitiveConstant(instr.operand(0)).getString(), true), null, null));
+          stack.push(new ConstExprent(VarType.of(pool.getPrimitiveConstant(instr.operand(0)).getString(), true), null, null));
         case opc_arraylength:
           pushEx(stack, exprlist, new FunctionExprent(mapConsts.get(instr.opcode), stack, bytecode_offsets));
           break;
@@ -570,14 +570,14 @@ public class ExprProcessor implements CodeConstants {
         case opc_anewarray:
         case opc_multianewarray:
           int dimensions = (instr.opcode == opc_new) ? 0 : (instr.opcode == opc_anewarray) ? 1 : instr.operand(1);
-          VarType arrType = new VarType(pool.getPrimitiveConstant(instr.operand(0)).getString(), true);
+          VarType arrType = VarType.of(pool.getPrimitiveConstant(instr.operand(0)).getString(), true);
           if (instr.opcode != opc_multianewarray) {
             arrType = arrType.resizeArrayDim(arrType.arrayDim + dimensions);
           }
           pushEx(stack, exprlist, new NewExprent(arrType, stack, dimensions, bytecode_offsets));
           break;
         case opc_newarray:
-          pushEx(stack, exprlist, new NewExprent(new VarType(arrTypeIds[instr.operand(0) - 4], 1), stack, 1, bytecode_offsets));
+          pushEx(stack, exprlist, new NewExprent(VarType.of(arrTypeIds[instr.operand(0) - 4], 1), stack, 1, bytecode_offsets));
           break;
         case opc_dup:
           pushEx(stack, exprlist, stack.getByOffset(-1).copy());
@@ -920,7 +920,7 @@ public class ExprProcessor implements CodeConstants {
           exprent = invocationExprent.getLstParameters().get(0);
           int paramType = invocationExprent.getDescriptor().params[0].type;
           if (exprent.type == Exprent.EXPRENT_CONST && ((ConstExprent) exprent).getConstType().type != paramType) {
-            leftType = new VarType(paramType);
+            leftType = VarType.of(paramType);
           }
         }
       }
@@ -19,9 +19,13 @@ import org.jetbrains.java.decompiler.util.VBStyleCollection;
 import java.util.*;
 
 public final class MergeHelper {
-  public static void enhanceLoops(Statement root) {
-    while (enhanceLoopsRec(root)) /**/;
+  public static boolean enhanceLoops(Statement root) {
+    boolean res = false;
+    while (enhanceLoopsRec(root)) {
+      res = true;
+    }
     SequenceHelper.condenseSequences(root);
+    return res;
   }
 
   private static boolean enhanceLoopsRec(Statement stat) {
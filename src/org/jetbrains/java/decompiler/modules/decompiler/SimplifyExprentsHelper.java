@@ -993,7 +993,7 @@ public class SimplifyExprentsHelper {
         ClassNode lambda_class = DecompilerContext.getClassProcessor().getMapRootClasses().get(lambda_class_name);
 
         if (lambda_class != null) { // real lambda class found, replace invocation with an anonymous class
-          NewExprent newExpr = new NewExprent(new VarType(lambda_class_name, true), null, 0, in.bytecode);
+          NewExprent newExpr = new NewExprent(VarType.of(lambda_class_name, true), null, 0, in.bytecode);
           newExpr.setConstructor(in);
           // note: we don't set the instance to null with in.setInstance(null) like it is done for a common constructor invocation
           // lambda can also be a reference to a virtual method (e.g. String x; ...(x::toString);)
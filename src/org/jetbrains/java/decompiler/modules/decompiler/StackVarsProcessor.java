@@ -24,12 +24,17 @@ import org.jetbrains.java.decompiler.util.SFormsFastMapDirect;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class StackVarsProcessor {
+  // set by iterateStatements when it changed loop exprent lists without counting it as a simplification
+  private boolean loopsAdjusted;
+
   public void simplifyStackVars(RootStatement root, StructMethod mt, StructClass cl) {
     Set<Integer> setReorderedIfs = new HashSet<>();
     SSAUConstructorSparseEx ssau = null;
+    boolean settled;
 
     while (true) {
       boolean found = false;
@@ -53,6 +58,7 @@ public class StackVarsProcessor {
         setEffectivelyFinalVars(root, ssau, new HashMap<>());
       }
 
+      loopsAdjusted = false;
       if (iterateStatements(root, ssau)) {
         found = true;
       }
@@ -60,17 +66,21 @@ public class StackVarsProcessor {
       setVersionsToNull(root);
 
       if (!found) {
+        // nothing changed since the ssau form was built, so running the pass on a fresh form would change nothing either
+        settled = !loopsAdjusted;
         break;
       }
     }
 
-    // remove unused assignments
-    ssau = new SSAUConstructorSparseEx();
-    ssau.splitVariables(root, mt);
+    if (!settled) {
+      // remove unused assignments
+      ssau = new SSAUConstructorSparseEx();
+      ssau.splitVariables(root, mt);
 
-    iterateStatements(root, ssau);
+      iterateStatements(root, ssau);
 
-    setVersionsToNull(root);
+      setVersionsToNull(root);
+    }
   }
 
   private static void setVersionsToNull(Statement stat) {
@@ -92,19 +102,20 @@ public class StackVarsProcessor {
   }
 
   private static void setExprentVersionsToNull(Exprent exprent) {
-    List<Exprent> lst = exprent.getAllExprents(true);
-    lst.add(exprent);
-
-    for (Exprent expr : lst) {
+    Predicate<Exprent> resetVersion = expr -> {
       if (expr.type == Exprent.EXPRENT_VAR) {
         ((VarExprent)expr).setVersion(0);
       }
-    }
+      return true;
+    };
+
+    resetVersion.test(exprent);
+    exprent.forEachExprent(resetVersion, true);
   }
 
   private boolean iterateStatements(RootStatement root, SSAUConstructorSparseEx ssa) {
-    FlattenStatementsHelper flatthelper = new FlattenStatementsHelper();
-    DirectGraph dgraph = flatthelper.buildDirectGraph(root);
+    // always called right after the ssau pass, which does not change the statements it flattened
+    DirectGraph dgraph = ssa.getDirectGraph();
 
     boolean res = false;
 
@@ -202,6 +213,7 @@ public class StackVarsProcessor {
       if (nd.exprents.isEmpty() &&
           (nd.type == DirectNode.NodeType.INIT || nd.type == DirectNode.NodeType.CONDITION || nd.type == DirectNode.NodeType.INCREMENT)) {
         nd.exprents.add(null);
+        loopsAdjusted = true;
 
         if (nd.statement.type == Statement.TYPE_DO) {
           DoStatement loop = (DoStatement)nd.statement;
@@ -549,16 +561,17 @@ public class StackVarsProcessor {
   private static Set<VarVersionPair> getAllVersions(Exprent exprent) {
     Set<VarVersionPair> res = new HashSet<>();
 
-    List<Exprent> exprents = exprent.getAllExprents(true);
-    exprents.add(exprent);
-
-    for (Exprent expr : exprents) {
+    Predicate<Exprent> collector = expr -> {
       if (expr.type == Exprent.EXPRENT_VAR) {
         VarExprent var = (VarExprent)expr;
 
         res.add(new VarVersionPair(var));
       }
-    }
+      return true;
+    };
+
+    collector.test(exprent);
+    exprent.forEachExprent(collector, true);
 
     return res;
   }
@@ -925,7 +938,7 @@ public class StackVarsProcessor {
                                                           .filter(n -> n.var == varIndex && n.preds.isEmpty())
                                                           .filter(n -> {
                                                             if (n.lvt != null) {
-                                                              return mdContent.params[j].equals(new VarType(n.lvt.getDescriptor()));
+                                                              return mdContent.params[j].equals(VarType.of(n.lvt.getDescriptor()));
                                                             }
                                                             return n.version > varVersion;
                                                           })
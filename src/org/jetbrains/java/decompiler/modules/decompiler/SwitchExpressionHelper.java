@@ -5,6 +5,7 @@ import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.*;
 import org.jetbrains.java.decompiler.modules.decompiler.stats.*;
 import org.jetbrains.java.decompiler.modules.decompiler.vars.VarVersionPair;
+import org.jetbrains.java.decompiler.struct.StructMethod;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -371,6 +372,7 @@ public final class SwitchExpressionHelper {
   }
 
   public static boolean hasSwitchExpressions(RootStatement statement) {
-    return statement.mt.getBytecodeVersion().hasSwitchExpressions() && DecompilerContext.getOption(IFernflowerPreferences.SWITCH_EXPRESSIONS);
+    return statement.mt.getBytecodeVersion().hasSwitchExpressions() && DecompilerContext.getOption(IFernflowerPreferences.SWITCH_EXPRESSIONS) &&
+           statement.mt.hasFeature(StructMethod.FEATURE_SWITCH);
   }
 }
@@ -5,6 +5,7 @@ import org.jetbrains.java.decompiler.modules.decompiler.StatEdge;
 import org.jetbrains.java.decompiler.modules.decompiler.stats.Statement;
 import org.jetbrains.java.decompiler.util.VBStyleCollection;
 
+import java.util.Arrays;
 import java.util.List;
 
 public class DominatorEngine {
@@ -13,6 +14,8 @@ public class DominatorEngine {
 
   private final VBStyleCollection<Integer, Integer> colOrderedIDoms = new VBStyleCollection<>();
 
+  private DominatorTree tree;
+
 
   public DominatorEngine(Statement statement) {
     this.statement = statement;
@@ -22,72 +25,33 @@ public class DominatorEngine {
     calcIDoms();
   }
 
-  private void orderStatements() {
-
-    for (Statement stat : statement.getReversePostOrderList()) {
+  private void calcIDoms() {
+    List<Statement> lstStats = statement.getReversePostOrderList();
+    for (Statement stat : lstStats) {
       colOrderedIDoms.addWithKey(null, stat.id);
     }
-  }
-
-  private static Integer getCommonIDom(Integer key1, Integer key2, VBStyleCollection<Integer, Integer> orderedIDoms) {
-
-    if (key1 == null) {
-      return key2;
-    }
-    else if (key2 == null) {
-      return key1;
-    }
 
-    int index1 = orderedIDoms.getIndexByKey(key1);
-    int index2 = orderedIDoms.getIndexByKey(key2);
+    int[][] predecessors = new int[lstStats.size()][];
+    for (int i = 0; i < lstStats.size(); i++) {
+      List<StatEdge> lstEdges = lstStats.get(i).getAllPredecessorEdges();
 
-    while (index1 != index2) {
-      if (index1 > index2) {
-        key1 = orderedIDoms.getWithKey(key1);
-        index1 = orderedIDoms.getIndexByKey(key1);
-      }
-      else {
-        key2 = orderedIDoms.getWithKey(key2);
-        index2 = orderedIDoms.getIndexByKey(key2);
+      int count = 0;
+      int[] preds = new int[lstEdges.size()];
+      for (StatEdge edge : lstEdges) {
+        if (colOrderedIDoms.containsKey(edge.getSource().id)) {
+          preds[count++] = colOrderedIDoms.getIndexByKey(edge.getSource().id);
+        }
       }
+      predecessors[i] = count == preds.length ? preds : Arrays.copyOf(preds, count);
     }
 
-    return key1;
-  }
-
-  private void calcIDoms() {
-
-    orderStatements();
-
-    colOrderedIDoms.putWithKey(statement.getFirst().id, statement.getFirst().id);
-
-    // exclude first statement
-    List<Integer> lstIds = colOrderedIDoms.getLstKeys().subList(1, colOrderedIDoms.getLstKeys().size());
+    boolean[] roots = new boolean[lstStats.size()];
+    roots[0] = true; // the first statement
 
-    while (true) {
+    tree = new DominatorTree(predecessors, roots);
 
-      boolean changed = false;
-
-      for (int id : lstIds) {
-
-        Statement stat = statement.getStats().getWithKey(id);
-        Integer idom = null;
-
-        for (StatEdge edge : stat.getAllPredecessorEdges()) {
-          if (colOrderedIDoms.getWithKey(edge.getSource().id) != null) {
-            idom = getCommonIDom(idom, edge.getSource().id, colOrderedIDoms);
-          }
-        }
-
-        Integer oldidom = colOrderedIDoms.putWithKey(idom, id);
-        if (!idom.equals(oldidom)) {
-          changed = true;
-        }
-      }
-
-      if (!changed) {
-        break;
-      }
+    for (int i = 0; i < lstStats.size(); i++) {
+      colOrderedIDoms.set(i, colOrderedIDoms.getKey(tree.getIDom(i)));
     }
   }
 
@@ -96,19 +60,7 @@ public class DominatorEngine {
   }
 
   public boolean isDominator(Integer node, Integer dom) {
-
-    while (!node.equals(dom)) {
-
-      Integer idom = colOrderedIDoms.getWithKey(node);
-
-      if (idom.equals(node)) {
-        return false; // root node
-      }
-      else {
-        node = idom;
-      }
-    }
-
-    return true;
+    return colOrderedIDoms.containsKey(dom) &&
+           tree.isDominator(colOrderedIDoms.getIndexByKey(node), colOrderedIDoms.getIndexByKey(dom));
   }
 }
@@ -0,0 +1,145 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.java.decompiler.modules.decompiler.decompose;
+
+import java.util.Arrays;
+
+/**
+ * Dominator forest of a graph whose nodes are numbered densely in reverse post order, built with the iterative
+ * algorithm of Cooper, Harvey and Kennedy. Roots, nodes without a processed predecessor and nodes where the trees of
+ * two roots meet are their own immediate dominator.
+ * <p>
+ * Dominance queries are answered in constant time from a pre and post order numbering of the forest.
+ */
+public final class DominatorTree {
+  private static final int UNDEFINED = -1;
+
+  private final int[] idoms;
+  private final int[] preOrder;
+  private final int[] postOrder;
+
+  /**
+   * @param predecessors the predecessors of every node by index, predecessors outside of the graph left out
+   * @param roots        the nodes that are never dominated by another node
+   */
+  public DominatorTree(int[][] predecessors, boolean[] roots) {
+    int size = predecessors.length;
+
+    idoms = new int[size];
+    Arrays.fill(idoms, UNDEFINED);
+    calcIDoms(predecessors, roots);
+
+    preOrder = new int[size];
+    postOrder = new int[size];
+    numberForest();
+  }
+
+  private void calcIDoms(int[][] predecessors, boolean[] roots) {
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+
+      for (int node = 0; node < idoms.length; node++) {
+        int idom = UNDEFINED;
+
+        if (!roots[node]) {
+          for (int pred : predecessors[node]) {
+            if (idoms[pred] != UNDEFINED) {
+              idom = idom == UNDEFINED ? pred : intersect(idom, pred);
+              if (idom == UNDEFINED) {
+                break; // no common dominator: merging point of two trees
+              }
+            }
+          }
+        }
+
+        if (idom == UNDEFINED) {
+          idom = node;
+        }
+
+        if (idoms[node] != idom) {
+          idoms[node] = idom;
+          changed = true;
+        }
+      }
+    }
+  }
+
+  private int intersect(int node1, int node2) {
+    while (node1 != node2) {
+      if (node1 > node2) {
+        int idom = idoms[node1];
+        if (idom == node1) {
+          return UNDEFINED;
+        }
+        node1 = idom;
+      }
+      else {
+        int idom = idoms[node2];
+        if (idom == node2) {
+          return UNDEFINED;
+        }
+        node2 = idom;
+      }
+    }
+
+    return node1;
+  }
+
+  private void numberForest() {
+    int size = idoms.length;
+
+    // children of every node as linked lists threaded through two arrays, the first child being the highest index
+    int[] firstChild = new int[size];
+    int[] nextSibling = new int[size];
+    Arrays.fill(firstChild, UNDEFINED);
+    for (int node = size - 1; node >= 0; node--) {
+      int idom = idoms[node];
+      if (idom != node) {
+        nextSibling[node] = firstChild[idom];
+        firstChild[idom] = node;
+      }
+    }
+
+    int[] stack = new int[size];
+    int counter = 0;
+    for (int root = 0; root < size; root++) {
+      if (idoms[root] != root) {
+        continue;
+      }
+
+      int depth = 0;
+      stack[depth++] = root;
+      preOrder[root] = counter++;
+
+      while (depth > 0) {
+        int node = stack[depth - 1];
+        int child = firstChild[node];
+
+        if (child == UNDEFINED) {
+          postOrder[node] = counter++;
+          depth--;
+        }
+        else {
+          firstChild[node] = nextSibling[child];
+          preOrder[child] = counter++;
+          stack[depth++] = child;
+        }
+      }
+    }
+  }
+
+  public int size() {
+    return idoms.length;
+  }
+
+  public int getIDom(int node) {
+    return idoms[node];
+  }
+
+  /**
+   * Whether every path from a root to {@code node} passes through {@code dom}. A node dominates itself.
+   */
+  public boolean isDominator(int node, int dom) {
+    return preOrder[dom] <= preOrder[node] && postOrder[node] <= postOrder[dom];
+  }
+}
@@ -3,42 +3,43 @@ package org.jetbrains.java.decompiler.modules.decompiler.decompose;
 
 import org.jetbrains.java.decompiler.modules.decompiler.StatEdge;
 import org.jetbrains.java.decompiler.modules.decompiler.stats.Statement;
-import org.jetbrains.java.decompiler.util.FastFixedSetFactory;
-import org.jetbrains.java.decompiler.util.FastFixedSetFactory.FastFixedSet;
-import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.jetbrains.java.decompiler.util.VBStyleCollection;
 
 import java.util.*;
-import java.util.Map.Entry;
 
+/**
+ * Extended postdominators of the statements of a general statement. Statements are numbered by their position in the
+ * general statement, and every set is a {@link BitSet} over these numbers.
+ */
 public class FastExtendedPostdominanceHelper {
 
-  private List<Statement> lstReversePostOrderList;
+  private Statement statement;
 
-  private HashMap<Integer, FastFixedSet<Integer>> mapSupportPoints = new LinkedHashMap<>();
+  private Statement[] stats;
 
-  private final HashMap<Integer, FastFixedSet<Integer>> mapExtPostdominators = new LinkedHashMap<>();
+  // statements reachable from the first one over regular and exception edges, in reverse post order
+  private int[] reversePostOrder;
 
-  private Statement statement;
+  private boolean[] reachable;
 
-  private FastFixedSetFactory<Integer> factory;
+  // candidate extended postdominators of every statement
+  private BitSet[] extPostdominators;
 
   public HashMap<Integer, Set<Integer>> getExtendedPostdominators(Statement statement) {
 
     this.statement = statement;
 
-    HashSet<Integer> set = new LinkedHashSet<>();
-    for (Statement st : statement.getStats()) {
-      set.add(st.id);
-    }
-    this.factory = new FastFixedSetFactory<>(set);
+    VBStyleCollection<Statement, Integer> colStats = statement.getStats();
+    stats = colStats.toArray(new Statement[0]);
 
-    lstReversePostOrderList = statement.getReversePostOrderList();
-
-    //		try {
-    //			DotExporter.toDotFile(statement, new File("c:\\Temp\\stat1.dot"));
-    //		} catch (Exception ex) {
-    //			ex.printStackTrace();
-    //		}
+    List<Statement> lstReversePostOrderList = statement.getReversePostOrderList();
+    reversePostOrder = new int[lstReversePostOrderList.size()];
+    reachable = new boolean[stats.length];
+    for (int i = 0; i < reversePostOrder.length; i++) {
+      int index = colStats.getIndexByKey(lstReversePostOrderList.get(i).id);
+      reversePostOrder[i] = index;
+      reachable[index] = true;
+    }
 
     calcDefaultReachableSets();
 
@@ -51,12 +52,24 @@ public class FastExtendedPostdominanceHelper {
 
     filterOnDominance(filter);
 
-    Set<Entry<Integer, FastFixedSet<Integer>>> entries = mapExtPostdominators.entrySet();
-    HashMap<Integer, Set<Integer>> res = new HashMap<>(entries.size());
-    for (Entry<Integer, FastFixedSet<Integer>> entry : entries) {
-      List<Integer> lst = new ArrayList<>(entry.getValue().toPlainSet());
-      Collections.sort(lst); // Order Matters!
-      res.put(entry.getKey(), new LinkedHashSet<>(lst));
+    int count = 0;
+    for (BitSet set : extPostdominators) {
+      if (!set.isEmpty()) {
+        count++;
+      }
+    }
+
+    HashMap<Integer, Set<Integer>> res = new HashMap<>(count);
+    for (int head = 0; head < stats.length; head++) {
+      BitSet set = extPostdominators[head];
+      if (!set.isEmpty()) {
+        List<Integer> lst = new ArrayList<>();
+        for (int index = set.nextSetBit(0); index >= 0; index = set.nextSetBit(index + 1)) {
+          lst.add(stats[index].id);
+        }
+        Collections.sort(lst); // Order Matters!
+        res.put(stats[head].id, new LinkedHashSet<>(lst));
+      }
     }
 
     return res;
@@ -66,258 +79,280 @@ public class FastExtendedPostdominanceHelper {
   private void filterOnDominance(DominatorTreeExceptionFilter filter) {
 
     DominatorEngine engine = filter.getDomEngine();
-    LinkedList<Statement> stack = new LinkedList<>();
-    LinkedList<FastFixedSet<Integer>> stackPath = new LinkedList<>();
-    Set<Statement> setVisited = new HashSet<>();
 
-    for (int head : new HashSet<>(mapExtPostdominators.keySet())) {
+    int[] queue = new int[stats.length];
+    BitSet[] queuePaths = new BitSet[stats.length];
+    int[] visited = new int[stats.length];
+    int stamp = 0;
 
-      FastFixedSet<Integer> setPostdoms = mapExtPostdominators.get(head);
+    for (int head = 0; head < stats.length; head++) {
 
-      stack.clear();
-      stackPath.clear();
-
-      stack.add(statement.getStats().getWithKey(head));
-      stackPath.add(factory.createEmptySet());
+      BitSet setPostdoms = extPostdominators[head];
+      if (setPostdoms.isEmpty()) {
+        continue;
+      }
 
-      setVisited.clear();
+      stamp++;
 
-      setVisited.add(stack.getFirst());
+      int first = 0;
+      int last = 0;
+      queue[last] = head;
+      queuePaths[last++] = new BitSet(stats.length);
+      visited[head] = stamp;
 
-      while (!stack.isEmpty()) {
+      while (first < last) {
 
-        Statement stat = stack.removeFirst();
-        FastFixedSet<Integer> path = stackPath.removeFirst();
+        int node = queue[first];
+        BitSet path = queuePaths[first];
+        queuePaths[first++] = null;
 
-        if (setPostdoms.contains(stat.id)) {
-          path.add(stat.id);
+        if (setPostdoms.get(node)) {
+          path.set(node);
         }
 
-        if (path.contains(setPostdoms)) {
+        if (containsAll(path, setPostdoms)) {
           continue;
         }
 
-        if(!engine.isDominator(stat.id, head)) {
-          setPostdoms.complement(path);
+        if (!engine.isDominator(stats[node].id, stats[head].id)) {
+          setPostdoms.andNot(path);
           continue;
         }
 
-        for (StatEdge edge : stat.getSuccessorEdges(StatEdge.TYPE_REGULAR)) {
+        for (StatEdge edge : stats[node].getSuccessorEdges(StatEdge.TYPE_REGULAR)) {
 
-          Statement edge_destination = edge.getDestination();
+          int destination = indexOf(edge.getDestination());
 
-          if(!setVisited.contains(edge_destination)) {
+          if (destination >= 0 && visited[destination] != stamp) {
 
-            stack.add(edge_destination);
-            stackPath.add(path.getCopy());
+            queue[last] = destination;
+            queuePaths[last++] = (BitSet)path.clone();
 
-            setVisited.add(edge_destination);
+            visited[destination] = stamp;
           }
         }
       }
 
-      if (setPostdoms.isEmpty()) {
-        mapExtPostdominators.remove(head);
-      }
+      Arrays.fill(queuePaths, 0, last, null);
     }
   }
 
   private void filterOnExceptionRanges(DominatorTreeExceptionFilter filter) {
-    for (int head : new HashSet<>(mapExtPostdominators.keySet())) {
-      FastFixedSet<Integer> set = mapExtPostdominators.get(head);
-      for (Iterator<Integer> it = set.iterator(); it.hasNext(); ) {
-        if (!filter.acceptStatementPair(head, it.next())) {
-          it.remove();
+    for (int head = 0; head < stats.length; head++) {
+      BitSet set = extPostdominators[head];
+      for (int index = set.nextSetBit(0); index >= 0; index = set.nextSetBit(index + 1)) {
+        if (!filter.acceptStatementPair(stats[head].id, stats[index].id)) {
+          set.clear(index);
         }
       }
-      if (set.isEmpty()) {
-        mapExtPostdominators.remove(head);
-      }
     }
   }
 
   private void removeErroneousNodes() {
-    mapSupportPoints = new HashMap<>();
-
-    calcReachabilitySuppPoints(StatEdge.TYPE_REGULAR);
+    BitSet[] reachability = calcReachability(StatEdge.TYPE_REGULAR);
 
-    iterateReachability((node, mapSets) -> {
-      Integer nodeid = node.id;
+    // A statement reached from a node through a predecessor that the node does not reach is no postdominator of
+    // that node. The removed set only depends on which predecessors reach the node, so it is shared between all nodes
+    // with the same predecessors.
+    Map<Long, BitSet> mapRemoved = new HashMap<>();
 
-      FastFixedSet<Integer> setReachability = mapSets.get(nodeid);
-      List<FastFixedSet<Integer>> lstPredSets = new ArrayList<>();
+    for (int node : reversePostOrder) {
+      BitSet setReachability = reachability[node];
+      int[] preds = getPredecessors(node, StatEdge.TYPE_REGULAR, true);
 
-      for (StatEdge prededge : node.getPredecessorEdges(StatEdge.TYPE_REGULAR)) {
-        FastFixedSet<Integer> setPred = mapSets.get(prededge.getSource().id);
-        if (setPred == null) {
-          setPred = mapSupportPoints.get(prededge.getSource().id);
-        }
-
-        // setPred cannot be empty as it is a reachability set
-        lstPredSets.add(setPred);
-      }
+      mapRemoved.clear();
 
-      for (int id : setReachability) {
+      for (int index = setReachability.nextSetBit(0); index >= 0; index = setReachability.nextSetBit(index + 1)) {
 
-        FastFixedSet<Integer> setReachabilityCopy = setReachability.getCopy();
-
-        FastFixedSet<Integer> setIntersection = factory.createEmptySet();
-        boolean isIntersectionInitialized = false;
-
-        for (FastFixedSet<Integer> predset : lstPredSets) {
-          if (predset.contains(id)) {
-            if (!isIntersectionInitialized) {
-              setIntersection.union(predset);
-              isIntersectionInitialized = true;
-            }
-            else {
-              setIntersection.intersection(predset);
+        BitSet setRemoved = null;
+        if (index != node && preds.length < 64) {
+          long key = 0;
+          for (int i = 0; i < preds.length; i++) {
+            if (reachability[preds[i]].get(index)) {
+              key |= 1L << i;
             }
           }
-        }
 
-        if (nodeid != id) {
-          setIntersection.add(nodeid);
-        }
-        else {
-          setIntersection.remove(nodeid);
+          setRemoved = mapRemoved.get(key);
+          if (setRemoved == null) {
+            mapRemoved.put(key, setRemoved = getRemovedNodes(reachability, node, index, preds));
+          }
         }
 
-        setReachabilityCopy.complement(setIntersection);
+        if (setRemoved == null) {
+          setRemoved = getRemovedNodes(reachability, node, index, preds);
+        }
 
-        mapExtPostdominators.get(id).complement(setReachabilityCopy);
+        extPostdominators[index].andNot(setRemoved);
       }
-
-      return false;
-    }, StatEdge.TYPE_REGULAR);
+    }
 
     // exception handlers cannot be postdominator nodes
-    // TODO: replace with a standard set?
-    FastFixedSet<Integer> setHandlers = factory.createEmptySet();
+    BitSet setHandlers = new BitSet(stats.length);
     boolean handlerfound = false;
 
-    for (Statement stat : statement.getStats()) {
+    for (int index = 0; index < stats.length; index++) {
+      Statement stat = stats[index];
       if (stat.getPredecessorEdges(Statement.STATEDGE_DIRECT_ALL).isEmpty() &&
           !stat.getPredecessorEdges(StatEdge.TYPE_EXCEPTION).isEmpty()) { // exception handler
-        setHandlers.add(stat.id);
+        setHandlers.set(index);
         handlerfound = true;
       }
     }
 
     if (handlerfound) {
-      for (FastFixedSet<Integer> set : mapExtPostdominators.values()) {
-        set.complement(setHandlers);
+      for (BitSet set : extPostdominators) {
+        set.andNot(setHandlers);
       }
     }
   }
 
-  private void calcDefaultReachableSets() {
-    int edgetype = StatEdge.TYPE_REGULAR | StatEdge.TYPE_EXCEPTION;
-
-    calcReachabilitySuppPoints(edgetype);
+  private BitSet getRemovedNodes(BitSet[] reachability, int node, int index, int[] preds) {
+    BitSet setIntersection = null;
 
-    for (Statement stat : statement.getStats()) {
-      mapExtPostdominators.put(stat.id, factory.createEmptySet());
+    for (int pred : preds) {
+      BitSet predset = reachability[pred];
+      if (predset.get(index)) {
+        if (setIntersection == null) {
+          setIntersection = (BitSet)predset.clone();
+        }
+        else {
+          setIntersection.and(predset);
+        }
+      }
     }
 
-    iterateReachability((node, mapSets) -> {
-      Integer nodeid = node.id;
-      FastFixedSet<Integer> setReachability = mapSets.get(nodeid);
+    if (setIntersection == null) {
+      setIntersection = new BitSet(stats.length);
+    }
 
-      for (int id : setReachability) {
-        mapExtPostdominators.get(id).add(nodeid);
-      }
+    if (node != index) {
+      setIntersection.set(node);
+    }
+    else {
+      setIntersection.clear(node);
+    }
 
-      return false;
-    }, edgetype);
+    BitSet setRemoved = (BitSet)reachability[node].clone();
+    setRemoved.andNot(setIntersection);
+    return setRemoved;
   }
 
-  private void calcReachabilitySuppPoints(final int edgetype) {
-    iterateReachability((node, mapSets) -> {
-      // consider to be a support point
-      for (StatEdge sucedge : node.getAllSuccessorEdges()) {
-        if ((sucedge.getType() & edgetype) != 0) {
-          if (mapSets.containsKey(sucedge.getDestination().id)) {
-            FastFixedSet<Integer> setReachability = mapSets.get(node.id);
-
-            if (!InterpreterUtil.equalObjects(setReachability, mapSupportPoints.get(node.id))) {
-              mapSupportPoints.put(node.id, setReachability);
-              return true;
-            }
-          }
-        }
-      }
-
-      return false;
-    }, edgetype);
-  }
+  private void calcDefaultReachableSets() {
+    int edgetype = StatEdge.TYPE_REGULAR | StatEdge.TYPE_EXCEPTION;
 
-  private void iterateReachability(IReachabilityAction action, int edgetype) {
-    HashMap<Integer, FastFixedSet<Integer>> mapSets = new HashMap<>();
+    // every reachable statement starts with all statements reachable from it
+    extPostdominators = new BitSet[stats.length];
+    for (int node = 0; node < stats.length; node++) {
+      extPostdominators[node] = new BitSet(stats.length);
+    }
 
-    while (true) {
-      boolean iterate = false;
+    int[][] successors = new int[stats.length][];
+    for (int node : reversePostOrder) {
+      successors[node] = getSuccessors(node, edgetype);
+      extPostdominators[node].set(node);
+    }
 
-      mapSets.clear();
+    boolean changed = true;
+    while (changed) {
+      changed = false;
 
-      for (Statement stat : lstReversePostOrderList) {
+      for (int i = reversePostOrder.length - 1; i >= 0; i--) {
+        int node = reversePostOrder[i];
+        for (int succ : successors[node]) {
+          changed |= addAll(extPostdominators[node], extPostdominators[succ]);
+        }
+      }
+    }
+  }
 
-        FastFixedSet<Integer> set = factory.createEmptySet();
-        set.add(stat.id);
+  // The statements from which every reachable statement can be reached over edges of the given types, itself included
+  private BitSet[] calcReachability(int edgetype) {
+    BitSet[] sets = new BitSet[stats.length];
 
-        for (StatEdge prededge : stat.getAllPredecessorEdges()) {
-          if ((prededge.getType() & edgetype) != 0) {
-            Statement pred = prededge.getSource();
+    int[][] predecessors = new int[stats.length][];
+    for (int node : reversePostOrder) {
+      predecessors[node] = getPredecessors(node, edgetype, false);
+      sets[node] = new BitSet(stats.length);
+      sets[node].set(node);
+    }
 
-            FastFixedSet<Integer> setPred = mapSets.get(pred.id);
-            if (setPred == null) {
-              setPred = mapSupportPoints.get(pred.id);
-            }
+    boolean changed = true;
+    while (changed) {
+      changed = false;
 
-            if (setPred != null) {
-              set.union(setPred);
-            }
-          }
+      for (int node : reversePostOrder) {
+        for (int pred : predecessors[node]) {
+          changed |= addAll(sets[node], sets[pred]);
         }
+      }
+    }
 
-        mapSets.put(stat.id, set);
+    return sets;
+  }
 
-        if (action != null) {
-          iterate |= action.action(stat, mapSets);
+  private int[] getPredecessors(int node, int edgetype, boolean distinct) {
+    List<StatEdge> lstEdges = stats[node].getAllPredecessorEdges();
+
+    int count = 0;
+    int[] preds = new int[lstEdges.size()];
+    for (StatEdge edge : lstEdges) {
+      if ((edge.getType() & edgetype) != 0) {
+        int pred = indexOf(edge.getSource());
+        if (pred >= 0 && reachable[pred]) {
+          preds[count++] = pred;
         }
+      }
+    }
 
-        // remove reachability information of fully processed nodes (saves memory)
-        for (StatEdge prededge : stat.getAllPredecessorEdges()) {
-          if ((prededge.getType() & edgetype) != 0) {
-            Statement pred = prededge.getSource();
-
-            if (mapSets.containsKey(pred.id)) {
-              boolean remstat = true;
-              for (StatEdge sucedge : pred.getAllSuccessorEdges()) {
-                if ((sucedge.getType() & edgetype) != 0) {
-                  if (!mapSets.containsKey(sucedge.getDestination().id)) {
-                    remstat = false;
-                    break;
-                  }
-                }
-              }
-
-              if (remstat) {
-                mapSets.put(pred.id, null);
-              }
-            }
-          }
+    if (distinct) {
+      Arrays.sort(preds, 0, count);
+      int unique = 0;
+      for (int i = 0; i < count; i++) {
+        if (i == 0 || preds[i] != preds[i - 1]) {
+          preds[unique++] = preds[i];
         }
       }
+      count = unique;
+    }
 
-      if (!iterate) {
-        break;
+    return Arrays.copyOf(preds, count);
+  }
+
+  private int[] getSuccessors(int node, int edgetype) {
+    List<StatEdge> lstEdges = stats[node].getAllSuccessorEdges();
+
+    int count = 0;
+    int[] succs = new int[lstEdges.size()];
+    for (StatEdge edge : lstEdges) {
+      if ((edge.getType() & edgetype) != 0) {
+        int succ = indexOf(edge.getDestination());
+        if (succ >= 0) {
+          succs[count++] = succ;
+        }
       }
     }
+
+    return Arrays.copyOf(succs, count);
   }
 
+  private int indexOf(Statement stat) {
+    VBStyleCollection<Statement, Integer> colStats = statement.getStats();
+    return colStats.containsKey(stat.id) ? colStats.getIndexByKey(stat.id) : -1;
+  }
 
-  private interface IReachabilityAction {
-    boolean action(Statement node, HashMap<Integer, FastFixedSet<Integer>> mapSets);
+  private static boolean addAll(BitSet set, BitSet other) {
+    int cardinality = set.cardinality();
+    set.or(other);
+    return set.cardinality() != cardinality;
+  }
+
+  private static boolean containsAll(BitSet set, BitSet other) {
+    for (int index = other.nextSetBit(0); index >= 0; index = other.nextSetBit(index + 1)) {
+      if (!set.get(index)) {
+        return false;
+      }
+    }
+    return true;
   }
 }
@@ -1,18 +1,15 @@
 // Copyright 2000-2017 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.jetbrains.java.decompiler.modules.decompiler.decompose;
 
-import org.jetbrains.java.decompiler.util.VBStyleCollection;
-
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 public class GenericDominatorEngine {
   private boolean initialized = false;
   private final IGraph graph;
 
-  private final VBStyleCollection<IGraphNode, IGraphNode> colOrderedIDoms = new VBStyleCollection<>();
+  private final Map<IGraphNode, Integer> mapIndices = new HashMap<>();
 
-  private Set<? extends IGraphNode> setRoots;
+  private DominatorTree tree;
 
   public GenericDominatorEngine(IGraph graph) {
     this.graph = graph;
@@ -23,92 +20,35 @@ public class GenericDominatorEngine {
     this.initialized = true;
   }
 
-  private void orderNodes() {
-
-    setRoots = graph.getRoots();
-
-    for (IGraphNode node : graph.getReversePostOrderList()) {
-      colOrderedIDoms.addWithKey(null, node);
-    }
-  }
-
-  private static IGraphNode getCommonIDom(IGraphNode node1, IGraphNode node2, VBStyleCollection<IGraphNode, IGraphNode> orderedIDoms) {
-
-    IGraphNode nodeOld;
+  private void calcIDoms() {
+    Set<? extends IGraphNode> setRoots = graph.getRoots();
+    List<IGraphNode> lstNodes = new ArrayList<>(graph.getReversePostOrderList());
 
-    if (node1 == null) {
-      return node2;
-    } else if (node2 == null) {
-      return node1;
+    for (int i = 0; i < lstNodes.size(); i++) {
+      mapIndices.put(lstNodes.get(i), i);
     }
 
-    int index1 = orderedIDoms.getIndexByKey(node1);
-    int index2 = orderedIDoms.getIndexByKey(node2);
-
-    while (index1 != index2) {
-      if (index1 > index2) {
-        nodeOld = node1;
-        node1 = orderedIDoms.getWithKey(node1);
+    int[][] predecessors = new int[lstNodes.size()][];
+    boolean[] roots = new boolean[lstNodes.size()];
 
-        if (nodeOld == node1) { // no idom - root or merging point
-          return null;
-        }
+    for (int i = 0; i < lstNodes.size(); i++) {
+      IGraphNode node = lstNodes.get(i);
+      roots[i] = setRoots.contains(node);
 
-        index1 = orderedIDoms.getIndexByKey(node1);
-      } else {
-        nodeOld = node2;
-        node2 = orderedIDoms.getWithKey(node2);
+      List<? extends IGraphNode> lstPreds = node.getPredecessors();
 
-        if (nodeOld == node2) { // no idom - root or merging point
-          return null;
+      int count = 0;
+      int[] preds = new int[lstPreds.size()];
+      for (IGraphNode pred : lstPreds) {
+        Integer index = mapIndices.get(pred);
+        if (index != null) {
+          preds[count++] = index;
         }
-
-        index2 = orderedIDoms.getIndexByKey(node2);
       }
+      predecessors[i] = count == preds.length ? preds : Arrays.copyOf(preds, count);
     }
 
-    return node1;
-  }
-
-  private void calcIDoms() {
-
-    orderNodes();
-
-    List<IGraphNode> lstNodes = colOrderedIDoms.getLstKeys();
-
-    while (true) {
-
-      boolean changed = false;
-
-      for (IGraphNode node : lstNodes) {
-
-        IGraphNode idom = null;
-
-        if (!setRoots.contains(node)) {
-          for (IGraphNode pred : node.getPredecessors()) {
-            if (colOrderedIDoms.getWithKey(pred) != null) {
-              idom = getCommonIDom(idom, pred, colOrderedIDoms);
-              if (idom == null) {
-                break; // no idom found: merging point of two trees
-              }
-            }
-          }
-        }
-
-        if (idom == null) {
-          idom = node;
-        }
-
-        IGraphNode oldidom = colOrderedIDoms.putWithKey(idom, node);
-        if (!idom.equals(oldidom)) { // oldidom is null iff the node is touched for the first time
-          changed = true;
-        }
-      }
-
-      if (!changed) {
-        break;
-      }
-    }
+    tree = new DominatorTree(predecessors, roots);
   }
 
   public boolean isDominator(IGraphNode node, IGraphNode dom) {
@@ -116,19 +56,23 @@ public class GenericDominatorEngine {
       throw new IllegalStateException("GenericDominatorEngine not initialized!");
     }
 
-    while (!node.equals(dom)) {
-
-      IGraphNode idom = colOrderedIDoms.getWithKey(node);
+    if (node.equals(dom)) {
+      return true;
+    }
 
-      if (idom == node) {
-        return false; // root node or merging point
-      } else if (idom == null) {
-        throw new RuntimeException("Inconsistent idom sequence discovered or node not found in dom graph!");
-      } else {
-        node = idom;
-      }
+    Integer nodeIndex = mapIndices.get(node);
+    if (nodeIndex == null) {
+      throw new RuntimeException("Inconsistent idom sequence discovered or node not found in dom graph!");
     }
 
-    return true;
+    Integer domIndex = mapIndices.get(dom);
+    return domIndex != null && tree.isDominator(nodeIndex, domIndex);
+  }
+
+  /**
+   * Whether the node was part of the graph, i.e. reachable from its roots, when the engine was initialized.
+   */
+  public boolean containsNode(IGraphNode node) {
+    return mapIndices.containsKey(node);
   }
 }
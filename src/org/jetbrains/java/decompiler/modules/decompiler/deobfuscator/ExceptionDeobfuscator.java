@@ -353,14 +353,14 @@ public final class ExceptionDeobfuscator {
 
   private static Set<BasicBlock> getRangeEntries(ExceptionRangeCFG range) {
     Set<BasicBlock> setEntries = new HashSet<>();
-    Set<BasicBlock> setRange = new HashSet<>(range.getProtectedRange());
+    List<BasicBlock> lstRange = range.getProtectedRange();
 
-    for (BasicBlock block : range.getProtectedRange()) {
-      Set<BasicBlock> setPreds = new HashSet<>(block.getPreds());
-      setPreds.removeAll(setRange);
-
-      if (!setPreds.isEmpty()) {
-        setEntries.add(block);
+    for (BasicBlock block : lstRange) {
+      for (BasicBlock pred : block.getPreds()) {
+        if (!lstRange.contains(pred)) {
+          setEntries.add(block);
+          break;
+        }
       }
     }
 
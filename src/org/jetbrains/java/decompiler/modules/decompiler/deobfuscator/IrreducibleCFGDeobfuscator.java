@@ -1,13 +1,22 @@
 // Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.jetbrains.java.decompiler.modules.decompiler.deobfuscator;
 
+import org.jetbrains.java.decompiler.code.BytecodeVersion;
+import org.jetbrains.java.decompiler.code.CodeConstants;
+import org.jetbrains.java.decompiler.code.Instruction;
+import org.jetbrains.java.decompiler.code.SimpleInstructionSequence;
+import org.jetbrains.java.decompiler.code.cfg.BasicBlock;
+import org.jetbrains.java.decompiler.code.cfg.ControlFlowGraph;
+import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.modules.decompiler.StatEdge;
 import org.jetbrains.java.decompiler.modules.decompiler.stats.BasicBlockStatement;
+import org.jetbrains.java.decompiler.modules.decompiler.stats.RootStatement;
 import org.jetbrains.java.decompiler.modules.decompiler.stats.Statement;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 
 
 public final class IrreducibleCFGDeobfuscator {
@@ -120,13 +129,43 @@ public final class IrreducibleCFGDeobfuscator {
     return candidateForSplitting;
   }
 
-  public static boolean splitIrreducibleNode(Statement statement) {
+  /**
+   * Splits the smallest candidate node of an irreducible statement. The copies made for one method are counted in its
+   * root statement, and no node is split once the copies would exceed the configured limits. The root is then marked,
+   * so that {@link #addLoopDispatchers} can take over.
+   */
+  public static boolean splitIrreducibleNode(Statement statement, RootStatement root) {
 
     Statement splitnode = getCandidateForSplitting(statement);
     if (splitnode == null) {
       return false;
     }
 
+    int size = getStatementSize(splitnode);
+
+    int maxCopies = DecompilerContext.getIntOption(IFernflowerPreferences.IRREDUCIBLE_SPLIT_COPIES);
+    if (maxCopies > 0 && root.splitCopies >= maxCopies) {
+      DecompilerContext.getLogger().writeMessage("Irreducible node splitting limit of " + maxCopies + " copies reached",
+                                                 IFernflowerLogger.Severity.WARN);
+      root.splitLimited = true;
+      return false;
+    }
+
+    int budget = DecompilerContext.getIntOption(IFernflowerPreferences.IRREDUCIBLE_SPLIT_BUDGET);
+    if (budget > 0) {
+      long limit = (long)root.size * budget / 100;
+
+      if (root.splitInstructions + size > limit) {
+        DecompilerContext.getLogger().writeMessage("Irreducible node splitting budget of " + limit + " instructions exceeded after " +
+                                                   root.splitCopies + " copies", IFernflowerLogger.Severity.WARN);
+        root.splitLimited = true;
+        return false;
+      }
+    }
+
+    root.splitCopies++;
+    root.splitInstructions += size;
+
     StatEdge enteredge = splitnode.getPredecessorEdges(StatEdge.TYPE_REGULAR).iterator().next();
 
     // copy the smallest statement
@@ -225,4 +264,218 @@ public final class IrreducibleCFGDeobfuscator {
       initCopiedStatement(st);
     }
   }
+
+  /**
+   * Gives every loop of the graph a single entry without copying code. Each jump to one of several entries of a loop
+   * stores the index of the entry in a new variable and goes to a chain of blocks that branches on it. Loops containing
+   * exception handlers or covered by different exception handlers are left as they are.
+   *
+   * @return whether any loop was changed
+   */
+  public static boolean addLoopDispatchers(ControlFlowGraph graph, BytecodeVersion bytecodeVersion) {
+    return addLoopDispatchers(graph, new LinkedHashSet<>(graph.getBlocks()), bytecodeVersion);
+  }
+
+  private static boolean addLoopDispatchers(ControlFlowGraph graph, Set<BasicBlock> blocks, BytecodeVersion bytecodeVersion) {
+    boolean res = false;
+
+    for (Set<BasicBlock> loop : getLoops(blocks)) {
+      List<BasicBlock> entries = new ArrayList<>();
+      for (BasicBlock block : loop) {
+        if (block == graph.getFirst() || !loop.containsAll(block.getPreds())) {
+          entries.add(block);
+        }
+      }
+
+      BasicBlock header = entries.isEmpty() ? loop.iterator().next() : entries.get(0);
+      if (entries.size() > 1 && canAddDispatcher(loop, entries)) {
+        header = addDispatcher(graph, loop, entries, bytecodeVersion);
+        res = true;
+      }
+
+      // loops nested in this one don't contain its header
+      loop.remove(header);
+      res |= addLoopDispatchers(graph, loop, bytecodeVersion);
+    }
+
+    return res;
+  }
+
+  // strongly connected components of the regular edges between the blocks that contain a cycle, in the order of the blocks
+  private static Collection<Set<BasicBlock>> getLoops(Set<BasicBlock> blocks) {
+    Map<BasicBlock, Integer> index = new HashMap<>();
+    Map<BasicBlock, Integer> lowlink = new HashMap<>();
+    Map<BasicBlock, Integer> components = new HashMap<>();
+    Deque<BasicBlock> stack = new ArrayDeque<>();
+    Set<BasicBlock> onStack = new HashSet<>();
+    int count = 0;
+
+    // iterative Tarjan, the path holds the blocks being visited and the iterators over their successors
+    Deque<BasicBlock> path = new ArrayDeque<>();
+    Deque<Iterator<BasicBlock>> successors = new ArrayDeque<>();
+
+    for (BasicBlock root : blocks) {
+      if (index.containsKey(root)) {
+        continue;
+      }
+
+      BasicBlock next = root;
+      while (true) {
+        if (next != null) {
+          index.put(next, index.size());
+          lowlink.put(next, index.get(next));
+          stack.push(next);
+          onStack.add(next);
+          path.push(next);
+          successors.push(next.getSuccs().iterator());
+          next = null;
+        }
+
+        BasicBlock block = path.peek();
+        Iterator<BasicBlock> it = successors.peek();
+
+        if (it.hasNext()) {
+          BasicBlock succ = it.next();
+          if (!blocks.contains(succ)) {
+            continue;
+          }
+
+          if (!index.containsKey(succ)) {
+            next = succ;
+          }
+          else if (onStack.contains(succ)) {
+            lowlink.put(block, Math.min(lowlink.get(block), index.get(succ)));
+          }
+          continue;
+        }
+
+        path.pop();
+        successors.pop();
+
+        if (lowlink.get(block).equals(index.get(block))) {
+          BasicBlock member;
+          int size = 0;
+          do {
+            member = stack.pop();
+            onStack.remove(member);
+            components.put(member, count);
+            size++;
+          }
+          while (member != block);
+
+          if (size == 1 && !block.getSuccs().contains(block)) {
+            components.remove(block);
+          }
+          count++;
+        }
+
+        if (path.isEmpty()) {
+          break;
+        }
+        BasicBlock parent = path.peek();
+        lowlink.put(parent, Math.min(lowlink.get(parent), lowlink.get(block)));
+      }
+    }
+
+    Map<Integer, Set<BasicBlock>> loops = new LinkedHashMap<>();
+    for (BasicBlock block : blocks) {
+      Integer component = components.get(block);
+      if (component != null) {
+        loops.computeIfAbsent(component, k -> new LinkedHashSet<>()).add(block);
+      }
+    }
+    return loops.values();
+  }
+
+  // handlers can't be entered through the dispatcher, and the new blocks are covered by the handlers of the loop
+  private static boolean canAddDispatcher(Set<BasicBlock> loop, List<BasicBlock> entries) {
+    if (entries.size() > Short.MAX_VALUE) {
+      return false;
+    }
+
+    Set<BasicBlock> handlers = new HashSet<>(loop.iterator().next().getSuccExceptions());
+    for (BasicBlock block : loop) {
+      if (!block.getPredExceptions().isEmpty() || !handlers.equals(new HashSet<>(block.getSuccExceptions()))) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  // returns the head of the dispatch chain, which is the only entry of the loop afterwards
+  private static BasicBlock addDispatcher(ControlFlowGraph graph, Set<BasicBlock> loop, List<BasicBlock> entries, BytecodeVersion bytecodeVersion) {
+    int var = DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.VAR_COUNTER);
+    int varLength = var <= 3 ? 1 : var <= 128 ? 2 : 4;
+    BasicBlock reference = loop.iterator().next();
+
+    List<BasicBlock> chain = new ArrayList<>();
+    for (int i = 0; i < entries.size() - 1; i++) {
+      SimpleInstructionSequence seq = new SimpleInstructionSequence();
+      seq.addInstruction(Instruction.create(CodeConstants.opc_iload, false, CodeConstants.GROUP_GENERAL, bytecodeVersion, new int[]{var}, varLength), -1);
+      seq.addInstruction(createPush(i, bytecodeVersion), -1);
+      seq.addInstruction(Instruction.create(CodeConstants.opc_if_icmpne, false, CodeConstants.GROUP_JUMP, bytecodeVersion, new int[]{0}, 3), -1);
+
+      chain.add(addBlock(graph, seq, reference));
+    }
+    loop.addAll(chain);
+
+    // every jump to an entry stores its index first
+    for (int i = 0; i < entries.size(); i++) {
+      BasicBlock entry = entries.get(i);
+
+      List<BasicBlock> preds = new ArrayList<>(new LinkedHashSet<>(entry.getPreds()));
+      if (entry == graph.getFirst()) {
+        preds.add(null);
+      }
+
+      for (BasicBlock pred : preds) {
+        SimpleInstructionSequence seq = new SimpleInstructionSequence();
+        seq.addInstruction(createPush(i, bytecodeVersion), -1);
+        seq.addInstruction(Instruction.create(CodeConstants.opc_istore, false, CodeConstants.GROUP_GENERAL, bytecodeVersion, new int[]{var}, varLength), -1);
+
+        BasicBlock setter = addBlock(graph, seq, reference);
+        if (pred == null) {
+          graph.setFirst(setter);
+        }
+        else {
+          pred.replaceSuccessor(entry, setter);
+          if (loop.contains(pred)) {
+            loop.add(setter);
+          }
+        }
+        setter.addSuccessor(chain.get(0));
+      }
+    }
+
+    // the last entry is reached when no index matched, a jump comes before the fall through in the successors
+    for (int i = 0; i < chain.size(); i++) {
+      BasicBlock block = chain.get(i);
+      block.addSuccessor(i + 1 < chain.size() ? chain.get(i + 1) : entries.get(entries.size() - 1));
+      block.addSuccessor(entries.get(i));
+    }
+
+    return chain.get(0);
+  }
+
+  private static Instruction createPush(int value, BytecodeVersion bytecodeVersion) {
+    if (value <= Byte.MAX_VALUE) {
+      return Instruction.create(CodeConstants.opc_bipush, false, CodeConstants.GROUP_GENERAL, bytecodeVersion, new int[]{value}, 2);
+    }
+    return Instruction.create(CodeConstants.opc_sipush, false, CodeConstants.GROUP_GENERAL, bytecodeVersion, new int[]{value}, 3);
+  }
+
+  // new block in the exception ranges of the reference block
+  private static BasicBlock addBlock(ControlFlowGraph graph, SimpleInstructionSequence seq, BasicBlock reference) {
+    BasicBlock block = new BasicBlock(++graph.last_id);
+    block.setSeq(seq);
+    graph.getBlocks().addWithKey(block, block.id);
+
+    for (BasicBlock handler : reference.getSuccExceptions()) {
+      block.addSuccessorException(handler);
+      graph.getExceptionRange(handler, reference).getProtectedRange().add(block);
+    }
+
+    return block;
+  }
 }
@@ -11,6 +11,7 @@ import org.jetbrains.java.decompiler.util.TextBuffer;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
+import java.util.function.Predicate;
 
 public class AnnotationExprent extends Exprent {
   public static final int ANNOTATION_NORMAL = 1;
@@ -35,6 +36,11 @@ public class AnnotationExprent extends Exprent {
     return list;
   }
 
+  @Override
+  public boolean forEachExprent(Predicate<Exprent> visitor, boolean recursive) {
+    return visitExprents(parValues, visitor, recursive);
+  }
+
   @Override
   public Exprent copy() {
     List<Exprent> exps = new ArrayList<>();
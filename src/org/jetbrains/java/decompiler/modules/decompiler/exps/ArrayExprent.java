@@ -9,6 +9,7 @@ import org.jetbrains.java.decompiler.util.TextBuffer;
 
 import java.util.BitSet;
 import java.util.List;
+import java.util.function.Predicate;
 
 public class ArrayExprent extends Exprent {
   private Exprent array;
@@ -71,6 +72,11 @@ public class ArrayExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean forEachExprent(Predicate<Exprent> visitor, boolean recursive) {
+    return visitExprent(array, visitor, recursive) && visitExprent(index, visitor, recursive);
+  }
+
   @Override
   public TextBuffer toJava(int indent) {
     TextBuffer res = array.toJava(indent);
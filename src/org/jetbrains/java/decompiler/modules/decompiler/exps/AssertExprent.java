@@ -7,6 +7,7 @@ import org.jetbrains.java.decompiler.util.TextBuffer;
 
 import java.util.BitSet;
 import java.util.List;
+import java.util.function.Predicate;
 
 public class AssertExprent extends Exprent {
 
@@ -23,6 +24,11 @@ public class AssertExprent extends Exprent {
     return list;
   }
 
+  @Override
+  public boolean forEachExprent(Predicate<Exprent> visitor, boolean recursive) {
+    return visitExprents(parameters, visitor, recursive);
+  }
+
   @Override
   public Exprent copy() {
     return null;
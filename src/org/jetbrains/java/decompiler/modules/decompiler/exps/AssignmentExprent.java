@@ -20,6 +20,7 @@ import org.jetbrains.java.decompiler.util.InterpreterUtil;
 import org.jetbrains.java.decompiler.util.TextBuffer;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 public class AssignmentExprent extends Exprent {
 
@@ -94,6 +95,11 @@ public class AssignmentExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean forEachExprent(Predicate<Exprent> visitor, boolean recursive) {
+    return visitExprent(left, visitor, recursive) && visitExprent(right, visitor, recursive);
+  }
+
   @Override
   public Exprent copy() {
     return new AssignmentExprent(left.copy(), right.copy(), condType, bytecode);
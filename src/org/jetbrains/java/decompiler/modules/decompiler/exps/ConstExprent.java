@@ -18,6 +18,7 @@ import org.jetbrains.java.decompiler.util.TextUtil;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 public class ConstExprent extends Exprent {
   private static final Map<Integer, String> CHAR_ESCAPES = new HashMap<>();
@@ -147,7 +148,7 @@ public class ConstExprent extends Exprent {
 
     if (constType.equals(VarType.VARTYPE_CLASS) && value != null) {
       String stringVal = value.toString();
-      List<VarType> args = Collections.singletonList(new VarType(stringVal, !stringVal.startsWith("[")));
+      List<VarType> args = Collections.singletonList(VarType.of(stringVal, !stringVal.startsWith("[")));
       this.constType = new GenericType(constType.type, constType.arrayDim, constType.value, null, args, GenericType.WILDCARD_NO);
     }
   }
@@ -204,6 +205,11 @@ public class ConstExprent extends Exprent {
     return list;
   }
 
+  @Override
+  public boolean forEachExprent(Predicate<Exprent> visitor, boolean recursive) {
+    return true;
+  }
+
   @Override
   public TextBuffer toJava(int indent) {
     boolean literal = DecompilerContext.getOption(IFernflowerPreferences.LITERALS_AS_IS);
@@ -339,7 +345,7 @@ public class ConstExprent extends Exprent {
         }
         else if (constType.equals(VarType.VARTYPE_CLASS)) {
           String stringVal = value.toString();
-          VarType type = new VarType(stringVal, !stringVal.startsWith("["));
+          VarType type = VarType.of(stringVal, !stringVal.startsWith("["));
           return buf.append(ExprProcessor.getCastTypeName(type)).append(".class");
         }
     }
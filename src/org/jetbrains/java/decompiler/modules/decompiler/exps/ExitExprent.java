@@ -18,6 +18,7 @@ import org.jetbrains.java.decompiler.util.TextBuffer;
 
 import java.util.BitSet;
 import java.util.List;
+import java.util.function.Predicate;
 
 public class ExitExprent extends Exprent {
 
@@ -64,6 +65,11 @@ public class ExitExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean forEachExprent(Predicate<Exprent> visitor, boolean recursive) {
+    return visitExprent(value, visitor, recursive);
+  }
+
   @Override
   public TextBuffer toJava(int indent) {
     TextBuffer buf = new TextBuffer();
@@ -106,7 +112,7 @@ public class ExitExprent extends Exprent {
           }
 
           if (classname != null) {
-            VarType exType = new VarType(classname, true);
+            VarType exType = VarType.of(classname, true);
             buf.append("throw ");
             ExprProcessor.getCastedExprent(value, exType, buf, indent, false);
             return buf;
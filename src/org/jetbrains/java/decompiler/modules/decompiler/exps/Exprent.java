@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.Predicate;
 
 public abstract class Exprent implements IMatchable {
   public static final int MULTIPLE_USES = 1;
@@ -90,13 +91,7 @@ public abstract class Exprent implements IMatchable {
     if (equals(exprent)) {
       return true;
     }
-    List<Exprent> lst = getAllExprents();
-    for (int i = lst.size() - 1; i >= 0; i--) {
-      if (lst.get(i).containsExprent(exprent)) {
-        return true;
-      }
-    }
-    return false;
+    return !forEachExprent(expr -> !expr.containsExprent(exprent), false);
   }
 
   public final List<Exprent> getAllExprents(boolean recursive) {
@@ -129,15 +124,16 @@ public abstract class Exprent implements IMatchable {
   }
 
   public Set<VarVersionPair> getAllVariables() {
-    List<Exprent> lstAllExprents = getAllExprents(true);
-    lstAllExprents.add(this);
-
     Set<VarVersionPair> set = new HashSet<>();
-    for (Exprent expr : lstAllExprents) {
+    Predicate<Exprent> collector = expr -> {
       if (expr.type == EXPRENT_VAR) {
         set.add(new VarVersionPair((VarExprent)expr));
       }
-    }
+      return true;
+    };
+
+    collector.test(this);
+    forEachExprent(collector, true);
     return set;
   }
 
@@ -152,6 +148,28 @@ public abstract class Exprent implements IMatchable {
   // Preconditions: this list must never be removed from! Only added to!
   protected abstract List<Exprent> getAllExprents(List<Exprent> list);
 
+  // Pass the exprents contained within the current one to the visitor without building a list, and descend into their
+  // own exprents if recursive. Every exprent is visited before the ones it contains, null operands are skipped.
+  // Stops as soon as the visitor returns false, and returns false in that case.
+  // Preconditions: the visited exprents must not be replaced during the traversal!
+  public abstract boolean forEachExprent(Predicate<Exprent> visitor, boolean recursive);
+
+  protected static boolean visitExprent(Exprent exprent, Predicate<Exprent> visitor, boolean recursive) {
+    if (exprent == null) {
+      return true;
+    }
+    return visitor.test(exprent) && (!recursive || exprent.forEachExprent(visitor, true));
+  }
+
+  protected static boolean visitExprents(List<? extends Exprent> exprents, Predicate<Exprent> visitor, boolean recursive) {
+    for (int i = 0; i < exprents.size(); i++) {
+      if (!visitExprent(exprents.get(i), visitor, recursive)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public abstract Exprent copy();
 
   public TextBuffer toJava() {
@@ -28,6 +28,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 public class FieldExprent extends Exprent {
   private final String name;
@@ -123,6 +124,11 @@ public class FieldExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean forEachExprent(Predicate<Exprent> visitor, boolean recursive) {
+    return visitExprent(instance, visitor, recursive);
+  }
+
   @Override
   public Exprent copy() {
     return new FieldExprent(name, classname, isStatic, instance == null ? null : instance.copy(), descriptor, bytecode);
@@ -181,7 +187,7 @@ public class FieldExprent extends Exprent {
           instance.setIsQualifier();
         }
         TextBuffer buff = new TextBuffer();
-        boolean casted = ExprProcessor.getCastedExprent(instance, new VarType(CodeConstants.TYPE_OBJECT, 0, classname), buff, indent, true);
+        boolean casted = ExprProcessor.getCastedExprent(instance, VarType.of(CodeConstants.TYPE_OBJECT, 0, classname), buff, indent, true);
 
         if (casted || instance.getPrecedence() > getPrecedence()) {
           buff.enclose("(", ")");
@@ -17,6 +17,7 @@ import org.jetbrains.java.decompiler.util.InterpreterUtil;
 import org.jetbrains.java.decompiler.util.ListStack;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 public class FunctionExprent extends Exprent {
 
@@ -491,6 +492,11 @@ public class FunctionExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean forEachExprent(Predicate<Exprent> visitor, boolean recursive) {
+    return visitExprents(lstOperands, visitor, recursive);
+  }
+
   @Override
   public Exprent copy() {
     List<Exprent> lst = new ArrayList<>();
@@ -10,6 +10,7 @@ import org.jetbrains.java.decompiler.util.TextBuffer;
 
 import java.util.BitSet;
 import java.util.List;
+import java.util.function.Predicate;
 
 public class IfExprent extends Exprent {
 
@@ -98,6 +99,11 @@ public class IfExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean forEachExprent(Predicate<Exprent> visitor, boolean recursive) {
+    return visitExprent(condition, visitor, recursive);
+  }
+
   @Override
   public TextBuffer toJava(int indent) {
     TextBuffer buf = condition.toJava(indent);
@@ -31,6 +31,7 @@ import org.jetbrains.java.decompiler.util.TextUtil;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Predicate;
 
 public class InvocationExprent extends Exprent {
 
@@ -47,7 +48,7 @@ public class InvocationExprent extends Exprent {
 
   private static final BitSet EMPTY_BIT_SET = new BitSet(0);
 
-  private static final VarType JAVA_NIO_BUFFER = new VarType(CodeConstants.TYPE_OBJECT, 0, "java/nio/Buffer");
+  private static final VarType JAVA_NIO_BUFFER = VarType.of(CodeConstants.TYPE_OBJECT, 0, "java/nio/Buffer");
 
   private String name;
   private String classname;
@@ -509,6 +510,11 @@ public class InvocationExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean forEachExprent(Predicate<Exprent> visitor, boolean recursive) {
+    return visitExprent(instance, visitor, recursive) && visitExprents(lstParameters, visitor, recursive);
+  }
+
 
   @Override
   public Exprent copy() {
@@ -590,7 +596,7 @@ public class InvocationExprent extends Exprent {
         else if (instance != null) {
           StructClass cl = DecompilerContext.getStructContext().getClass(classname);
 
-          VarType leftType = new VarType(CodeConstants.TYPE_OBJECT, 0, classname);
+          VarType leftType = VarType.of(CodeConstants.TYPE_OBJECT, 0, classname);
           if (!genericsMap.isEmpty() && cl != null && cl.getSignature() != null) {
             VarType _new = cl.getSignature().genericType.remap(genericsMap);
             if (_new != cl.getSignature().genericType) {
@@ -781,14 +787,14 @@ public class InvocationExprent extends Exprent {
       Object value = prim.value;
       String stringValue = String.valueOf(value);
       if (prim.type == CodeConstants.CONSTANT_Class) {
-        buf.append(ExprProcessor.getCastTypeName(new VarType(stringValue)));
+        buf.append(ExprProcessor.getCastTypeName(VarType.of(stringValue)));
       } else if (prim.type == CodeConstants.CONSTANT_String) {
         buf.append('"').append(ConstExprent.convertStringToJava(stringValue, false)).append('"');
       } else {
         buf.append(stringValue);
       }
     } else if (arg instanceof LinkConstant) {
-      VarType cls = new VarType(((LinkConstant) arg).classname);
+      VarType cls = VarType.of(((LinkConstant) arg).classname);
       buf.append(ExprProcessor.getCastTypeName(cls)).append("::").append(((LinkConstant) arg).elementname);
     }
   }
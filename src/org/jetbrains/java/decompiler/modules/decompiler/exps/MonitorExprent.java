@@ -11,6 +11,7 @@ import org.jetbrains.java.decompiler.util.TextBuffer;
 
 import java.util.BitSet;
 import java.util.List;
+import java.util.function.Predicate;
 
 public class MonitorExprent extends Exprent {
 
@@ -39,6 +40,11 @@ public class MonitorExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean forEachExprent(Predicate<Exprent> visitor, boolean recursive) {
+    return visitExprent(value, visitor, recursive);
+  }
+
   @Override
   public TextBuffer toJava(int indent) {
     TextBuffer buf = new TextBuffer();
@@ -35,6 +35,7 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 public class NewExprent extends Exprent {
   private InvocationExprent constructor;
@@ -292,6 +293,19 @@ public class NewExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean forEachExprent(Predicate<Exprent> visitor, boolean recursive) {
+    if (newType.arrayDim != 0) {
+      return visitExprents(lstDims, visitor, recursive) && visitExprents(lstArrayElements, visitor, recursive);
+    }
+    else if (constructor != null) {
+      return visitExprent(constructor.getInstance(), visitor, recursive) &&
+             visitExprents(constructor.getLstParameters(), visitor, recursive);
+    }
+
+    return true;
+  }
+
   @Override
   public Exprent copy() {
     List<Exprent> lst = new ArrayList<>();
@@ -11,6 +11,7 @@ import org.jetbrains.java.decompiler.util.TextBuffer;
 
 import java.util.BitSet;
 import java.util.List;
+import java.util.function.Predicate;
 
 public class SwitchExprent extends Exprent {
   private final SwitchStatement backing;
@@ -160,6 +161,11 @@ public class SwitchExprent extends Exprent {
     return list;
   }
 
+  @Override
+  public boolean forEachExprent(Predicate<Exprent> visitor, boolean recursive) {
+    return true;
+  }
+
   @Override
   public void getBytecodeRange(BitSet values) {
     measureBytecode(values);
@@ -11,6 +11,7 @@ import org.jetbrains.java.decompiler.util.TextBuffer;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
+import java.util.function.Predicate;
 
 public class SwitchHeadExprent extends Exprent {
 
@@ -72,6 +73,11 @@ public class SwitchHeadExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean forEachExprent(Predicate<Exprent> visitor, boolean recursive) {
+    return visitExprent(value, visitor, recursive);
+  }
+
   @Override
   public TextBuffer toJava(int indent) {
     TextBuffer buf = value.toJava(indent).enclose("switch(", ")");
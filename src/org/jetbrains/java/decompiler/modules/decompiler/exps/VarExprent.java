@@ -30,6 +30,7 @@ import org.jetbrains.java.decompiler.util.TextBuffer;
 
 import java.util.BitSet;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class VarExprent extends Exprent {
@@ -90,6 +91,11 @@ public class VarExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean forEachExprent(Predicate<Exprent> visitor, boolean recursive) {
+    return true;
+  }
+
   @Override
   public Exprent copy() {
     VarExprent var = new VarExprent(index, getVarType(), processor, bytecode);
@@ -195,7 +201,7 @@ public class VarExprent extends Exprent {
           if (attr != null) {
             String descriptor = attr.getDescriptor(originalIndex, visibleOffset);
             if (descriptor != null) {
-              buffer.append(ExprProcessor.getCastTypeName(new VarType(descriptor)));
+              buffer.append(ExprProcessor.getCastTypeName(VarType.of(descriptor)));
               return;
             }
           }
@@ -232,7 +238,7 @@ public class VarExprent extends Exprent {
 
   public VarType getVarType() {
     if (DecompilerContext.getOption(IFernflowerPreferences.USE_DEBUG_VAR_NAMES) && lvt != null) {
-      return new VarType(lvt.getDescriptor());
+      return VarType.of(lvt.getDescriptor());
     }
 
     VarType vt = null;
@@ -248,7 +254,7 @@ public class VarExprent extends Exprent {
             vt = cls.getSignature().genericType;
           }
           else if (vt == null) {
-            vt = new VarType(CodeConstants.TYPE_OBJECT, 0, qaulName);
+            vt = VarType.of(CodeConstants.TYPE_OBJECT, 0, qaulName);
           }
         }
       }
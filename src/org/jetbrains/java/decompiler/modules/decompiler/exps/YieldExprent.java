@@ -9,6 +9,7 @@ import org.jetbrains.java.decompiler.util.TextBuffer;
 
 import java.util.BitSet;
 import java.util.List;
+import java.util.function.Predicate;
 
 public class YieldExprent extends Exprent {
   private Exprent content;
@@ -26,6 +27,11 @@ public class YieldExprent extends Exprent {
     return list;
   }
 
+  @Override
+  public boolean forEachExprent(Predicate<Exprent> visitor, boolean recursive) {
+    return visitExprent(content, visitor, recursive);
+  }
+
   @Override
   public Exprent copy() {
     return new YieldExprent(this.content.copy(), this.retType);
@@ -15,19 +15,46 @@ public class DirectGraph {
 
   public final List<DirectNode> extraNodes = new ArrayList<>();
 
+  private final BitSet extraNodeIndices = new BitSet();
+
+  private int nodeCount;
+
   public DirectNode first;
 
   // exit, [source, destination]
-  public final HashMap<String, List<FinallyPathWrapper>> mapShortRangeFinallyPaths = new HashMap<>();
+  public final HashMap<DirectNode, List<FinallyPathWrapper>> mapShortRangeFinallyPaths = new HashMap<>();
 
   // exit, [source, destination]
-  public final HashMap<String, List<FinallyPathWrapper>> mapLongRangeFinallyPaths = new HashMap<>();
+  public final HashMap<DirectNode, List<FinallyPathWrapper>> mapLongRangeFinallyPaths = new HashMap<>();
 
   // negative if branches (recorded for handling of && and ||)
-  public final HashMap<String, String> mapNegIfBranch = new HashMap<>();
+  public final HashMap<DirectNode, DirectNode> mapNegIfBranch = new HashMap<>();
 
   // nodes, that are exception exits of a finally block with monitor variable
-  public final HashMap<String, String> mapFinallyMonitorExceptionPathExits = new HashMap<>();
+  public final HashMap<DirectNode, DirectNode> mapFinallyMonitorExceptionPathExits = new HashMap<>();
+
+  // Adds a node and numbers it densely, so that per-node state can be kept in arrays of getNodeCount() length.
+  // Statements reachable over several finally paths are flattened more than once, in that case the node added
+  // first is kept and takes over the exprents of the new one.
+  public DirectNode addNode(DirectNode node) {
+    DirectNode existing = nodes.getWithKey(node.id);
+    if (existing != null) {
+      existing.exprents = node.exprents;
+      return existing;
+    }
+
+    node.index = nodeCount++;
+    nodes.addWithKey(node, node.id);
+    return node;
+  }
+
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  public boolean isExtraNode(DirectNode node) {
+    return extraNodeIndices.get(node.index);
+  }
 
   public void sortReversePostOrder() {
     LinkedList<DirectNode> res = new LinkedList<>();
@@ -43,6 +70,7 @@ public class DirectGraph {
       // FIXME: addFirst is bad! this will mess with the graph structure! but it's needed to properly handle unreachable blocks in SSA, by making these blocks be processed first!
       for (DirectNode nd : a) {
         this.extraNodes.add(nd);
+        this.extraNodeIndices.set(nd.index);
         res.addFirst(nd);
       }
     }
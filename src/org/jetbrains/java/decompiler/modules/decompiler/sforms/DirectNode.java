@@ -14,6 +14,9 @@ public class DirectNode {
 
   public final String id;
 
+  // dense number of this node in its graph, assigned by DirectGraph.addNode
+  public int index = -1;
+
   public BasicBlockStatement block;
 
   public final Statement statement;
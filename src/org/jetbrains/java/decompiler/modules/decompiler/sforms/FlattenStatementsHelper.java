@@ -12,20 +12,20 @@ import java.util.Map.Entry;
 
 public class FlattenStatementsHelper {
 
-  // statement.id, node.id(direct), node.id(continue)
-  private final Map<Integer, String[]> mapDestinationNodes = new HashMap<>();
+  // statement.id, node(direct), node(continue)
+  private final Map<Integer, DirectNode[]> mapDestinationNodes = new HashMap<>();
 
-  // node.id(source), statement.id(destination), edge type
+  // node(source), statement.id(destination), edge type
   private final List<Edge> listEdges = new ArrayList<>();
 
-  // node.id(exit), [node.id(source), statement.id(destination)]
-  private final Map<String, List<String[]>> mapShortRangeFinallyPathIds = new HashMap<>();
+  // node(exit), [node.id(source), statement.id(destination)]
+  private final Map<DirectNode, List<String[]>> mapShortRangeFinallyPathIds = new HashMap<>();
 
-  // node.id(exit), [node.id(source), statement.id(destination)]
-  private final Map<String, List<String[]>> mapLongRangeFinallyPathIds = new HashMap<>();
+  // node(exit), [node.id(source), statement.id(destination)]
+  private final Map<DirectNode, List<String[]>> mapLongRangeFinallyPathIds = new HashMap<>();
 
   // positive if branches
-  private final Map<String, Integer> mapPosIfBranch = new HashMap<>();
+  private final Map<DirectNode, Integer> mapPosIfBranch = new HashMap<>();
 
   private DirectGraph graph;
 
@@ -43,12 +43,12 @@ public class FlattenStatementsHelper {
     Statement dummyexit = root.getDummyExit();
     DirectNode node = DirectNode.forStat(DirectNode.NodeType.DIRECT, dummyexit);
     node.exprents = new ArrayList<>();
-    graph.nodes.addWithKey(node, node.id);
-    mapDestinationNodes.put(dummyexit.id, new String[]{node.id, null});
+    node = graph.addNode(node);
+    mapDestinationNodes.put(dummyexit.id, new DirectNode[]{node, null});
 
     setEdges();
 
-    graph.first = graph.nodes.getWithKey(mapDestinationNodes.get(root.id)[0]);
+    graph.first = mapDestinationNodes.get(root.id)[0];
     graph.sortReversePostOrder();
 
     return graph;
@@ -98,8 +98,8 @@ public class FlattenStatementsHelper {
             if (stat.getExprents() != null) {
               node.exprents = stat.getExprents();
             }
-            graph.nodes.putWithKey(node, node.id);
-            mapDestinationNodes.put(stat.id, new String[]{node.id, null});
+            node = graph.addNode(node);
+            mapDestinationNodes.put(stat.id, new DirectNode[]{node, null});
 
             lstSuccEdges.addAll(stat.getSuccessorEdges(Statement.STATEDGE_DIRECT_ALL));
             sourcenode = node;
@@ -109,10 +109,10 @@ public class FlattenStatementsHelper {
             if (tailExprentList != null) {
               DirectNode tail = DirectNode.forStat(DirectNode.NodeType.TAIL, stat);
               tail.exprents = tailExprentList;
-              graph.nodes.putWithKey(tail, tail.id);
+              tail = graph.addNode(tail);
 
-              mapDestinationNodes.put(-stat.id, new String[]{tail.id, null});
-              listEdges.add(new Edge(node.id, -stat.id, StatEdge.TYPE_REGULAR));
+              mapDestinationNodes.put(-stat.id, new DirectNode[]{tail, null});
+              listEdges.add(new Edge(node, -stat.id, StatEdge.TYPE_REGULAR));
 
               sourcenode = tail;
             }
@@ -123,7 +123,7 @@ public class FlattenStatementsHelper {
                 throw new IllegalStateException("Empty successor list for node " + sourcenode.id);
               }
 
-              mapPosIfBranch.put(sourcenode.id, lstSuccEdges.get(0).getDestination().id);
+              mapPosIfBranch.put(sourcenode, lstSuccEdges.get(0).getDestination().id);
             }
 
             break;
@@ -138,13 +138,13 @@ public class FlattenStatementsHelper {
               }
             }
 
-            mapDestinationNodes.put(stat.id, new String[]{firstnd.id, null});
-            graph.nodes.putWithKey(firstnd, firstnd.id);
+            firstnd = graph.addNode(firstnd);
+            mapDestinationNodes.put(stat.id, new DirectNode[]{firstnd, null});
 
             LinkedList<StatementStackEntry> lst = new LinkedList<>();
 
             for (Statement st : stat.getStats()) {
-              listEdges.add(new Edge(firstnd.id, st.id, StatEdge.TYPE_REGULAR));
+              listEdges.add(new Edge(firstnd, st.id, StatEdge.TYPE_REGULAR));
 
               LinkedList<StackEntry> stack = stackFinally;
               if (stat.type == Statement.TYPE_CATCHALL && ((CatchAllStatement)stat).isFinally()) {
@@ -172,13 +172,13 @@ public class FlattenStatementsHelper {
               continue mainloop;
             }
 
-            nd = graph.nodes.getWithKey(mapDestinationNodes.get(stat.getFirst().id)[0]);
+            nd = mapDestinationNodes.get(stat.getFirst().id)[0];
 
             DoStatement dostat = (DoStatement)stat;
             int looptype = dostat.getLooptype();
 
             if (looptype == DoStatement.LOOP_DO) {
-              mapDestinationNodes.put(stat.id, new String[]{nd.id, nd.id});
+              mapDestinationNodes.put(stat.id, new DirectNode[]{nd, nd});
               break;
             }
 
@@ -189,15 +189,15 @@ public class FlattenStatementsHelper {
               case DoStatement.LOOP_DOWHILE:
                 node = DirectNode.forStat(DirectNode.NodeType.CONDITION, stat);
                 node.exprents = dostat.getConditionExprentList();
-                graph.nodes.putWithKey(node, node.id);
+                node = graph.addNode(node);
 
-                listEdges.add(new Edge(node.id, stat.getFirst().id, StatEdge.TYPE_REGULAR));
+                listEdges.add(new Edge(node, stat.getFirst().id, StatEdge.TYPE_REGULAR));
 
                 if (looptype == DoStatement.LOOP_WHILE) {
-                  mapDestinationNodes.put(stat.id, new String[]{node.id, node.id});
+                  mapDestinationNodes.put(stat.id, new DirectNode[]{node, node});
                 }
                 else {
-                  mapDestinationNodes.put(stat.id, new String[]{nd.id, node.id});
+                  mapDestinationNodes.put(stat.id, new DirectNode[]{nd, node});
 
                   boolean found = false;
                   for (Edge edge : listEdges) {
@@ -207,7 +207,7 @@ public class FlattenStatementsHelper {
                     }
                   }
                   if (!found) {
-                    listEdges.add(new Edge(nd.id, stat.id, StatEdge.TYPE_CONTINUE));
+                    listEdges.add(new Edge(nd, stat.id, StatEdge.TYPE_CONTINUE));
                   }
                 }
                 sourcenode = node;
@@ -217,22 +217,22 @@ public class FlattenStatementsHelper {
                 if (dostat.getInitExprent() != null) {
                   nodeinit.exprents = dostat.getInitExprentList();
                 }
-                graph.nodes.putWithKey(nodeinit, nodeinit.id);
+                nodeinit = graph.addNode(nodeinit);
 
                 DirectNode nodecond = DirectNode.forStat(DirectNode.NodeType.CONDITION, stat);
                 nodecond.exprents = dostat.getConditionExprentList();
-                graph.nodes.putWithKey(nodecond, nodecond.id);
+                nodecond = graph.addNode(nodecond);
 
                 DirectNode nodeinc = DirectNode.forStat(DirectNode.NodeType.INCREMENT, stat);
                 nodeinc.exprents = dostat.getIncExprentList();
-                graph.nodes.putWithKey(nodeinc, nodeinc.id);
+                nodeinc = graph.addNode(nodeinc);
 
-                mapDestinationNodes.put(stat.id, new String[]{nodeinit.id, nodeinc.id});
-                mapDestinationNodes.put(-stat.id, new String[]{nodecond.id, null});
+                mapDestinationNodes.put(stat.id, new DirectNode[]{nodeinit, nodeinc});
+                mapDestinationNodes.put(-stat.id, new DirectNode[]{nodecond, null});
 
-                listEdges.add(new Edge(nodecond.id, stat.getFirst().id, StatEdge.TYPE_REGULAR));
-                listEdges.add(new Edge(nodeinit.id, -stat.id, StatEdge.TYPE_REGULAR));
-                listEdges.add(new Edge(nodeinc.id, -stat.id, StatEdge.TYPE_REGULAR));
+                listEdges.add(new Edge(nodecond, stat.getFirst().id, StatEdge.TYPE_REGULAR));
+                listEdges.add(new Edge(nodeinit, -stat.id, StatEdge.TYPE_REGULAR));
+                listEdges.add(new Edge(nodeinc, -stat.id, StatEdge.TYPE_REGULAR));
 
                 boolean found = false;
                 for (Edge edge : listEdges) {
@@ -243,7 +243,7 @@ public class FlattenStatementsHelper {
                 }
 
                 if (!found) {
-                  listEdges.add(new Edge(nd.id, stat.id, StatEdge.TYPE_CONTINUE));
+                  listEdges.add(new Edge(nd, stat.id, StatEdge.TYPE_CONTINUE));
                 }
 
                 sourcenode = nodecond;
@@ -256,19 +256,19 @@ public class FlattenStatementsHelper {
                 //
                 // for (inc; ; init)
                 DirectNode inc = DirectNode.forStat(DirectNode.NodeType.INCREMENT, stat);
-                graph.nodes.putWithKey(inc, inc.id);
+                inc = graph.addNode(inc);
                 inc.exprents = dostat.getIncExprentList();
 
                 // Init is foreach variable definition
                 DirectNode init = DirectNode.forStat(DirectNode.NodeType.FOREACH_VARDEF, stat);
-                graph.nodes.putWithKey(init, init.id);
+                init = graph.addNode(init);
                 init.exprents = dostat.getInitExprentList();
 
-                mapDestinationNodes.put(stat.id, new String[]{inc.id, init.id});
-                mapDestinationNodes.put(-stat.id, new String[]{init.id, null});
+                mapDestinationNodes.put(stat.id, new DirectNode[]{inc, init});
+                mapDestinationNodes.put(-stat.id, new DirectNode[]{init, null});
 
-                listEdges.add(new Edge(init.id, stat.getFirst().id, StatEdge.TYPE_REGULAR));
-                listEdges.add(new Edge(inc.id, -stat.id, StatEdge.TYPE_REGULAR));
+                listEdges.add(new Edge(init, stat.getFirst().id, StatEdge.TYPE_REGULAR));
+                listEdges.add(new Edge(inc, -stat.id, StatEdge.TYPE_REGULAR));
 
                 boolean found = false;
                 for (Edge edge : listEdges) {
@@ -279,7 +279,7 @@ public class FlattenStatementsHelper {
                 }
 
                 if (!found) {
-                  listEdges.add(new Edge(nd.id, stat.id, StatEdge.TYPE_CONTINUE));
+                  listEdges.add(new Edge(nd, stat.id, StatEdge.TYPE_CONTINUE));
                 }
 
                 sourcenode = init;
@@ -321,8 +321,8 @@ public class FlattenStatementsHelper {
                 continue mainloop;
               }
 
-              node = graph.nodes.getWithKey(mapDestinationNodes.get(stat.getFirst().id)[0]);
-              mapDestinationNodes.put(stat.id, new String[]{node.id, null});
+              node = mapDestinationNodes.get(stat.getFirst().id)[0];
+              mapDestinationNodes.put(stat.id, new DirectNode[]{node, null});
 
               if (stat.type == Statement.TYPE_IF && ((IfStatement)stat).iftype == IfStatement.IFTYPE_IF && !stat.getAllSuccessorEdges().isEmpty()) {
                 lstSuccEdges.add(stat.getSuccessorEdges(Statement.STATEDGE_DIRECT_ALL).get(0));  // exactly one edge
@@ -341,7 +341,7 @@ public class FlattenStatementsHelper {
 
                     if (srcnd != null) {
                       // old ifstat->head
-                      Edge newEdge = new Edge(srcnd.id, stat.id, edge.getType());
+                      Edge newEdge = new Edge(srcnd, stat.id, edge.getType());
 
                       // Add if it doesn't exist already
                       if (!listEdges.contains(newEdge)) {
@@ -468,20 +468,20 @@ public class FlattenStatementsHelper {
                         boolean isFinallyMonitorExceptionPath) {
 
     if (edgetype != StatEdge.TYPE_FINALLYEXIT) {
-      listEdges.add(new Edge(sourcenode.id, destination.id, edgetype));
+      listEdges.add(new Edge(sourcenode, destination.id, edgetype));
     }
 
     if (finallyShortRangeSource != null) {
       boolean isContinueEdge = (edgetype == StatEdge.TYPE_CONTINUE);
 
-      mapShortRangeFinallyPathIds.computeIfAbsent(sourcenode.id, k -> new ArrayList<>()).add(new String[]{
+      mapShortRangeFinallyPathIds.computeIfAbsent(sourcenode, k -> new ArrayList<>()).add(new String[]{
         finallyShortRangeSource.id,
         destination.id.toString(),
         finallyShortRangeEntry.id.toString(),
         isFinallyMonitorExceptionPath ? "1" : null,
         isContinueEdge ? "1" : null});
 
-      mapLongRangeFinallyPathIds.computeIfAbsent(sourcenode.id, k -> new ArrayList<>()).add(new String[]{
+      mapLongRangeFinallyPathIds.computeIfAbsent(sourcenode, k -> new ArrayList<>()).add(new String[]{
         finallyLongRangeSource.id,
         destination.id.toString(),
         finallyLongRangeEntry.id.toString(),
@@ -493,18 +493,16 @@ public class FlattenStatementsHelper {
 
     for (Edge edge : listEdges) {
 
-      String sourceid = edge.sourceid;
+      DirectNode source = edge.source;
       Integer statid = edge.statid;
 
-      DirectNode source = graph.nodes.getWithKey(sourceid);
-
-      String[] strings = mapDestinationNodes.get(statid);
-      if (strings == null) {
+      DirectNode[] destinations = mapDestinationNodes.get(statid);
+      if (destinations == null) {
         DotExporter.toDotFile(graph, root.mt, "errorDGraph");
 
-        throw new IllegalStateException("Could not find destination nodes for stat id " + statid + " from source " + sourceid);
+        throw new IllegalStateException("Could not find destination nodes for stat id " + statid + " from source " + source.id);
       }
-      DirectNode dest = graph.nodes.getWithKey(strings[edge.edgetype == StatEdge.TYPE_CONTINUE ? 1 : 0]);
+      DirectNode dest = destinations[edge.edgetype == StatEdge.TYPE_CONTINUE ? 1 : 0];
 
       if (!source.succs.contains(dest)) {
         source.succs.add(dest);
@@ -514,13 +512,13 @@ public class FlattenStatementsHelper {
         dest.preds.add(source);
       }
 
-      if (mapPosIfBranch.containsKey(sourceid) && !statid.equals(mapPosIfBranch.get(sourceid))) {
-        graph.mapNegIfBranch.put(sourceid, dest.id);
+      if (mapPosIfBranch.containsKey(source) && !statid.equals(mapPosIfBranch.get(source))) {
+        graph.mapNegIfBranch.put(source, dest);
       }
     }
 
     for (int i = 0; i < 2; i++) {
-      for (Entry<String, List<String[]>> ent : (i == 0 ? mapShortRangeFinallyPathIds : mapLongRangeFinallyPathIds).entrySet()) {
+      for (Entry<DirectNode, List<String[]>> ent : (i == 0 ? mapShortRangeFinallyPathIds : mapLongRangeFinallyPathIds).entrySet()) {
 
         List<FinallyPathWrapper> newLst = new ArrayList<>();
 
@@ -529,13 +527,13 @@ public class FlattenStatementsHelper {
 
           boolean isContinueEdge = arr[i == 0 ? 4 : 3] != null;
 
-          DirectNode dest = graph.nodes.getWithKey(mapDestinationNodes.get(Integer.parseInt(arr[1]))[isContinueEdge ? 1 : 0]);
-          DirectNode enter = graph.nodes.getWithKey(mapDestinationNodes.get(Integer.parseInt(arr[2]))[0]);
+          DirectNode dest = mapDestinationNodes.get(Integer.parseInt(arr[1]))[isContinueEdge ? 1 : 0];
+          DirectNode enter = mapDestinationNodes.get(Integer.parseInt(arr[2]))[0];
 
-          newLst.add(new FinallyPathWrapper(arr[0], dest.id, enter.id));
+          newLst.add(new FinallyPathWrapper(graph.nodes.getWithKey(arr[0]), dest, enter));
 
           if (i == 0 && arr[3] != null) {
-            graph.mapFinallyMonitorExceptionPathExits.put(ent.getKey(), dest.id);
+            graph.mapFinallyMonitorExceptionPathExits.put(ent.getKey(), dest);
           }
         }
 
@@ -548,16 +546,16 @@ public class FlattenStatementsHelper {
     }
   }
 
-  public Map<Integer, String[]> getMapDestinationNodes() {
+  public Map<Integer, DirectNode[]> getMapDestinationNodes() {
     return mapDestinationNodes;
   }
 
   public static final class FinallyPathWrapper {
-    public final String source;
-    public final String destination;
-    public final String entry;
+    public final DirectNode source;
+    public final DirectNode destination;
+    public final DirectNode entry;
 
-    private FinallyPathWrapper(String source, String destination, String entry) {
+    private FinallyPathWrapper(DirectNode source, DirectNode destination, DirectNode entry) {
       this.source = source;
       this.destination = destination;
       this.entry = entry;
@@ -569,12 +567,17 @@ public class FlattenStatementsHelper {
       if (!(o instanceof FinallyPathWrapper)) return false;
 
       FinallyPathWrapper fpw = (FinallyPathWrapper)o;
-      return (source + ":" + destination + ":" + entry).equals(fpw.source + ":" + fpw.destination + ":" + fpw.entry);
+      return source == fpw.source && destination == fpw.destination && entry == fpw.entry;
     }
 
     @Override
     public int hashCode() {
-      return (source + ":" + destination + ":" + entry).hashCode();
+      return (index(source) * 31 + index(destination)) * 31 + index(entry);
+    }
+
+    // wrappers are created once the graph is complete, so the dense index of a node doesn't change anymore
+    private static int index(DirectNode node) {
+      return node == null ? -1 : node.index;
     }
 
     @Override
@@ -625,12 +628,12 @@ public class FlattenStatementsHelper {
   }
 
   private static class Edge {
-    public final String sourceid;
+    public final DirectNode source;
     public final Integer statid;
     public final int edgetype;
 
-    Edge(String sourceid, Integer statid, int edgetype) {
-      this.sourceid = sourceid;
+    Edge(DirectNode source, Integer statid, int edgetype) {
+      this.source = source;
       this.statid = statid;
       this.edgetype = edgetype;
     }
@@ -646,7 +649,7 @@ public class FlattenStatementsHelper {
       }
 
       Edge edge = (Edge) o;
-      return edgetype == edge.edgetype && Objects.equals(sourceid, edge.sourceid) && Objects.equals(statid, edge.statid);
+      return edgetype == edge.edgetype && source == edge.source && Objects.equals(statid, edge.statid);
     }
   }
 }
@@ -2,6 +2,7 @@
 package org.jetbrains.java.decompiler.modules.decompiler.sforms;
 
 import org.jetbrains.java.decompiler.code.CodeConstants;
+import org.jetbrains.java.decompiler.main.rels.WorkBudget;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.AssignmentExprent;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.Exprent;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.FunctionExprent;
@@ -20,6 +21,7 @@ import org.jetbrains.java.decompiler.util.FastSparseSetFactory.FastSparseSet;
 import org.jetbrains.java.decompiler.util.InterpreterUtil;
 import org.jetbrains.java.decompiler.util.SFormsFastMapDirect;
 
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -28,17 +30,17 @@ import java.util.Map.Entry;
 
 public class SSAConstructorSparseEx {
 
-  // node id, var, version
-  private final HashMap<String, SFormsFastMapDirect> inVarVersions = new HashMap<>();
+  // node index, var, version
+  private SFormsFastMapDirect[] inVarVersions;
 
-  // node id, var, version (direct branch)
-  private final HashMap<String, SFormsFastMapDirect> outVarVersions = new HashMap<>();
+  // node index, var, version (direct branch)
+  private SFormsFastMapDirect[] outVarVersions;
 
-  // node id, var, version (negative branch)
-  private final HashMap<String, SFormsFastMapDirect> outNegVarVersions = new HashMap<>();
+  // node index, var, version (negative branch)
+  private SFormsFastMapDirect[] outNegVarVersions;
 
-  // node id, var, version
-  private final HashMap<String, SFormsFastMapDirect> extraVarVersions = new HashMap<>();
+  // node index, var, version
+  private SFormsFastMapDirect[] extraVarVersions;
 
   // (var, version), version
   private final HashMap<VarVersionPair, FastSparseSet<Integer>> phi = new HashMap<>();
@@ -49,10 +51,14 @@ public class SSAConstructorSparseEx {
   // set factory
   private FastSparseSetFactory<Integer> factory;
 
+  // flattened statements the versions were computed on, reused by the analyses that follow
+  private DirectGraph dgraph;
+
   public void splitVariables(RootStatement root, StructMethod mt) {
 
     FlattenStatementsHelper flatthelper = new FlattenStatementsHelper();
     DirectGraph dgraph = flatthelper.buildDirectGraph(root);
+    this.dgraph = dgraph;
 
     DotExporter.toDotFile(dgraph, mt, "ssaSplitVariables");
 
@@ -62,31 +68,38 @@ public class SSAConstructorSparseEx {
     }
     factory = new FastSparseSetFactory<>(setInit);
 
+    int nodeCount = dgraph.getNodeCount();
+    inVarVersions = new SFormsFastMapDirect[nodeCount];
+    outVarVersions = new SFormsFastMapDirect[nodeCount];
+    outNegVarVersions = new SFormsFastMapDirect[nodeCount];
+    extraVarVersions = new SFormsFastMapDirect[nodeCount];
+
     SFormsFastMapDirect firstmap = createFirstMap(mt);
-    extraVarVersions.put(dgraph.first.id, firstmap);
+    extraVarVersions[dgraph.first.index] = firstmap;
 
     setCatchMaps(root, dgraph, flatthelper);
 
     int itteration = 1;
-    HashSet<String> updated = new HashSet<>();
+    BitSet updated = new BitSet(nodeCount);
     do {
       // System.out.println("~~~~~~~~~~~~~ \r\n"+root.toJava());
       ssaStatements(dgraph, updated, mt, itteration++);
+      WorkBudget.spend();
       // System.out.println("~~~~~~~~~~~~~ \r\n"+root.toJava());
     }
     while (!updated.isEmpty());
   }
 
-  private void ssaStatements(DirectGraph dgraph, HashSet<String> updated, StructMethod mt, int itteration) {
+  private void ssaStatements(DirectGraph dgraph, BitSet updated, StructMethod mt, int itteration) {
 
     DotExporter.toDotFile(dgraph, mt, "ssaStatements_" + itteration, outVarVersions);
 
     for (DirectNode node : dgraph.nodes) {
 
-      updated.remove(node.id);
+      updated.clear(node.index);
       mergeInVarMaps(node, dgraph);
 
-      SFormsFastMapDirect varmap = inVarVersions.get(node.id);
+      SFormsFastMapDirect varmap = inVarVersions[node.index];
       varmap = new SFormsFastMapDirect(varmap);
 
       SFormsFastMapDirect[] varmaparr = new SFormsFastMapDirect[]{varmap, null};
@@ -101,19 +114,19 @@ public class SSAConstructorSparseEx {
         varmaparr[1] = varmaparr[0];
       }
 
-      boolean this_updated = !mapsEqual(varmaparr[0], outVarVersions.get(node.id))
-                             || (outNegVarVersions.containsKey(node.id) && !mapsEqual(varmaparr[1], outNegVarVersions.get(node.id)));
+      boolean this_updated = !mapsEqual(varmaparr[0], outVarVersions[node.index])
+                             || (outNegVarVersions[node.index] != null && !mapsEqual(varmaparr[1], outNegVarVersions[node.index]));
 
       if (this_updated) {
-        outVarVersions.put(node.id, varmaparr[0]);
-        if (dgraph.mapNegIfBranch.containsKey(node.id)) {
-          outNegVarVersions.put(node.id, varmaparr[1]);
+        outVarVersions[node.index] = varmaparr[0];
+        if (dgraph.mapNegIfBranch.containsKey(node)) {
+          outNegVarVersions[node.index] = varmaparr[1];
         }
 
         // Don't update the node if it wasn't discovered normally, as that can lead to infinite recursion due to bad ordering!
-        if (!dgraph.extraNodes.contains(node)) {
+        if (!dgraph.isExtraNode(node)) {
           for (DirectNode nd : node.succs) {
-            updated.add(nd.id);
+            updated.set(nd.index);
           }
         }
       }
@@ -299,7 +312,7 @@ public class SSAConstructorSparseEx {
     SFormsFastMapDirect mapNew = new SFormsFastMapDirect();
 
     for (DirectNode pred : node.preds) {
-      SFormsFastMapDirect mapOut = getFilteredOutMap(node.id, pred.id, dgraph, node.id);
+      SFormsFastMapDirect mapOut = getFilteredOutMap(node, pred, dgraph, node);
       if (mapNew.isEmpty()) {
         mapNew = mapOut.getCopy();
       }
@@ -308,8 +321,8 @@ public class SSAConstructorSparseEx {
       }
     }
 
-    if (extraVarVersions.containsKey(node.id)) {
-      SFormsFastMapDirect mapExtra = extraVarVersions.get(node.id);
+    SFormsFastMapDirect mapExtra = extraVarVersions[node.index];
+    if (mapExtra != null) {
       if (mapNew.isEmpty()) {
         mapNew = mapExtra.getCopy();
       }
@@ -318,23 +331,21 @@ public class SSAConstructorSparseEx {
       }
     }
 
-    inVarVersions.put(node.id, mapNew);
+    inVarVersions[node.index] = mapNew;
   }
 
-  private SFormsFastMapDirect getFilteredOutMap(String nodeid, String predid, DirectGraph dgraph, String destid) {
+  // the returned map may be the predecessor's own out map and must not be changed
+  private SFormsFastMapDirect getFilteredOutMap(DirectNode node, DirectNode pred, DirectGraph dgraph, DirectNode dest) {
 
     SFormsFastMapDirect mapNew = new SFormsFastMapDirect();
 
-    if (nodeid.equals(dgraph.mapNegIfBranch.get(predid))) {
-      if (outNegVarVersions.containsKey(predid)) {
-        mapNew = outNegVarVersions.get(predid).getCopy();
-      }
-    }
-    else if (outVarVersions.containsKey(predid)) {
-      mapNew = outVarVersions.get(predid).getCopy();
-    }
+    boolean isFinallyExit = dgraph.mapShortRangeFinallyPaths.containsKey(pred);
 
-    boolean isFinallyExit = dgraph.mapShortRangeFinallyPaths.containsKey(predid);
+    SFormsFastMapDirect mapOut = node == dgraph.mapNegIfBranch.get(pred) ? outNegVarVersions[pred.index] : outVarVersions[pred.index];
+    if (mapOut != null) {
+      // only finally exits change the map, everything else just reads it
+      mapNew = isFinallyExit ? mapOut.getCopy() : mapOut;
+    }
 
     if (isFinallyExit && !mapNew.isEmpty()) {
 
@@ -342,29 +353,30 @@ public class SSAConstructorSparseEx {
 
       SFormsFastMapDirect mapTrueSource = new SFormsFastMapDirect();
 
-      String exceptionDest = dgraph.mapFinallyMonitorExceptionPathExits.get(predid);
-      boolean isExceptionMonitorExit = (exceptionDest != null && !nodeid.equals(exceptionDest));
+      DirectNode exceptionDest = dgraph.mapFinallyMonitorExceptionPathExits.get(pred);
+      boolean isExceptionMonitorExit = (exceptionDest != null && node != exceptionDest);
 
-      HashSet<String> setLongPathWrapper = new HashSet<>();
-      for (FinallyPathWrapper finwraplong : dgraph.mapLongRangeFinallyPaths.get(predid)) {
-        setLongPathWrapper.add(finwraplong.destination + "##" + finwraplong.source);
+      // destination and source index pairs of the long range finally paths
+      HashSet<Long> setLongPathWrapper = new HashSet<>();
+      for (FinallyPathWrapper finwraplong : dgraph.mapLongRangeFinallyPaths.get(pred)) {
+        setLongPathWrapper.add(getPathKey(finwraplong.destination, finwraplong.source));
       }
 
-      for (FinallyPathWrapper finwrap : dgraph.mapShortRangeFinallyPaths.get(predid)) {
+      for (FinallyPathWrapper finwrap : dgraph.mapShortRangeFinallyPaths.get(pred)) {
         SFormsFastMapDirect map;
 
         boolean recFinally = dgraph.mapShortRangeFinallyPaths.containsKey(finwrap.source);
 
         if (recFinally) {
           // recursion
-          map = getFilteredOutMap(finwrap.entry, finwrap.source, dgraph, destid);
+          map = getFilteredOutMap(finwrap.entry, finwrap.source, dgraph, dest);
         }
         else {
-          if (finwrap.entry.equals(dgraph.mapNegIfBranch.get(finwrap.source))) {
-            map = outNegVarVersions.get(finwrap.source);
+          if (finwrap.entry == dgraph.mapNegIfBranch.get(finwrap.source)) {
+            map = outNegVarVersions[finwrap.source.index];
           }
           else {
-            map = outVarVersions.get(finwrap.source);
+            map = outVarVersions[finwrap.source.index];
           }
         }
 
@@ -372,10 +384,10 @@ public class SSAConstructorSparseEx {
         boolean isFalsePath;
 
         if (recFinally) {
-          isFalsePath = !finwrap.destination.equals(nodeid);
+          isFalsePath = finwrap.destination != node;
         }
         else {
-          isFalsePath = !setLongPathWrapper.contains(destid + "##" + finwrap.source);
+          isFalsePath = !setLongPathWrapper.contains(getPathKey(dest, finwrap.source));
         }
 
         if (isFalsePath) {
@@ -401,7 +413,7 @@ public class SSAConstructorSparseEx {
 
         mapNewTemp.union(mapTrueSource);
 
-        SFormsFastMapDirect oldInMap = inVarVersions.get(nodeid);
+        SFormsFastMapDirect oldInMap = inVarVersions[node.index];
         if (oldInMap != null) {
           mapNewTemp.union(oldInMap);
         }
@@ -413,6 +425,10 @@ public class SSAConstructorSparseEx {
     return mapNew;
   }
 
+  private static long getPathKey(DirectNode destination, DirectNode source) {
+    return (long)destination.index << 32 | source.index & 0xFFFFFFFFL;
+  }
+
   private static SFormsFastMapDirect mergeMaps(SFormsFastMapDirect mapTo, SFormsFastMapDirect map2) {
 
     if (map2 != null && !map2.isEmpty()) {
@@ -473,7 +489,7 @@ public class SSAConstructorSparseEx {
           map = new SFormsFastMapDirect();
           setCurrentVar(map, varindex, version);
 
-          extraVarVersions.put(dgraph.nodes.getWithKey(flatthelper.getMapDestinationNodes().get(stat.getStats().get(i).id)[0]).id, map);
+          extraVarVersions[flatthelper.getMapDestinationNodes().get(stat.getStats().get(i).id)[0].index] = map;
         }
     }
 
@@ -517,4 +533,8 @@ public class SSAConstructorSparseEx {
   public HashMap<VarVersionPair, FastSparseSet<Integer>> getPhi() {
     return phi;
   }
+
+  public DirectGraph getDirectGraph() {
+    return dgraph;
+  }
 }
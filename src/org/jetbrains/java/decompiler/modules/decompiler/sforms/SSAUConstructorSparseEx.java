@@ -2,6 +2,7 @@
 package org.jetbrains.java.decompiler.modules.decompiler.sforms;
 
 import org.jetbrains.java.decompiler.code.CodeConstants;
+import org.jetbrains.java.decompiler.main.rels.WorkBudget;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.*;
 import org.jetbrains.java.decompiler.modules.decompiler.sforms.FlattenStatementsHelper.FinallyPathWrapper;
 import org.jetbrains.java.decompiler.modules.decompiler.stats.*;
@@ -23,21 +24,17 @@ import java.util.Map.Entry;
 
 public class SSAUConstructorSparseEx {
 
-  // node id, var, version
-  private final HashMap<String, SFormsFastMapDirect> inVarVersions = new HashMap<>();
-  //private HashMap<String, HashMap<Integer, FastSet<Integer>>> inVarVersions = new HashMap<String, HashMap<Integer, FastSet<Integer>>>();
+  // node index, var, version
+  private SFormsFastMapDirect[] inVarVersions;
 
-  // node id, var, version (direct branch)
-  private final HashMap<String, SFormsFastMapDirect> outVarVersions = new HashMap<>();
-  //private HashMap<String, HashMap<Integer, FastSet<Integer>>> outVarVersions = new HashMap<String, HashMap<Integer, FastSet<Integer>>>();
+  // node index, var, version (direct branch)
+  private SFormsFastMapDirect[] outVarVersions;
 
-  // node id, var, version (negative branch)
-  private final HashMap<String, SFormsFastMapDirect> outNegVarVersions = new HashMap<>();
-  //private HashMap<String, HashMap<Integer, FastSet<Integer>>> outNegVarVersions = new HashMap<String, HashMap<Integer, FastSet<Integer>>>();
+  // node index, var, version (negative branch)
+  private SFormsFastMapDirect[] outNegVarVersions;
 
-  // node id, var, version
-  private final HashMap<String, SFormsFastMapDirect> extraVarVersions = new HashMap<>();
-  //private HashMap<String, HashMap<Integer, FastSet<Integer>>> extraVarVersions = new HashMap<String, HashMap<Integer, FastSet<Integer>>>();
+  // node index, var, version
+  private SFormsFastMapDirect[] extraVarVersions;
 
   // var, version
   private final HashMap<Integer, Integer> lastversion = new HashMap<>();
@@ -48,9 +45,8 @@ public class SSAUConstructorSparseEx {
   // version, version
   private final HashMap<VarVersionPair, VarVersionPair> phantomppnodes = new HashMap<>(); // ++ and --
 
-  // node.id, version, version
-  private final HashMap<String, HashMap<VarVersionPair, VarVersionPair>> phantomexitnodes =
-    new HashMap<>(); // finally exits
+  // node index, version, version
+  private List<HashMap<VarVersionPair, VarVersionPair>> phantomexitnodes; // finally exits
 
   // versions memory dependencies
   private final VarVersionsGraph ssuversions = new VarVersionsGraph();
@@ -64,6 +60,9 @@ public class SSAUConstructorSparseEx {
   // set factory
   private FastSparseSetFactory<Integer> factory;
 
+  // flattened statements the versions were computed on, reused by the analyses that follow
+  private DirectGraph dgraph;
+
   // track assignments for finding effectively final vars (left var, right var)
   private HashMap<VarVersionPair, VarVersionPair> varAssignmentMap = new HashMap<>();
 
@@ -71,6 +70,7 @@ public class SSAUConstructorSparseEx {
 
     FlattenStatementsHelper flatthelper = new FlattenStatementsHelper();
     DirectGraph dgraph = flatthelper.buildDirectGraph(root);
+    this.dgraph = dgraph;
 
     DotExporter.toDotFile(dgraph, mt, "ssauSplitVariables");
     
@@ -80,15 +80,18 @@ public class SSAUConstructorSparseEx {
     }
     factory = new FastSparseSetFactory<>(setInit);
 
-    extraVarVersions.put(dgraph.first.id, createFirstMap(mt, root));
+    initNodeMaps(dgraph.getNodeCount());
+
+    extraVarVersions[dgraph.first.index] = createFirstMap(mt, root);
 
     setCatchMaps(root, dgraph, flatthelper);
 
     int iteration = 1;
-    HashSet<String> updated = new HashSet<>();
+    BitSet updated = new BitSet(dgraph.getNodeCount());
     do {
       //			System.out.println("~~~~~~~~~~~~~ \r\n"+root.toJava());
       ssaStatements(dgraph, updated, false, mt, iteration++);
+      WorkBudget.spend();
       //			System.out.println("~~~~~~~~~~~~~ \r\n"+root.toJava());
     }
     while (!updated.isEmpty());
@@ -101,16 +104,24 @@ public class SSAUConstructorSparseEx {
     DotExporter.toDotFile(ssuversions, mt, "ssauVarVer");
   }
 
-  private void ssaStatements(DirectGraph dgraph, HashSet<String> updated, boolean calcLiveVars, StructMethod mt, int iteration) {
+  private void initNodeMaps(int nodeCount) {
+    inVarVersions = new SFormsFastMapDirect[nodeCount];
+    outVarVersions = new SFormsFastMapDirect[nodeCount];
+    outNegVarVersions = new SFormsFastMapDirect[nodeCount];
+    extraVarVersions = new SFormsFastMapDirect[nodeCount];
+    phantomexitnodes = new ArrayList<>(Collections.nCopies(nodeCount, null));
+  }
+
+  private void ssaStatements(DirectGraph dgraph, BitSet updated, boolean calcLiveVars, StructMethod mt, int iteration) {
 
     DotExporter.toDotFile(dgraph, mt, "ssauStatements_" + iteration);
 
     for (DirectNode node : dgraph.nodes) {
 
-      updated.remove(node.id);
+      updated.clear(node.index);
       mergeInVarMaps(node, dgraph);
 
-      SFormsFastMapDirect varmap = new SFormsFastMapDirect(inVarVersions.get(node.id));
+      SFormsFastMapDirect varmap = new SFormsFastMapDirect(inVarVersions[node.index]);
 
       SFormsFastMapDirect[] varmaparr = new SFormsFastMapDirect[]{varmap, null};
 
@@ -133,20 +144,20 @@ public class SSAUConstructorSparseEx {
         varmaparr[1].removeAllFields();
       }
 
-      boolean this_updated = !mapsEqual(varmaparr[0], outVarVersions.get(node.id))
-                             || (outNegVarVersions.containsKey(node.id) && !mapsEqual(varmaparr[1], outNegVarVersions.get(node.id)));
+      boolean this_updated = !mapsEqual(varmaparr[0], outVarVersions[node.index])
+                             || (outNegVarVersions[node.index] != null && !mapsEqual(varmaparr[1], outNegVarVersions[node.index]));
 
       if (this_updated) {
 
-        outVarVersions.put(node.id, varmaparr[0]);
-        if (dgraph.mapNegIfBranch.containsKey(node.id)) {
-          outNegVarVersions.put(node.id, varmaparr[1]);
+        outVarVersions[node.index] = varmaparr[0];
+        if (dgraph.mapNegIfBranch.containsKey(node)) {
+          outNegVarVersions[node.index] = varmaparr[1];
         }
 
         // Don't update the node if it wasn't discovered normally, as that can lead to infinite recursion due to bad ordering!
-        if (!dgraph.extraNodes.contains(node)) {
+        if (!dgraph.isExtraNode(node)) {
           for (DirectNode nd : node.succs) {
-            updated.add(nd.id);
+            updated.set(nd.index);
           }
         }
       }
@@ -558,7 +569,7 @@ public class SSAUConstructorSparseEx {
     SFormsFastMapDirect mapNew = new SFormsFastMapDirect();
 
     for (DirectNode pred : node.preds) {
-      SFormsFastMapDirect mapOut = getFilteredOutMap(node.id, pred.id, dgraph, node.id);
+      SFormsFastMapDirect mapOut = getFilteredOutMap(node, pred, dgraph, node);
       if (mapNew.isEmpty()) {
         mapNew = mapOut.getCopy();
       }
@@ -567,8 +578,8 @@ public class SSAUConstructorSparseEx {
       }
     }
 
-    if (extraVarVersions.containsKey(node.id)) {
-      SFormsFastMapDirect mapExtra = extraVarVersions.get(node.id);
+    SFormsFastMapDirect mapExtra = extraVarVersions[node.index];
+    if (mapExtra != null) {
       if (mapNew.isEmpty()) {
         mapNew = mapExtra.getCopy();
       }
@@ -577,22 +588,20 @@ public class SSAUConstructorSparseEx {
       }
     }
 
-    inVarVersions.put(node.id, mapNew);
+    inVarVersions[node.index] = mapNew;
   }
 
-  private SFormsFastMapDirect getFilteredOutMap(String nodeid, String predid, DirectGraph dgraph, String destid) {
+  // the returned map may be the predecessor's own out map and must not be changed
+  private SFormsFastMapDirect getFilteredOutMap(DirectNode node, DirectNode pred, DirectGraph dgraph, DirectNode dest) {
 
     SFormsFastMapDirect mapNew = new SFormsFastMapDirect();
 
-    boolean isFinallyExit = dgraph.mapShortRangeFinallyPaths.containsKey(predid);
+    boolean isFinallyExit = dgraph.mapShortRangeFinallyPaths.containsKey(pred);
 
-    if (nodeid.equals(dgraph.mapNegIfBranch.get(predid))) {
-      if (outNegVarVersions.containsKey(predid)) {
-        mapNew = outNegVarVersions.get(predid).getCopy();
-      }
-    }
-    else if (outVarVersions.containsKey(predid)) {
-      mapNew = outVarVersions.get(predid).getCopy();
+    SFormsFastMapDirect mapOut = node == dgraph.mapNegIfBranch.get(pred) ? outNegVarVersions[pred.index] : outVarVersions[pred.index];
+    if (mapOut != null) {
+      // only finally exits change the map, everything else just reads it
+      mapNew = isFinallyExit ? mapOut.getCopy() : mapOut;
     }
 
     if (isFinallyExit) {
@@ -601,31 +610,32 @@ public class SSAUConstructorSparseEx {
 
       SFormsFastMapDirect mapTrueSource = new SFormsFastMapDirect();
 
-      String exceptionDest = dgraph.mapFinallyMonitorExceptionPathExits.get(predid);
-      boolean isExceptionMonitorExit = (exceptionDest != null && !nodeid.equals(exceptionDest));
+      DirectNode exceptionDest = dgraph.mapFinallyMonitorExceptionPathExits.get(pred);
+      boolean isExceptionMonitorExit = (exceptionDest != null && node != exceptionDest);
 
-      HashSet<String> setLongPathWrapper = new HashSet<>();
+      // destination and source index pairs of the long range finally paths
+      HashSet<Long> setLongPathWrapper = new HashSet<>();
       for (List<FinallyPathWrapper> lstwrapper : dgraph.mapLongRangeFinallyPaths.values()) {
         for (FinallyPathWrapper finwraplong : lstwrapper) {
-          setLongPathWrapper.add(finwraplong.destination + "##" + finwraplong.source);
+          setLongPathWrapper.add(getPathKey(finwraplong.destination, finwraplong.source));
         }
       }
 
-      for (FinallyPathWrapper finwrap : dgraph.mapShortRangeFinallyPaths.get(predid)) {
+      for (FinallyPathWrapper finwrap : dgraph.mapShortRangeFinallyPaths.get(pred)) {
         SFormsFastMapDirect map;
 
         boolean recFinally = dgraph.mapShortRangeFinallyPaths.containsKey(finwrap.source);
 
         if (recFinally) {
           // recursion
-          map = getFilteredOutMap(finwrap.entry, finwrap.source, dgraph, destid);
+          map = getFilteredOutMap(finwrap.entry, finwrap.source, dgraph, dest);
         }
         else {
-          if (finwrap.entry.equals(dgraph.mapNegIfBranch.get(finwrap.source))) {
-            map = outNegVarVersions.get(finwrap.source);
+          if (finwrap.entry == dgraph.mapNegIfBranch.get(finwrap.source)) {
+            map = outNegVarVersions[finwrap.source.index];
           }
           else {
-            map = outVarVersions.get(finwrap.source);
+            map = outVarVersions[finwrap.source.index];
           }
         }
 
@@ -633,10 +643,10 @@ public class SSAUConstructorSparseEx {
         boolean isFalsePath;
 
         if (recFinally) {
-          isFalsePath = !finwrap.destination.equals(nodeid);
+          isFalsePath = finwrap.destination != node;
         }
         else {
-          isFalsePath = !setLongPathWrapper.contains(destid + "##" + finwrap.source);
+          isFalsePath = !setLongPathWrapper.contains(getPathKey(dest, finwrap.source));
         }
 
         if (isFalsePath) {
@@ -666,7 +676,7 @@ public class SSAUConstructorSparseEx {
         if (!mapTrueSource.isEmpty() && !mapNew.isEmpty()) { // FIXME: what for??
 
           // replace phi versions with corresponding phantom ones
-          HashMap<VarVersionPair, VarVersionPair> mapPhantom = phantomexitnodes.get(predid);
+          HashMap<VarVersionPair, VarVersionPair> mapPhantom = phantomexitnodes.get(pred.index);
           if (mapPhantom == null) {
             mapPhantom = new HashMap<>();
           }
@@ -707,7 +717,7 @@ public class SSAUConstructorSparseEx {
           }
 
           if (!mapPhantom.isEmpty()) {
-            phantomexitnodes.put(predid, mapPhantom);
+            phantomexitnodes.set(pred.index, mapPhantom);
           }
         }
       }
@@ -716,6 +726,10 @@ public class SSAUConstructorSparseEx {
     return mapNew;
   }
 
+  private static long getPathKey(DirectNode destination, DirectNode source) {
+    return (long)destination.index << 32 | source.index & 0xFFFFFFFFL;
+  }
+
   private static SFormsFastMapDirect mergeMaps(SFormsFastMapDirect mapTo, SFormsFastMapDirect map2) {
 
     if (map2 != null && !map2.isEmpty()) {
@@ -777,7 +791,7 @@ public class SSAUConstructorSparseEx {
           map = new SFormsFastMapDirect();
           setCurrentVar(map, varindex, version);
 
-          extraVarVersions.put(dgraph.nodes.getWithKey(flatthelper.getMapDestinationNodes().get(stat.getStats().get(i).id)[0]).id, map);
+          extraVarVersions[flatthelper.getMapDestinationNodes().get(stat.getStats().get(i).id)[0].index] = map;
           //ssuversions.createOrGetNode(new VarVersionPair(varindex, version));
           ssuversions.createNode(new VarVersionPair(varindex, version));
         }
@@ -852,6 +866,10 @@ public class SSAUConstructorSparseEx {
     return ssuversions;
   }
 
+  public DirectGraph getDirectGraph() {
+    return dgraph;
+  }
+
   public SFormsFastMapDirect getLiveVarVersionsMap(VarVersionPair varpaar) {
     VarVersionNode node = ssuversions.nodes.getWithKey(varpaar);
     if (node != null) {
@@ -53,7 +53,7 @@ public final class CatchAllStatement extends Statement {
     }
     
     vars.add(new VarExprent(DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.VAR_COUNTER),
-                            new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/Throwable"),
+                            VarType.of(CodeConstants.TYPE_OBJECT, 0, "java/lang/Throwable"),
                             DecompilerContext.getVarProcessor()));
   }
 
@@ -166,7 +166,7 @@ public final class CatchAllStatement extends Statement {
 
     if (!this.vars.isEmpty()) {
       cas.vars.add(new VarExprent(DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.VAR_COUNTER),
-                              new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/Throwable"),
+                              VarType.of(CodeConstants.TYPE_OBJECT, 0, "java/lang/Throwable"),
                               DecompilerContext.getVarProcessor()));
     }
 
@@ -16,6 +16,12 @@ public class RootStatement extends Statement {
   public final StructMethod mt;
   public Set<String> commentLines = null;
   public boolean addErrorComment = false;
+  // instructions of the method, statements copied and instructions in them while splitting irreducible nodes
+  public int size = 0;
+  public int splitCopies = 0;
+  public int splitInstructions = 0;
+  // whether a split was refused because of the split limits
+  public boolean splitLimited = false;
 
   public RootStatement(Statement head, DummyExitStatement dummyExit, StructMethod mt) {
     type = Statement.TYPE_ROOT;
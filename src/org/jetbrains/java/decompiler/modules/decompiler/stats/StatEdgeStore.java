@@ -0,0 +1,185 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.java.decompiler.modules.decompiler.stats;
+
+import org.jetbrains.java.decompiler.modules.decompiler.StatEdge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Edges of one direction of a statement, kept in insertion order in parallel arrays together with the neighbour
+ * statement and the type of each edge.
+ * <p>
+ * Queries for a single edge type return the edges in the order they were given that type, so an edge whose type was
+ * changed comes after the edges that already had the new type.
+ */
+final class StatEdgeStore {
+  private static final StatEdge[] EMPTY_EDGES = new StatEdge[0];
+  private static final Statement[] EMPTY_STATS = new Statement[0];
+  private static final int[] EMPTY_INTS = new int[0];
+
+  private StatEdge[] edges = EMPTY_EDGES;
+  private Statement[] neighbours = EMPTY_STATS;
+  private int[] types = EMPTY_INTS;
+  // position of the edge in the list of its type, increasing with every add or type change
+  private int[] order = EMPTY_INTS;
+  private int size;
+
+  private int nextOrder;
+  // union of the types of all edges ever stored, used to skip queries for absent types
+  private int typeMask;
+  private boolean retyped;
+
+  void add(StatEdge edge, Statement neighbour) {
+    if (size == edges.length) {
+      int capacity = Math.max(4, size * 2);
+      edges = Arrays.copyOf(edges, capacity);
+      neighbours = Arrays.copyOf(neighbours, capacity);
+      types = Arrays.copyOf(types, capacity);
+      order = Arrays.copyOf(order, capacity);
+    }
+
+    edges[size] = edge;
+    neighbours[size] = neighbour;
+    types[size] = edge.getType();
+    order[size] = nextOrder++;
+    typeMask |= edge.getType();
+    size++;
+  }
+
+  void remove(StatEdge edge) {
+    int index = indexOf(edge);
+    if (index >= 0) {
+      removeAt(index);
+    }
+  }
+
+  void setNeighbour(StatEdge edge, Statement neighbour) {
+    int index = indexOf(edge);
+    if (index >= 0) {
+      neighbours[index] = neighbour;
+    }
+  }
+
+  void changeType(StatEdge edge, int newType) {
+    int index = indexOf(edge);
+    if (index >= 0) {
+      types[index] = newType;
+      order[index] = nextOrder++;
+      typeMask |= newType;
+      retyped = true;
+    }
+  }
+
+  void removeExceptionEdges() {
+    if ((typeMask & StatEdge.TYPE_EXCEPTION) == 0) {
+      return;
+    }
+
+    int kept = 0;
+    for (int i = 0; i < size; i++) {
+      if (types[i] != StatEdge.TYPE_EXCEPTION) {
+        edges[kept] = edges[i];
+        neighbours[kept] = neighbours[i];
+        types[kept] = types[i];
+        order[kept] = order[i];
+        kept++;
+      }
+    }
+    Arrays.fill(edges, kept, size, null);
+    Arrays.fill(neighbours, kept, size, null);
+    size = kept;
+    typeMask &= ~StatEdge.TYPE_EXCEPTION;
+  }
+
+  List<StatEdge> getEdges(int type) {
+    return collect(edges, type);
+  }
+
+  List<Statement> getNeighbours(int type) {
+    return collect(neighbours, type);
+  }
+
+  private <T> List<T> collect(T[] values, int type) {
+    if (type == Statement.STATEDGE_ALL) {
+      List<T> res = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        res.add(values[i]);
+      }
+      return res;
+    }
+
+    if (type == Statement.STATEDGE_DIRECT_ALL) {
+      List<T> res = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        if (types[i] != StatEdge.TYPE_EXCEPTION) {
+          res.add(values[i]);
+        }
+      }
+      return res;
+    }
+
+    List<T> res = new ArrayList<>();
+    if ((type & (type - 1)) == 0) {
+      collectType(values, type, res);
+    }
+    else {
+      for (int edgeType : StatEdge.TYPES) {
+        if ((type & edgeType) != 0) {
+          collectType(values, edgeType, res);
+        }
+      }
+    }
+    return res;
+  }
+
+  private <T> void collectType(T[] values, int type, List<T> res) {
+    if ((typeMask & type) == 0) {
+      return;
+    }
+
+    if (!retyped) {
+      for (int i = 0; i < size; i++) {
+        if (types[i] == type) {
+          res.add(values[i]);
+        }
+      }
+      return;
+    }
+
+    int count = 0;
+    long[] keys = new long[size];
+    for (int i = 0; i < size; i++) {
+      if (types[i] == type) {
+        keys[count++] = ((long)order[i] << 32) | i;
+      }
+    }
+    Arrays.sort(keys, 0, count);
+    for (int i = 0; i < count; i++) {
+      res.add(values[(int)keys[i]]);
+    }
+  }
+
+  private int indexOf(StatEdge edge) {
+    for (int i = 0; i < size; i++) {
+      if (edges[i] == edge) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void removeAt(int index) {
+    int tail = size - index - 1;
+    if (tail > 0) {
+      System.arraycopy(edges, index + 1, edges, index, tail);
+      System.arraycopy(neighbours, index + 1, neighbours, index, tail);
+      System.arraycopy(types, index + 1, types, index, tail);
+      System.arraycopy(order, index + 1, order, index, tail);
+    }
+    size--;
+    edges[size] = null;
+    neighbours[size] = null;
+  }
+}
@@ -23,6 +23,7 @@ import org.jetbrains.java.decompiler.util.VBStyleCollection;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Predicate;
 
 public class Statement implements IMatchable {
   // All edge types
@@ -70,11 +71,8 @@ public class Statement implements IMatchable {
   // private fields
   // *****************************************************************************
 
-  private final Map<Integer, List<StatEdge>> mapSuccEdges = new HashMap<>();
-  private final Map<Integer, List<StatEdge>> mapPredEdges = new HashMap<>();
-
-  private final Map<Integer, List<Statement>> mapSuccStates = new HashMap<>();
-  private final Map<Integer, List<Statement>> mapPredStates = new HashMap<>();
+  private final StatEdgeStore succEdges = new StatEdgeStore();
+  private final StatEdgeStore predEdges = new StatEdgeStore();
 
   // statement as graph
   protected final VBStyleCollection<Statement, Integer> stats = new VBStyleCollection<>();
@@ -129,22 +127,8 @@ public class Statement implements IMatchable {
     isMonitorEnter = false;
     containsMonitorExit = false;
 
-    processMap(mapSuccEdges);
-    processMap(mapPredEdges);
-    processMap(mapSuccStates);
-    processMap(mapPredStates);
-  }
-
-  private static <T> void processMap(Map<Integer, List<T>> map) {
-    map.remove(StatEdge.TYPE_EXCEPTION);
-
-    List<T> lst = map.get(STATEDGE_DIRECT_ALL);
-    if (lst != null) {
-      map.put(STATEDGE_ALL, new ArrayList<>(lst));
-    }
-    else {
-      map.remove(STATEDGE_ALL);
-    }
+    succEdges.removeExceptionEdges();
+    predEdges.removeExceptionEdges();
   }
 
   public void collapseNodesToStatement(Statement stat) {
@@ -250,61 +234,16 @@ public class Statement implements IMatchable {
     this.getLabelEdges().add(edge);
   }
 
-  private void addEdgeDirectInternal(int direction, StatEdge edge, int edgetype) {
-    Map<Integer, List<StatEdge>> mapEdges = direction == DIRECTION_BACKWARD ? mapPredEdges : mapSuccEdges;
-    Map<Integer, List<Statement>> mapStates = direction == DIRECTION_BACKWARD ? mapPredStates : mapSuccStates;
-
-    mapEdges.computeIfAbsent(edgetype, k -> new ArrayList<>()).add(edge);
-
-    mapStates.computeIfAbsent(edgetype, k -> new ArrayList<>()).add(direction == DIRECTION_BACKWARD ? edge.getSource() : edge.getDestination());
+  private StatEdgeStore getEdgeStore(int direction) {
+    return direction == DIRECTION_BACKWARD ? predEdges : succEdges;
   }
 
   private void addEdgeInternal(int direction, StatEdge edge) {
-    int type = edge.getType();
-
-    int[] arrtypes;
-    if (type == StatEdge.TYPE_EXCEPTION) {
-      arrtypes = new int[]{STATEDGE_ALL, StatEdge.TYPE_EXCEPTION};
-    }
-    else {
-      arrtypes = new int[]{STATEDGE_ALL, STATEDGE_DIRECT_ALL, type};
-    }
-
-    for (int edgetype : arrtypes) {
-      addEdgeDirectInternal(direction, edge, edgetype);
-    }
-  }
-
-  private void removeEdgeDirectInternal(int direction, StatEdge edge, int edgetype) {
-
-    Map<Integer, List<StatEdge>> mapEdges = direction == DIRECTION_BACKWARD ? mapPredEdges : mapSuccEdges;
-    Map<Integer, List<Statement>> mapStates = direction == DIRECTION_BACKWARD ? mapPredStates : mapSuccStates;
-
-    List<StatEdge> lst = mapEdges.get(edgetype);
-    if (lst != null) {
-      int index = lst.indexOf(edge);
-      if (index >= 0) {
-        lst.remove(index);
-        mapStates.get(edgetype).remove(index);
-      }
-    }
+    getEdgeStore(direction).add(edge, direction == DIRECTION_BACKWARD ? edge.getSource() : edge.getDestination());
   }
 
   private void removeEdgeInternal(int direction, StatEdge edge) {
-
-    int type = edge.getType();
-
-    int[] arrtypes;
-    if (type == StatEdge.TYPE_EXCEPTION) {
-      arrtypes = new int[]{STATEDGE_ALL, StatEdge.TYPE_EXCEPTION};
-    }
-    else {
-      arrtypes = new int[]{STATEDGE_ALL, STATEDGE_DIRECT_ALL, type};
-    }
-
-    for (int edgetype : arrtypes) {
-      removeEdgeDirectInternal(direction, edge, edgetype);
-    }
+    getEdgeStore(direction).remove(edge);
   }
 
   public void addPredecessor(StatEdge edge) {
@@ -493,6 +432,41 @@ public class Statement implements IMatchable {
     return new ArrayList<>(stats);
   }
 
+  // Pass the variable definitions and exprents of this statement and all statements nested in it to the visitor,
+  // together with every exprent they contain. Stops as soon as the visitor returns false, and returns false in that case.
+  public boolean forEachExprent(Predicate<Exprent> visitor) {
+    for (Exprent exp : varDefinitions) {
+      if (!visitor.test(exp) || !exp.forEachExprent(visitor, true)) {
+        return false;
+      }
+    }
+
+    if (exprents == null) {
+      for (Object obj : getSequentialObjects()) {
+        if (obj instanceof Statement) {
+          if (!((Statement)obj).forEachExprent(visitor)) {
+            return false;
+          }
+        }
+        else if (obj instanceof Exprent) {
+          Exprent exp = (Exprent)obj;
+          if (!visitor.test(exp) || !exp.forEachExprent(visitor, true)) {
+            return false;
+          }
+        }
+      }
+    }
+    else {
+      for (Exprent exp : exprents) {
+        if (!visitor.test(exp) || !exp.forEachExprent(visitor, true)) {
+          return false;
+        }
+      }
+    }
+
+    return true;
+  }
+
   public void initExprents() {
     // do nothing
   }
@@ -647,28 +621,7 @@ public class Statement implements IMatchable {
 
   public void changeEdgeNode(int direction, StatEdge edge, Statement value) {
 
-    Map<Integer, List<StatEdge>> mapEdges = direction == DIRECTION_BACKWARD ? mapPredEdges : mapSuccEdges;
-    Map<Integer, List<Statement>> mapStates = direction == DIRECTION_BACKWARD ? mapPredStates : mapSuccStates;
-
-    int type = edge.getType();
-
-    int[] arrtypes;
-    if (type == StatEdge.TYPE_EXCEPTION) {
-      arrtypes = new int[]{STATEDGE_ALL, StatEdge.TYPE_EXCEPTION};
-    }
-    else {
-      arrtypes = new int[]{STATEDGE_ALL, STATEDGE_DIRECT_ALL, type};
-    }
-
-    for (int edgetype : arrtypes) {
-      List<StatEdge> lst = mapEdges.get(edgetype);
-      if (lst != null) {
-        int index = lst.indexOf(edge);
-        if (index >= 0) {
-          mapStates.get(edgetype).set(index, value);
-        }
-      }
-    }
+    getEdgeStore(direction).setNeighbour(edge, value);
 
     if (direction == DIRECTION_BACKWARD) {
       edge.setSource(value);
@@ -689,8 +642,7 @@ public class Statement implements IMatchable {
       throw new RuntimeException("Invalid edge type!");
     }
 
-    removeEdgeDirectInternal(direction, edge, oldtype);
-    addEdgeDirectInternal(direction, edge, newtype);
+    getEdgeStore(direction).changeType(edge, newtype);
 
     if (direction == DIRECTION_FORWARD) {
       edge.getDestination().changeEdgeType(DIRECTION_BACKWARD, edge, newtype);
@@ -701,51 +653,11 @@ public class Statement implements IMatchable {
 
 
   private List<StatEdge> getEdges(int type, int direction) {
-
-    Map<Integer, List<StatEdge>> map = direction == DIRECTION_BACKWARD ? mapPredEdges : mapSuccEdges;
-
-    List<StatEdge> res;
-    if ((type & (type - 1)) == 0) {
-      res = map.get(type);
-      res = res == null ? new ArrayList<>() : new ArrayList<>(res);
-    }
-    else {
-      res = new ArrayList<>();
-      for (int edgetype : StatEdge.TYPES) {
-        if ((type & edgetype) != 0) {
-          List<StatEdge> lst = map.get(edgetype);
-          if (lst != null) {
-            res.addAll(lst);
-          }
-        }
-      }
-    }
-
-    return res;
+    return getEdgeStore(direction).getEdges(type);
   }
 
   public List<Statement> getNeighbours(int type, int direction) {
-
-    Map<Integer, List<Statement>> map = direction == DIRECTION_BACKWARD ? mapPredStates : mapSuccStates;
-
-    List<Statement> res;
-    if ((type & (type - 1)) == 0) {
-      res = map.get(type);
-      res = res == null ? new ArrayList<>() : new ArrayList<>(res);
-    }
-    else {
-      res = new ArrayList<>();
-      for (int edgetype : StatEdge.TYPES) {
-        if ((type & edgetype) != 0) {
-          List<Statement> lst = map.get(edgetype);
-          if (lst != null) {
-            res.addAll(lst);
-          }
-        }
-      }
-    }
-
-    return res;
+    return getEdgeStore(direction).getNeighbours(type);
   }
 
   public Set<Statement> getNeighboursSet(int type, int direction) {
@@ -26,6 +26,7 @@ import org.jetbrains.java.decompiler.util.StatementIterator;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Predicate;
 
 public class VarDefinitionHelper {
 
@@ -185,13 +186,7 @@ public class VarDefinitionHelper {
           break;
         }
         else {
-          boolean foundvar = false;
-          for (Exprent exp : expr.getAllExprents(true)) {
-            if (exp.type == Exprent.EXPRENT_VAR && ((VarExprent)exp).getIndex() == index) {
-              foundvar = true;
-              break;
-            }
-          }
+          boolean foundvar = !expr.forEachExprent(exp -> exp.type != Exprent.EXPRENT_VAR || ((VarExprent)exp).getIndex() != index, true);
           if (foundvar) {
             break;
           }
@@ -452,7 +447,7 @@ public class VarDefinitionHelper {
 
               if (instance != null && instance.type == Exprent.EXPRENT_VAR) {
                 VarVersionPair key = ((VarExprent)instance).getVarVersionPair();
-                VarType newType = new VarType(CodeConstants.TYPE_OBJECT, 0, target);
+                VarType newType = VarType.of(CodeConstants.TYPE_OBJECT, 0, target);
                 VarType oldMin = mapExprentMinTypes.get(key);
                 VarType oldMax = mapExprentMaxTypes.get(key);
 
@@ -997,10 +992,7 @@ public class VarDefinitionHelper {
     if (exprent == null) {
       return;
     }
-    List<Exprent> lst = exprent.getAllExprents(true);
-    lst.add(exprent);
-
-    for (Exprent expr : lst) {
+    Predicate<Exprent> applier = expr -> {
       if (expr.type == Exprent.EXPRENT_VAR) {
         VarExprent var = (VarExprent)expr;
         LocalVariable lvt = types.get(new VarVersionPair(var));
@@ -1010,7 +1002,11 @@ public class VarDefinitionHelper {
           System.currentTimeMillis();
         }
       }
-    }
+      return true;
+    };
+
+    applier.test(exprent);
+    exprent.forEachExprent(applier, true);
   }
 
   //Helper classes because Java is dumb and doesn't have a Pair<K,V> class
@@ -46,7 +46,7 @@ public class VarTypeProcessor {
 
     if (thisVar) {
       StructClass cl = (StructClass)DecompilerContext.getProperty(DecompilerContext.CURRENT_CLASS);
-      VarType clType = new VarType(CodeConstants.TYPE_OBJECT, 0, cl.qualifiedName);
+      VarType clType = VarType.of(CodeConstants.TYPE_OBJECT, 0, cl.qualifiedName);
       mapExprentMinTypes.put(new VarVersionPair(0, 1), clType);
       mapExprentMaxTypes.put(new VarVersionPair(0, 1), clType);
     }
@@ -181,6 +181,10 @@ public class VarTypeProcessor {
   private boolean changeVarExprentType(Exprent exprent, VarType newType, int minMax, VarVersionPair pair) {
     if (minMax == 0) { // min
       VarType currentMinType = mapExprentMinTypes.get(pair);
+      if (currentMinType == newType && exprent.type != Exprent.EXPRENT_CONST) {
+        return true; // interned types: nothing to widen
+      }
+
       VarType newMinType;
       if (currentMinType == null || newType.typeFamily > currentMinType.typeFamily) {
         newMinType = newType;
@@ -200,6 +204,10 @@ public class VarTypeProcessor {
       }
     } else {  // max
       VarType currentMaxType = mapExprentMaxTypes.get(pair);
+      if (currentMaxType == newType) {
+        return true;
+      }
+
       VarType newMaxType;
       if (currentMaxType == null || newType.typeFamily < currentMaxType.typeFamily) {
         newMaxType = newType;
@@ -0,0 +1,102 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.java.decompiler.struct;
+
+import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Tracks own classes whose bytes are identical across entries (shaded copies, multiple input archives, multi-release
+ * versions), so that each of them is decompiled once and the resulting source is reused for every other entry.
+ */
+class ClassDeduplicator {
+  private final Map<StructClass, String> keys = new ConcurrentHashMap<>();
+  // copies of each key that will be saved, and those not saved yet
+  private final Map<String, Integer> copies = new ConcurrentHashMap<>();
+  private final Map<String, Integer> pending = new ConcurrentHashMap<>();
+  private final Map<String, CompletableFuture<Object>> results = new ConcurrentHashMap<>();
+
+  void register(StructClass cl, byte[] data) {
+    keys.putIfAbsent(cl, cl.qualifiedName + '#' + digest(data));
+  }
+
+  /**
+   * Announces that the given class will be saved. Only announced copies share a result, so copies that are never saved,
+   * like nested classes, don't keep the result alive. All classes must be announced before the first one is saved.
+   */
+  void expect(StructClass cl) {
+    String key = keys.get(cl);
+    if (key != null) {
+      copies.merge(key, 1, Integer::sum);
+      pending.merge(key, 1, Integer::sum);
+    }
+  }
+
+  /**
+   * Returns the result for the given class, computing it with the supplier only for the first of several identical
+   * copies. The result is kept until every announced copy has asked for it.
+   */
+  @SuppressWarnings("unchecked")
+  <T> T getOrCompute(StructClass cl, Supplier<T> supplier) {
+    String key = keys.get(cl);
+    if (key == null || copies.getOrDefault(key, 0) <= 1) {
+      return supplier.get();
+    }
+
+    CompletableFuture<Object> future = new CompletableFuture<>();
+    CompletableFuture<Object> existing = results.putIfAbsent(key, future);
+    T result;
+    try {
+      if (existing == null) {
+        try {
+          result = supplier.get();
+          future.complete(result);
+        }
+        catch (RuntimeException | Error e) {
+          future.completeExceptionally(e);
+          throw e;
+        }
+      }
+      else {
+        DecompilerContext.getLogger().writeMessage("Reusing decompiled duplicate of " + cl.qualifiedName, IFernflowerLogger.Severity.INFO);
+        result = (T)existing.join();
+      }
+    }
+    finally {
+      if (pending.computeIfPresent(key, (k, v) -> v > 1 ? v - 1 : null) == null) {
+        results.remove(key);
+        copies.remove(key);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Forgets all classes and results, once the context has been saved.
+   */
+  void clear() {
+    keys.clear();
+    copies.clear();
+    pending.clear();
+    results.clear();
+  }
+
+  private static String digest(byte[] data) {
+    try {
+      StringBuilder builder = new StringBuilder();
+      for (byte b : MessageDigest.getInstance("SHA-256").digest(data)) {
+        builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return builder.toString();
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
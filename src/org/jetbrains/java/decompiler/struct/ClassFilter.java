@@ -0,0 +1,92 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.java.decompiler.struct;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Include and exclude filters over qualified class names (e.g. {@code com/example/Foo$Bar}). A filter without
+ * wildcards is a name prefix. Otherwise it is a glob matched against the whole name, where {@code *} and {@code ?}
+ * stay within one package and {@code **} spans packages.
+ * <p>
+ * Nested classes follow their outermost class: filters are matched against the name up to the first {@code $} of the
+ * simple name, so {@code com/example/Foo$Bar} and {@code com/example/Foo$1} are accepted exactly when
+ * {@code com/example/Foo} is.
+ * <p>
+ * Own classes rejected by the filter are registered like library classes and are only parsed when referenced.
+ */
+public class ClassFilter {
+  private final List<Pattern> includes = new ArrayList<>();
+  private final List<Pattern> excludes = new ArrayList<>();
+
+  public void include(String filter) {
+    includes.add(compile(filter));
+  }
+
+  public void exclude(String filter) {
+    excludes.add(compile(filter));
+  }
+
+  public boolean isEmpty() {
+    return includes.isEmpty() && excludes.isEmpty();
+  }
+
+  public boolean accepts(String className) {
+    className = getOutermostName(className);
+    if (!includes.isEmpty() && !matchesAny(includes, className)) {
+      return false;
+    }
+    return !matchesAny(excludes, className);
+  }
+
+  private static String getOutermostName(String className) {
+    int start = className.lastIndexOf('/') + 1;
+    // a leading $ belongs to the name itself
+    int end = className.indexOf('$', start + 1);
+    return end < 0 ? className : className.substring(0, end);
+  }
+
+  private static boolean matchesAny(List<Pattern> patterns, String className) {
+    for (Pattern pattern : patterns) {
+      if (pattern.matcher(className).matches()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Pattern compile(String filter) {
+    if (filter.indexOf('*') < 0 && filter.indexOf('?') < 0) {
+      return Pattern.compile(Pattern.quote(filter) + ".*", Pattern.DOTALL);
+    }
+
+    StringBuilder regex = new StringBuilder();
+    int start = 0;
+    for (int i = 0; i < filter.length(); i++) {
+      char c = filter.charAt(i);
+      if (c == '*' || c == '?') {
+        if (i > start) {
+          regex.append(Pattern.quote(filter.substring(start, i)));
+        }
+
+        if (c == '?') {
+          regex.append("[^/]");
+        }
+        else if (i + 1 < filter.length() && filter.charAt(i + 1) == '*') {
+          regex.append(".*");
+          i++;
+        }
+        else {
+          regex.append("[^/]*");
+        }
+        start = i + 1;
+      }
+    }
+    if (start < filter.length()) {
+      regex.append(Pattern.quote(filter.substring(start)));
+    }
+
+    return Pattern.compile(regex.toString(), Pattern.DOTALL);
+  }
+}
@@ -2,6 +2,7 @@
 package org.jetbrains.java.decompiler.struct;
 
 import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.collectors.DecompilationListeners;
 import org.jetbrains.java.decompiler.main.decompiler.ConsoleDecompiler;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.main.extern.IResultSaver;
@@ -9,6 +10,7 @@ import org.jetbrains.java.decompiler.struct.lazy.LazyLoader;
 import org.jetbrains.java.decompiler.struct.lazy.LazyLoader.Link;
 import org.jetbrains.java.decompiler.util.DataInputFullStream;
 import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.jetbrains.java.decompiler.util.JfrEvents;
 
 import java.io.File;
 import java.io.IOException;
@@ -107,6 +109,10 @@ public class ContextUnit {
   }
 
   public void save() {
+    DecompilationListeners listeners = DecompilerContext.getStructContext().getListeners();
+    // sizes of the class files, only known to listeners
+    long[] classSizes = listeners.isActive() ? queueClasses(listeners) : null;
+
     switch (type) {
       case TYPE_FOLDER:
         // FIXME: ugly but needs to exist for folder->jar saving to work properly
@@ -119,7 +125,9 @@ public class ContextUnit {
 
         // non-class files
         for (String[] pair : otherEntries) {
+          JfrEvents.Recording event = JfrEvents.beginSave(filename, pair[1]);
           resultSaver.copyFile(pair[0], filename, pair[1]);
+          event.commit();
         }
 
         // classes
@@ -130,13 +138,11 @@ public class ContextUnit {
           }
           String entryName = decompiledData.getClassEntryName(cl, classEntries.get(i));
           if (entryName != null) {
-            String content = decompiledData.getClassContent(cl);
-            if (content != null) {
-              int[] mapping = null;
-              if (DecompilerContext.getOption(IFernflowerPreferences.BYTECODE_SOURCE_MAPPING)) {
-                mapping = DecompilerContext.getBytecodeSourceMapper().getOriginalLinesMapping();
-              }
-              resultSaver.saveClassFile(filename, cl.qualifiedName, entryName, content, mapping);
+            DecompiledClass decompiled = decompileClass(cl, listeners, classSizes == null ? -1 : classSizes[i]);
+            if (decompiled.content != null) {
+              JfrEvents.Recording event = JfrEvents.beginSave(filename, entryName);
+              resultSaver.saveClassFile(filename, cl.qualifiedName, entryName, decompiled.content, decompiled.mapping);
+              event.commit();
             }
           }
         }
@@ -161,7 +167,9 @@ public class ContextUnit {
         // non-class entries
         for (String[] pair : otherEntries) {
           if (type != TYPE_JAR || !JarFile.MANIFEST_NAME.equalsIgnoreCase(pair[1])) {
+            JfrEvents.Recording event = JfrEvents.beginSave(filename, pair[1]);
             resultSaver.copyEntry(pair[0], archivePath, filename, pair[1]);
+            event.commit();
           }
         }
 
@@ -173,15 +181,14 @@ public class ContextUnit {
         for (int i = 0; i < classes.size(); i++) {
           StructClass cl = classes.get(i);
           String entryName = decompiledData.getClassEntryName(cl, classEntries.get(i));
+          long bytesIn = classSizes == null ? -1 : classSizes[i];
           if (entryName != null) {
             futures.add(decompileExecutor.submit(() -> {
               setContext(rootContext);
-              String content = decompiledData.getClassContent(cl);
-              int[] mapping = null;
-              if (DecompilerContext.getOption(IFernflowerPreferences.BYTECODE_SOURCE_MAPPING)) {
-                mapping = DecompilerContext.getBytecodeSourceMapper().getOriginalLinesMapping();
-              }
-              resultSaver.saveClassEntry(archivePath, filename, cl.qualifiedName, entryName, content, mapping);
+              DecompiledClass decompiled = decompileClass(cl, listeners, bytesIn);
+              JfrEvents.Recording event = JfrEvents.beginSave(filename, entryName);
+              resultSaver.saveClassEntry(archivePath, filename, cl.qualifiedName, entryName, decompiled.content, decompiled.mapping);
+              event.commit();
             }));
           }
         }
@@ -200,6 +207,56 @@ public class ContextUnit {
     }
   }
 
+  void expectSavedClasses(ClassDeduplicator deduplicator) {
+    for (int i = 0; i < classes.size(); i++) {
+      StructClass cl = classes.get(i);
+      if (cl.isOwn() && decompiledData.getClassEntryName(cl, classEntries.get(i)) != null) {
+        deduplicator.expect(cl);
+      }
+    }
+  }
+
+  private long[] queueClasses(DecompilationListeners listeners) {
+    StructContext context = DecompilerContext.getStructContext();
+    long[] sizes = new long[classes.size()];
+
+    for (int i = 0; i < classes.size(); i++) {
+      StructClass cl = classes.get(i);
+      if (cl.isOwn() && decompiledData.getClassEntryName(cl, classEntries.get(i)) != null) {
+        sizes[i] = context.getClassFileSize(cl.qualifiedName);
+        listeners.classQueued(cl.qualifiedName, sizes[i]);
+      }
+    }
+
+    return sizes;
+  }
+
+  private DecompiledClass decompileClass(StructClass cl, DecompilationListeners listeners, long bytesIn) {
+    if (!listeners.isActive()) {
+      return decompileClass(cl);
+    }
+
+    listeners.classStarted(cl.qualifiedName);
+    long start = System.nanoTime();
+
+    DecompiledClass decompiled = decompileClass(cl);
+
+    long bytesOut = decompiled.content == null ? 0 : decompiled.content.getBytes(StandardCharsets.UTF_8).length;
+    listeners.classFinished(cl.qualifiedName, System.nanoTime() - start, bytesIn, bytesOut, decompiled.content != null);
+    return decompiled;
+  }
+
+  private DecompiledClass decompileClass(StructClass cl) {
+    return DecompilerContext.getStructContext().getDeduplicator().getOrCompute(cl, () -> {
+      String content = decompiledData.getClassContent(cl);
+      int[] mapping = null;
+      if (DecompilerContext.getOption(IFernflowerPreferences.BYTECODE_SOURCE_MAPPING)) {
+        mapping = DecompilerContext.getBytecodeSourceMapper().getOriginalLinesMapping();
+      }
+      return new DecompiledClass(content, mapping);
+    });
+  }
+
   public void setContext(DecompilerContext rootContext) {
     DecompilerContext current = DecompilerContext.getCurrentContext();
     if (current == null) {
@@ -226,4 +283,14 @@ public class ContextUnit {
   public List<StructClass> getClasses() {
     return classes;
   }
+
+  private static final class DecompiledClass {
+    private final String content;
+    private final int[] mapping;
+
+    private DecompiledClass(String content, int[] mapping) {
+      this.content = content;
+      this.mapping = mapping;
+    }
+  }
 }
@@ -270,12 +270,15 @@ public class StructClass extends StructMember {
     return ret;
   }
 
-  private Map<String, Map<VarType, VarType>> genericHiarachy;
+  /**
+   * Returns the type arguments this class binds for every generic class in its hierarchy, keyed by the qualified
+   * name of that class. The result is cached by the struct context and must not be modified.
+   */
   public Map<String, Map<VarType, VarType>> getAllGenerics() {
-    if (genericHiarachy != null) {
-      return genericHiarachy;
-    }
+    return DecompilerContext.getStructContext().getAllGenerics(this);
+  }
 
+  Map<String, Map<VarType, VarType>> computeAllGenerics(StructContext context) {
     Map<String, Map<VarType, VarType>> ret = new HashMap<>();
     if (this.signature != null && !this.signature.fparameters.isEmpty()) {
       Map<VarType, VarType> mine = new HashMap<>();
@@ -283,7 +286,7 @@ public class StructClass extends StructMember {
         VarType type = GenericType.parse("T" + par + ";");
         mine.put(type, type);
       }
-      ret.put(this.qualifiedName, mine);
+      ret.put(this.qualifiedName, Collections.unmodifiableMap(mine));
     }
 
     Set<String> visited = new HashSet<>(); //Is there a better way? Is the signature forced to contain all interfaces?
@@ -291,22 +294,9 @@ public class StructClass extends StructMember {
       for (VarType intf : this.signature.superinterfaces) {
         visited.add((String)intf.value);
 
-        StructClass cls = DecompilerContext.getStructContext().getClass((String)intf.value);
+        StructClass cls = context.getClass((String)intf.value);
         if (cls != null) {
-          Map<VarType, VarType> sig = cls.getGenericMap(intf);
-
-          for (Entry<String, Map<VarType, VarType>> e : cls.getAllGenerics().entrySet()) {
-            if (e.getValue().isEmpty()) {
-              ret.put(e.getKey(), e.getValue());
-            }
-            else {
-              Map<VarType, VarType> sub = new HashMap<>();
-              for (Entry<VarType, VarType> e2 : e.getValue().entrySet()) {
-                sub.put(e2.getKey(), sig.getOrDefault(e2.getValue(), e2.getValue()));
-              }
-              ret.put(e.getKey(), sub);
-            }
-          }
+          putRemapped(ret, context.getAllGenerics(cls), cls.getGenericMap(intf));
         }
       }
     }
@@ -315,38 +305,43 @@ public class StructClass extends StructMember {
       if (visited.contains(intf)) {
         continue;
       }
-      StructClass cls = DecompilerContext.getStructContext().getClass(intf);
+      StructClass cls = context.getClass(intf);
       if (cls != null) {
-        ret.putAll(cls.getAllGenerics());
+        ret.putAll(context.getAllGenerics(cls));
       }
     }
 
     if (this.superClass != null) {
-      StructClass cls = DecompilerContext.getStructContext().getClass((String)this.superClass.value);
+      StructClass cls = context.getClass((String)this.superClass.value);
       if (cls != null) {
         Map<VarType, VarType> sig = this.signature == null ? Collections.emptyMap() : cls.getGenericMap(this.signature.superclass);
-        if (sig.isEmpty()) {
-          ret.putAll(cls.getAllGenerics());
-        }
-        else {
-          for (Entry<String, Map<VarType, VarType>> e : cls.getAllGenerics().entrySet()) {
-            if (e.getValue().isEmpty()) {
-              ret.put(e.getKey(), e.getValue());
-            }
-            else {
-              Map<VarType, VarType> sub = new HashMap<>();
-              for (Entry<VarType, VarType> e2 : e.getValue().entrySet()) {
-                sub.put(e2.getKey(), sig.getOrDefault(e2.getValue(), e2.getValue()));
-              }
-              ret.put(e.getKey(), sub);
-            }
+        putRemapped(ret, context.getAllGenerics(cls), sig);
+      }
+    }
+
+    return ret.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(ret);
+  }
+
+  // Sub-maps that the substitution leaves untouched are shared with the super type's hierarchy instead of copied
+  private static void putRemapped(Map<String, Map<VarType, VarType>> ret, Map<String, Map<VarType, VarType>> generics, Map<VarType, VarType> sig) {
+    if (sig.isEmpty()) {
+      ret.putAll(generics);
+      return;
+    }
+
+    for (Entry<String, Map<VarType, VarType>> e : generics.entrySet()) {
+      Map<VarType, VarType> sub = null;
+      for (Entry<VarType, VarType> e2 : e.getValue().entrySet()) {
+        VarType mapped = sig.get(e2.getValue());
+        if (mapped != null && mapped != e2.getValue()) {
+          if (sub == null) {
+            sub = new HashMap<>(e.getValue());
           }
+          sub.put(e2.getKey(), mapped);
         }
       }
+      ret.put(e.getKey(), sub == null ? e.getValue() : Collections.unmodifiableMap(sub));
     }
-
-    this.genericHiarachy = ret.isEmpty() ? Collections.emptyMap() : ret;
-    return this.genericHiarachy;
   }
 
   private List<StructClass> superClasses;
@@ -2,12 +2,17 @@
 package org.jetbrains.java.decompiler.struct;
 
 import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.collectors.DecompilationListeners;
+import org.jetbrains.java.decompiler.main.collectors.PassMetrics;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.main.extern.IResultSaver;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger.Severity;
+import org.jetbrains.java.decompiler.struct.gen.VarType;
 import org.jetbrains.java.decompiler.struct.gen.generics.GenericMain;
 import org.jetbrains.java.decompiler.struct.gen.generics.GenericMethodDescriptor;
 import org.jetbrains.java.decompiler.struct.lazy.LazyLoader;
 import org.jetbrains.java.decompiler.util.DataInputFullStream;
+import org.jetbrains.java.decompiler.util.JfrEvents;
 
 import java.io.Closeable;
 import java.io.File;
@@ -17,9 +22,12 @@ import java.net.URISyntaxException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.Manifest;
 
 public class StructContext implements Closeable {
+  private static final String MULTI_RELEASE_PREFIX = "META-INF/versions/";
+
   private final IResultSaver saver;
   private final IDecompiledData decompiledData;
   private final LazyLoader loader;
@@ -28,6 +36,12 @@ public class StructContext implements Closeable {
   private final Map<String, StructClass> ownClasses = new HashMap<>();
   private final Map<String, List<String>> abstractNames = new HashMap<>();
   private final ArrayList<FileSystem> toClose = new ArrayList<>();
+  // Resolved generic hierarchies, shared by all worker threads. Keyed by identity since reloads replace classes.
+  private final Map<StructClass, Map<String, Map<VarType, VarType>>> genericHierarchies = new ConcurrentHashMap<>();
+  private final ClassDeduplicator deduplicator = new ClassDeduplicator();
+  private final PassMetrics passMetrics = new PassMetrics();
+  private final DecompilationListeners listeners = new DecompilationListeners();
+  private final ClassFilter filter = new ClassFilter();
 
   public StructContext(IResultSaver saver, IDecompiledData decompiledData, LazyLoader loader) {
     this.saver = saver;
@@ -47,6 +61,8 @@ public class StructContext implements Closeable {
   }
 
   public void reloadContext() throws IOException {
+    genericHierarchies.clear();
+
     for (Map.Entry<String, ContextUnit> e : units.entrySet()) {
       ContextUnit unit = e.getValue();
       for (StructClass cl : unit.getClasses()) {
@@ -63,15 +79,40 @@ public class StructContext implements Closeable {
   }
 
   public void saveContext() {
-    for (ContextUnit unit : units.values()) {
-      if (unit.isOwn()) {
-        unit.save();
+    if (DecompilerContext.getOption(IFernflowerPreferences.DEDUPLICATE_CLASSES)) {
+      for (ContextUnit unit : units.values()) {
+        if (unit.isOwn()) {
+          unit.expectSavedClasses(deduplicator);
+        }
+      }
+    }
+
+    try {
+      for (ContextUnit unit : units.values()) {
+        if (unit.isOwn()) {
+          unit.save();
+        }
       }
     }
+    finally {
+      deduplicator.clear();
+    }
   }
 
   public void addSpace(File file, boolean isOwn) {
-    addSpace("", file, isOwn, 0);
+    Map<String, Integer> releaseVariants = null;
+    int release = DecompilerContext.getIntOption(IFernflowerPreferences.MULTI_RELEASE_VERSION);
+    if (release > 0 && file.isDirectory()) {
+      try {
+        releaseVariants = getReleaseVariants(file.toPath().resolve(MULTI_RELEASE_PREFIX), release);
+      }
+      catch (IOException ex) {
+        DecompilerContext.getLogger().writeMessage("Cannot read multi-release versions of " + file, ex);
+        throw new RuntimeException(ex);
+      }
+    }
+
+    addSpace("", file, isOwn, 0, release, releaseVariants);
   }
 
   public void addSpace(FileSystem fs, boolean isOwn) {
@@ -90,15 +131,20 @@ public class StructContext implements Closeable {
     }
   }
 
-  private void addSpace(String path, File file, boolean isOwn, int level) {
+  // releaseVariants: classes of a multi-release directory that are overridden up to the given release, null to load all
+  private void addSpace(String path, File file, boolean isOwn, int level, int release, Map<String, Integer> releaseVariants) {
     if (file.isDirectory()) {
       if (level == 1) path += file.getName();
       else if (level > 1) path += "/" + file.getName();
 
+      if (releaseVariants != null && getReleaseVersion(path + "/") > release) {
+        return;
+      }
+
       File[] files = file.listFiles();
       if (files != null) {
         for (int i = files.length - 1; i >= 0; i--) {
-          addSpace(path, files[i], isOwn, level + 1);
+          addSpace(path, files[i], isOwn, level + 1, release, releaseVariants);
         }
       }
     }
@@ -125,6 +171,22 @@ public class StructContext implements Closeable {
         return;
       }
 
+      if (releaseVariants != null && filename.endsWith(".class")) {
+        String name = path.isEmpty() ? filename : path + "/" + filename;
+        int version = getReleaseVersion(name);
+        if (version > 0) {
+          // versioned variant, only the selected one is loaded and it is saved in place of the base class
+          name = name.substring(name.indexOf('/', MULTI_RELEASE_PREFIX.length()) + 1);
+          if (!Integer.valueOf(version).equals(releaseVariants.get(name))) {
+            return;
+          }
+          path = name.lastIndexOf('/') < 0 ? "" : name.substring(0, name.lastIndexOf('/'));
+        }
+        else if (releaseVariants.containsKey(name)) {
+          return;
+        }
+      }
+
       ContextUnit unit = units.get(path);
       if (unit == null) {
         unit = new ContextUnit(ContextUnit.TYPE_FOLDER, null, path, isOwn, saver, decompiledData);
@@ -132,7 +194,12 @@ public class StructContext implements Closeable {
       }
 
       if (filename.endsWith(".class")) {
-        addClass(unit, null, path, filename, isOwn, () -> loader.getClassBytes(file.getAbsolutePath(), null));
+        // the name is taken from the class file, unless the location already tells that the filter rejects it
+        String name = (path.isEmpty() ? "" : path + "/") + filename.substring(0, filename.length() - 6);
+        if (!isOwn || filter.accepts(name)) {
+          name = null;
+        }
+        addClass(unit, name, path, filename, isOwn, () -> loader.getClassBytes(file.getAbsolutePath(), null));
       }
       else {
         unit.addOtherEntry(file.getAbsolutePath(), filename);
@@ -159,6 +226,8 @@ public class StructContext implements Closeable {
 
   private void addFileSystem(FileSystem fs, String externalPath, File file, int type, boolean isOwn) throws IOException {
     ContextUnit unit = units.computeIfAbsent(externalPath + "/" + file, k -> new ContextUnit(type, externalPath, file.getName(), isOwn, saver, decompiledData));
+    int release = DecompilerContext.getIntOption(IFernflowerPreferences.MULTI_RELEASE_VERSION);
+    Map<String, Integer> releaseVariants = release > 0 ? getReleaseVariants(fs.getPath("/" + MULTI_RELEASE_PREFIX), release) : null;
     Files.walkFileTree(fs.getPath("/"), new SimpleFileVisitor<Path>() {
       @Override
       public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) throws IOException {
@@ -169,7 +238,22 @@ public class StructContext implements Closeable {
           name = path.toString().substring(1);
         }
         if (name.endsWith(".class")) {
-          addClass(unit, name.substring(0, name.length() - 6), file.getAbsolutePath(), path.toString().substring(1), isOwn, path);
+          String internalPath = path.toString().substring(1);
+          if (releaseVariants != null) {
+            int version = getReleaseVersion(name);
+            if (version > 0) {
+              // versioned variant, only the selected one is loaded and it takes the place of the base class
+              name = name.substring(name.indexOf('/', MULTI_RELEASE_PREFIX.length()) + 1);
+              if (!Integer.valueOf(version).equals(releaseVariants.get(name))) {
+                return FileVisitResult.CONTINUE;
+              }
+              internalPath = name;
+            }
+            else if (releaseVariants.containsKey(name)) {
+              return FileVisitResult.CONTINUE;
+            }
+          }
+          addClass(unit, name.substring(0, name.length() - 6), file.getAbsolutePath(), internalPath, isOwn, path);
         } else {
           if ("META-INF/MANIFEST.MF".equals(name)) {
             unit.setManifest(new Manifest(Files.newInputStream(path)));
@@ -182,17 +266,73 @@ public class StructContext implements Closeable {
       @Override
       public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
         String dirStr = dir.toString();
+        if (releaseVariants != null && getReleaseVersion(dirStr.substring(1) + "/") > release) {
+          return FileVisitResult.SKIP_SUBTREE;
+        }
         if (dirStr.length() > 1) unit.addDirEntry(dirStr.substring(1));
         return FileVisitResult.CONTINUE;
       }
     });
   }
 
+  // Maps every class overridden in a multi-release archive or directory to the highest version up to the given release
+  private static Map<String, Integer> getReleaseVariants(Path versions, int release) throws IOException {
+    Map<String, Integer> variants = new HashMap<>();
+    if (!Files.isDirectory(versions)) {
+      return variants;
+    }
+
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(versions)) {
+      for (Path dir : stream) {
+        int version = getReleaseVersion(MULTI_RELEASE_PREFIX + dir.getFileName().toString().replace("/", "") + "/");
+        if (version <= 0 || version > release) {
+          continue;
+        }
+
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) {
+            String name = dir.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+            if (name.endsWith(".class")) {
+              variants.merge(name, version, Math::max);
+            }
+            return FileVisitResult.CONTINUE;
+          }
+        });
+      }
+    }
+
+    return variants;
+  }
+
+  // Returns the release of an entry in META-INF/versions/<release>/, or 0 for any other entry
+  private static int getReleaseVersion(String name) {
+    if (!name.startsWith(MULTI_RELEASE_PREFIX)) {
+      return 0;
+    }
+
+    int end = name.indexOf('/', MULTI_RELEASE_PREFIX.length());
+    if (end <= MULTI_RELEASE_PREFIX.length()) {
+      return 0;
+    }
+
+    try {
+      return Integer.parseInt(name.substring(MULTI_RELEASE_PREFIX.length(), end));
+    }
+    catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
   private void addClass(ContextUnit unit, String name, String externalPath, String internalPath, boolean isOwn, Path path) {
-    addClass(name, isOwn, new ClassProvider(unit, externalPath, internalPath, isOwn, () -> Files.readAllBytes(path)));
+    addClass(unit, name, externalPath, internalPath, isOwn, () -> Files.readAllBytes(path));
   }
 
   private void addClass(ContextUnit unit, String name, String externalPath, String internalPath, boolean isOwn, ClassSupplier supplier) {
+    // filtered out classes are only loaded on demand, like library classes
+    if (isOwn && name != null && !name.isEmpty() && !filter.accepts(name)) {
+      isOwn = false;
+    }
     addClass(name, isOwn, new ClassProvider(unit, externalPath, internalPath, isOwn, supplier));
   }
 
@@ -211,7 +351,7 @@ public class StructContext implements Closeable {
 //    // TODO: change the name of the created .java file too
 
     classes.put(name, provider);
-    if (isOwn) ownClasses.put(name, provider.get());
+    if (isOwn && filter.accepts(name)) ownClasses.put(name, provider.get());
   }
 
   public void addData(String path, String cls, byte[] data, boolean isOwn) throws IOException {
@@ -224,6 +364,38 @@ public class StructContext implements Closeable {
     addClass(unit, cls.substring(0, cls.length() - 6), path, cls, isOwn, () -> data);
   }
 
+  /**
+   * Filter deciding which own classes are decompiled. It is consulted while classes are added, so it should be set up
+   * before any source is added to the context.
+   */
+  public ClassFilter getClassFilter() {
+    return filter;
+  }
+
+  ClassDeduplicator getDeduplicator() {
+    return deduplicator;
+  }
+
+  /**
+   * Pass metrics of all methods decompiled in this context, empty unless they are collected.
+   */
+  public PassMetrics getPassMetrics() {
+    return passMetrics;
+  }
+
+  /**
+   * Listeners notified about the progress of decompiling this context.
+   */
+  public DecompilationListeners getListeners() {
+    return listeners;
+  }
+
+  // size of the class file, -1 if it isn't kept in memory
+  long getClassFileSize(String name) {
+    LazyLoader.Link link = loader.getClassLink(name);
+    return link == null || link.data == null ? -1 : link.data.length;
+  }
+
   public Map<String, StructClass> getOwnClasses() {
     return ownClasses;
   }
@@ -276,6 +448,19 @@ public class StructContext implements Closeable {
     return null;
   }
 
+  public Map<String, Map<VarType, VarType>> getAllGenerics(StructClass cl) {
+    Map<String, Map<VarType, VarType>> ret = genericHierarchies.get(cl);
+    if (ret == null) {
+      // not computeIfAbsent: computing a hierarchy recursively resolves the hierarchies of its super types
+      ret = cl.computeAllGenerics(this);
+      Map<String, Map<VarType, VarType>> existing = genericHierarchies.putIfAbsent(cl, ret);
+      if (existing != null) {
+        ret = existing;
+      }
+    }
+    return ret;
+  }
+
   public void loadAbstractMetadata(String string) {
     for (String line : string.split("\n")) {
       String[] pts = line.split(" ");
@@ -335,12 +520,17 @@ public class StructContext implements Closeable {
         if (supplier == null) return value;
         try {
           DecompilerContext.getLogger().writeMessage("  Loading Class: " + internalPath, Severity.INFO);
+          JfrEvents.Recording event = JfrEvents.beginClassLoad(internalPath);
           byte[] data = supplier.get();
           StructClass cl = StructClass.create(new DataInputFullStream(data), own, loader);
           unit.addClass(cl, internalPath);
+          if (own && DecompilerContext.getOption(IFernflowerPreferences.DEDUPLICATE_CLASSES)) {
+            deduplicator.register(cl, data);
+          }
           loader.addClassLink(cl.qualifiedName, new LazyLoader.Link(externalPath, internalPath, data));
           value = cl;
           supplier = null;
+          event.commit();
           return cl;
         } catch (IOException ex) {
           String message = "Corrupted class file: " + internalPath;
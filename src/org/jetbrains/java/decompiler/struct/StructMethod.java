@@ -32,6 +32,16 @@ import static org.jetbrains.java.decompiler.code.CodeConstants.*;
   }
 */
 public class StructMethod extends StructMember {
+  // bytecode features found while expanding the method, see hasFeature
+  public static final int FEATURE_EXCEPTION_HANDLERS = 1;
+  public static final int FEATURE_SWITCH = 1 << 1;
+  public static final int FEATURE_MONITOR = 1 << 2;
+  public static final int FEATURE_JSR = 1 << 3;
+  public static final int FEATURE_INVOKEDYNAMIC = 1 << 4;
+  // a backward jump or switch target, a jsr or ret, or a handler that does not strictly follow its range
+  public static final int FEATURE_BACK_EDGES = 1 << 5;
+  public static final int FEATURE_BRANCHES = 1 << 6;
+
   public static StructMethod create(DataInputFullStream in, ConstantPool pool, String clQualifiedName, BytecodeVersion bytecodeVersion, boolean own) throws IOException {
     int accessFlags = in.readUnsignedShort();
     int nameIndex = in.readUnsignedShort();
@@ -68,6 +78,7 @@ public class StructMethod extends StructMember {
   private final byte[] codeAndExceptions;
   private InstructionSequence seq = null;
   private boolean expanded = false;
+  private int features = 0;
   private final String classQualifiedName;
   private final GenericMethodDescriptor signature;
   private IVariableNameProvider renamer;
@@ -105,6 +116,7 @@ public class StructMethod extends StructMember {
   public void releaseResources() {
     if (codeAndExceptions != null && expanded) {
       seq = null;
+      features = 0;
       expanded = false;
     }
   }
@@ -112,6 +124,7 @@ public class StructMethod extends StructMember {
   @SuppressWarnings("AssignmentToForLoopParameter")
   private InstructionSequence parseBytecode(DataInputFullStream in, ConstantPool pool) throws IOException {
     VBStyleCollection<Instruction, Integer> instructions = new VBStyleCollection<>();
+    int features = 0;
 
     int length = in.readInt();
     for (int i = 0; i < length; ) {
@@ -205,6 +218,7 @@ public class StructMethod extends StructMember {
               in.discard(2);
               group = GROUP_INVOCATION;
               i += 4;
+              features |= FEATURE_INVOKEDYNAMIC;
             }
             break;
           case opc_iload:
@@ -228,6 +242,7 @@ public class StructMethod extends StructMember {
             }
             if (opcode == opc_ret) {
               group = GROUP_RETURN;
+              features |= FEATURE_JSR | FEATURE_BACK_EDGES;
             }
             break;
           case opc_iinc:
@@ -278,6 +293,7 @@ public class StructMethod extends StructMember {
               i += 4;
             }
             group = GROUP_SWITCH;
+            features |= FEATURE_SWITCH;
 
             break;
           case opc_lookupswitch:
@@ -296,6 +312,7 @@ public class StructMethod extends StructMember {
               i += 4;
             }
             group = GROUP_SWITCH;
+            features |= FEATURE_SWITCH;
             break;
           case opc_ireturn:
           case opc_lreturn:
@@ -305,6 +322,32 @@ public class StructMethod extends StructMember {
           case opc_return:
           case opc_athrow:
             group = GROUP_RETURN;
+            break;
+          case opc_monitorenter:
+          case opc_monitorexit:
+            features |= FEATURE_MONITOR;
+        }
+      }
+
+      if (opcode == opc_jsr) {
+        features |= FEATURE_JSR | FEATURE_BACK_EDGES;
+      }
+      else if (group == GROUP_JUMP) {
+        features |= FEATURE_BRANCHES;
+        if (operands.get(0) <= 0) {
+          features |= FEATURE_BACK_EDGES;
+        }
+      }
+      else if (opcode == opc_tableswitch || opcode == opc_lookupswitch) {
+        // targets are the default, then every table entry or the second value of every pair
+        int step = opcode == opc_tableswitch ? 1 : 2;
+        if (operands.get(0) <= 0) {
+          features |= FEATURE_BACK_EDGES;
+        }
+        for (int j = 3; j < operands.size(); j += step) {
+          if (operands.get(j) <= 0) {
+            features |= FEATURE_BACK_EDGES;
+          }
         }
       }
 
@@ -339,7 +382,13 @@ public class StructMethod extends StructMember {
       }
 
       lstHandlers.add(handler);
+
+      features |= FEATURE_EXCEPTION_HANDLERS;
+      if (handler.handler < handler.to) {
+        features |= FEATURE_BACK_EDGES;
+      }
     }
+    this.features = features;
 
     InstructionSequence seq = new FullInstructionSequence(instructions, new ExceptionTable(lstHandlers));
 
@@ -382,6 +431,14 @@ public class StructMethod extends StructMember {
     return seq;
   }
 
+  /**
+   * Whether the bytecode of the method contains one of the given {@code FEATURE_*} flags. Only valid while the
+   * method is expanded, a method without features can skip the passes that only act on them.
+   */
+  public boolean hasFeature(int feature) {
+    return (features & feature) != 0;
+  }
+
   @Override
   protected BytecodeVersion getVersion() {
     return this.bytecodeVersion;
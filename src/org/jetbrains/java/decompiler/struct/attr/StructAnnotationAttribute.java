@@ -57,7 +57,7 @@ public class StructAnnotationAttribute extends StructGeneralAttribute {
       values = Collections.emptyList();
     }
 
-    return new AnnotationExprent(new VarType(className).value, names, values);
+    return new AnnotationExprent(VarType.of(className).value, names, values);
   }
 
   public static Exprent parseAnnotationElement(DataInputStream data, ConstantPool pool) throws IOException {
@@ -123,11 +123,11 @@ public class StructAnnotationAttribute extends StructGeneralAttribute {
 
         VarType newType;
         if (elements.isEmpty()) {
-          newType = new VarType(CodeConstants.TYPE_OBJECT, 1, "java/lang/Object");
+          newType = VarType.of(CodeConstants.TYPE_OBJECT, 1, "java/lang/Object");
         }
         else {
           VarType elementType = elements.get(0).getExprType();
-          newType = new VarType(elementType.type, 1, elementType.value);
+          newType = VarType.of(elementType.type, 1, elementType.value);
         }
 
         NewExprent newExpr = new NewExprent(newType, Collections.emptyList(), null);
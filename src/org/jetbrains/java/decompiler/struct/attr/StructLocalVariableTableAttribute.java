@@ -161,7 +161,7 @@ public class StructLocalVariableTableAttribute extends StructGeneralAttribute {
     }
 
     public VarType getVarType() {
-      return new VarType(descriptor);
+      return VarType.of(descriptor);
     }
     
     @Override
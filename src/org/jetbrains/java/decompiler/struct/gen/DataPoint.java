@@ -18,7 +18,7 @@ public class DataPoint {
   public void setVariable(int index, VarType value) {
     if (index >= localVariables.size()) {
       for (int i = localVariables.size(); i <= index; i++) {
-        localVariables.add(new VarType(CodeConstants.TYPE_NOTINITIALIZED));
+        localVariables.add(VarType.of(CodeConstants.TYPE_NOTINITIALIZED));
       }
     }
 
@@ -30,7 +30,7 @@ public class DataPoint {
       return localVariables.get(index);
     }
     else {
-      return new VarType(CodeConstants.TYPE_NOTINITIALIZED);
+      return VarType.of(CodeConstants.TYPE_NOTINITIALIZED);
     }
   }
 
@@ -49,7 +49,7 @@ public class DataPoint {
 
     int k = 0;
     if (!mt.hasModifier(CodeConstants.ACC_STATIC)) {
-      point.setVariable(k++, new VarType(CodeConstants.TYPE_OBJECT, 0, null));
+      point.setVariable(k++, VarType.of(CodeConstants.TYPE_OBJECT, 0, null));
     }
 
     for (int i = 0; i < md.params.length; i++) {
@@ -57,7 +57,7 @@ public class DataPoint {
 
       point.setVariable(k++, var);
       if (var.stackSize == 2) {
-        point.setVariable(k++, new VarType(CodeConstants.TYPE_GROUP2EMPTY));
+        point.setVariable(k++, VarType.of(CodeConstants.TYPE_GROUP2EMPTY));
       }
     }
 
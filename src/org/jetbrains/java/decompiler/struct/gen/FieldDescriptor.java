@@ -14,7 +14,7 @@ public final class FieldDescriptor {
   public final String descriptorString;
 
   private FieldDescriptor(String descriptor) {
-    type = new VarType(descriptor);
+    type = VarType.of(descriptor);
     descriptorString = descriptor;
   }
 
@@ -26,7 +26,7 @@ public final class FieldDescriptor {
     if (type.type == CodeConstants.TYPE_OBJECT) {
       String newClassName = builder.buildNewClassname(type.value);
       if (newClassName != null) {
-        return new VarType(type.type, type.arrayDim, newClassName).toString();
+        return VarType.of(type.type, type.arrayDim, newClassName).toString();
       }
     }
 
@@ -63,14 +63,14 @@ public final class MethodDescriptor {
 
       params = new VarType[lst.size()];
       for (int i = 0; i < lst.size(); i++) {
-        params[i] = new VarType(lst.get(i));
+        params[i] = VarType.of(lst.get(i));
       }
     }
     else {
       params = VarType.EMPTY_ARRAY;
     }
 
-    VarType ret = new VarType(descriptor.substring(parenth + 1));
+    VarType ret = VarType.of(descriptor.substring(parenth + 1));
 
     return new MethodDescriptor(params, ret, descriptor);
   }
@@ -151,7 +151,7 @@ public final class MethodDescriptor {
     if (type.type == CodeConstants.TYPE_OBJECT) {
       String newClassName = builder.buildNewClassname(type.value);
       if (newClassName != null) {
-        return new VarType(type.type, type.arrayDim, newClassName);
+        return VarType.of(type.type, type.arrayDim, newClassName);
       }
     }
     return null;
@@ -1,8 +1,10 @@
 // Copyright 2000-2017 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.jetbrains.java.decompiler.struct.gen;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jetbrains.java.decompiler.code.CodeConstants;
 import org.jetbrains.java.decompiler.struct.gen.generics.GenericType;
@@ -12,30 +14,42 @@ public class VarType {  // TODO: optimize switch
 
   public static final VarType[] EMPTY_ARRAY = {};
 
-  public static final VarType VARTYPE_UNKNOWN = new VarType(CodeConstants.TYPE_UNKNOWN);
-  public static final VarType VARTYPE_INT = new VarType(CodeConstants.TYPE_INT);
-  public static final VarType VARTYPE_FLOAT = new VarType(CodeConstants.TYPE_FLOAT);
-  public static final VarType VARTYPE_LONG = new VarType(CodeConstants.TYPE_LONG);
-  public static final VarType VARTYPE_DOUBLE = new VarType(CodeConstants.TYPE_DOUBLE);
-  public static final VarType VARTYPE_BYTE = new VarType(CodeConstants.TYPE_BYTE);
-  public static final VarType VARTYPE_CHAR = new VarType(CodeConstants.TYPE_CHAR);
-  public static final VarType VARTYPE_SHORT = new VarType(CodeConstants.TYPE_SHORT);
-  public static final VarType VARTYPE_BOOLEAN = new VarType(CodeConstants.TYPE_BOOLEAN);
-  public static final VarType VARTYPE_BYTECHAR = new VarType(CodeConstants.TYPE_BYTECHAR);
-  public static final VarType VARTYPE_SHORTCHAR = new VarType(CodeConstants.TYPE_SHORTCHAR);
-
-  public static final VarType VARTYPE_NULL = new VarType(CodeConstants.TYPE_NULL, 0, null);
-  public static final VarType VARTYPE_STRING = new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/String");
-  public static final VarType VARTYPE_CLASS = new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/Class");
-  public static final VarType VARTYPE_OBJECT = new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/Object");
-  public static final VarType VARTYPE_INTEGER = new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/Integer");
-  public static final VarType VARTYPE_CHARACTER = new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/Character");
-  public static final VarType VARTYPE_BYTE_OBJ = new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/Byte");
-  public static final VarType VARTYPE_SHORT_OBJ = new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/Short");
-  public static final VarType VARTYPE_BOOLEAN_OBJ = new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/Boolean");
-  public static final VarType VARTYPE_FLOAT_OBJ = new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/Float");
-  public static final VarType VARTYPE_DOUBLE_OBJ = new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/Double");
-  public static final VarType VARTYPE_VOID = new VarType(CodeConstants.TYPE_VOID);
+  // Canonical instances handed out by the of() factories. Plain VarTypes are immutable, so one instance per
+  // (type, arrayDim, value, falseBoolean) is enough; GenericTypes carry more state and are never interned.
+  // The constants below live in a permanent table. Everything else goes to a table that is dropped at the end of a
+  // decompilation and whenever it grows past MAX_INTERNED, so class names seen by earlier runs are not kept alive.
+  private static final int MAX_INTERNED = 1 << 16;
+  private static final InternTable PERMANENT = new InternTable();
+  private static volatile InternTable internTable = PERMANENT;
+
+  public static final VarType VARTYPE_UNKNOWN = of(CodeConstants.TYPE_UNKNOWN);
+  public static final VarType VARTYPE_INT = of(CodeConstants.TYPE_INT);
+  public static final VarType VARTYPE_FLOAT = of(CodeConstants.TYPE_FLOAT);
+  public static final VarType VARTYPE_LONG = of(CodeConstants.TYPE_LONG);
+  public static final VarType VARTYPE_DOUBLE = of(CodeConstants.TYPE_DOUBLE);
+  public static final VarType VARTYPE_BYTE = of(CodeConstants.TYPE_BYTE);
+  public static final VarType VARTYPE_CHAR = of(CodeConstants.TYPE_CHAR);
+  public static final VarType VARTYPE_SHORT = of(CodeConstants.TYPE_SHORT);
+  public static final VarType VARTYPE_BOOLEAN = of(CodeConstants.TYPE_BOOLEAN);
+  public static final VarType VARTYPE_BYTECHAR = of(CodeConstants.TYPE_BYTECHAR);
+  public static final VarType VARTYPE_SHORTCHAR = of(CodeConstants.TYPE_SHORTCHAR);
+
+  public static final VarType VARTYPE_NULL = of(CodeConstants.TYPE_NULL, 0, null);
+  public static final VarType VARTYPE_STRING = of(CodeConstants.TYPE_OBJECT, 0, "java/lang/String");
+  public static final VarType VARTYPE_CLASS = of(CodeConstants.TYPE_OBJECT, 0, "java/lang/Class");
+  public static final VarType VARTYPE_OBJECT = of(CodeConstants.TYPE_OBJECT, 0, "java/lang/Object");
+  public static final VarType VARTYPE_INTEGER = of(CodeConstants.TYPE_OBJECT, 0, "java/lang/Integer");
+  public static final VarType VARTYPE_CHARACTER = of(CodeConstants.TYPE_OBJECT, 0, "java/lang/Character");
+  public static final VarType VARTYPE_BYTE_OBJ = of(CodeConstants.TYPE_OBJECT, 0, "java/lang/Byte");
+  public static final VarType VARTYPE_SHORT_OBJ = of(CodeConstants.TYPE_OBJECT, 0, "java/lang/Short");
+  public static final VarType VARTYPE_BOOLEAN_OBJ = of(CodeConstants.TYPE_OBJECT, 0, "java/lang/Boolean");
+  public static final VarType VARTYPE_FLOAT_OBJ = of(CodeConstants.TYPE_OBJECT, 0, "java/lang/Float");
+  public static final VarType VARTYPE_DOUBLE_OBJ = of(CodeConstants.TYPE_OBJECT, 0, "java/lang/Double");
+  public static final VarType VARTYPE_VOID = of(CodeConstants.TYPE_VOID);
+
+  static {
+    internTable = new InternTable();
+  }
 
   public static final Map<VarType, VarType> UNBOXING_TYPES = new HashMap<>();
 
@@ -55,32 +69,62 @@ public class VarType {  // TODO: optimize switch
   public final int typeFamily;
   public final int stackSize;
   public final boolean falseBoolean;
-
+  // table holding this type if it is the canonical instance, null otherwise
+  private final InternTable owner;
+  // interned types only: lazily filled results of decreaseArrayDim and resizeArrayDim (indexed by dimension)
+  private volatile VarType decreased;
+  private volatile VarType[] resized;
+
+  /**
+   * Creates a type that is never canonical. Use {@link #of(int)} instead.
+   */
+  @Deprecated
   public VarType(int type) {
     this(type, 0);
   }
 
+  /**
+   * Creates a type that is never canonical. Use {@link #of(int, int)} instead.
+   */
+  @Deprecated
   public VarType(int type, int arrayDim) {
     this(type, arrayDim, getChar(type));
   }
 
+  /**
+   * Creates a type that is never canonical. Use {@link #of(int, int, String)} instead.
+   */
+  @Deprecated
   public VarType(int type, int arrayDim, String value) {
     this(type, arrayDim, value, getFamily(type, arrayDim), getStackSize(type, arrayDim), false);
   }
 
   protected VarType(int type, int arrayDim, String value, int typeFamily, int stackSize, boolean falseBoolean) {
+    this(type, arrayDim, value, typeFamily, stackSize, falseBoolean, null);
+  }
+
+  private VarType(int type, int arrayDim, String value, int typeFamily, int stackSize, boolean falseBoolean, InternTable owner) {
     this.type = type;
     this.arrayDim = arrayDim;
     this.value = value;
     this.typeFamily = typeFamily;
     this.stackSize = stackSize;
     this.falseBoolean = falseBoolean;
+    this.owner = owner;
   }
 
+  /**
+   * Creates a type that is never canonical. Use {@link #of(String)} instead.
+   */
+  @Deprecated
   public VarType(String signature) {
     this(signature, false);
   }
 
+  /**
+   * Creates a type that is never canonical. Use {@link #of(String, boolean)} instead.
+   */
+  @Deprecated
   public VarType(String signature, boolean clType) {
     int type = 0;
     int arrayDim = 0;
@@ -118,6 +162,72 @@ public class VarType {  // TODO: optimize switch
     this.typeFamily = getFamily(type, arrayDim);
     this.stackSize = getStackSize(type, arrayDim);
     this.falseBoolean = false;
+    this.owner = null;
+  }
+
+  public static VarType of(int type) {
+    return of(type, 0);
+  }
+
+  public static VarType of(int type, int arrayDim) {
+    return of(type, arrayDim, getChar(type));
+  }
+
+  public static VarType of(int type, int arrayDim, String value) {
+    return new VarType(type, arrayDim, value).intern();
+  }
+
+  public static VarType of(String signature) {
+    InternTable table = internTable;
+    VarType vt = table.signatures.get(signature);
+    if (vt == null) {
+      vt = new VarType(signature, false).intern();
+      table.signatures.putIfAbsent(signature, vt);
+    }
+    return vt;
+  }
+
+  public static VarType of(String signature, boolean clType) {
+    return clType ? new VarType(signature, true).intern() : of(signature);
+  }
+
+  /**
+   * Returns the canonical instance equal to this type, including its false boolean flag. Generic types, and types
+   * whose family or stack size was carried over from another array dimension, are returned as is.
+   * <p>
+   * Types returned by the {@code of} factories are usually canonical, but the tables are dropped between runs, so a
+   * type is only guaranteed to be the same instance as an equal one while a single decompilation runs. Compare types
+   * with {@link #equals}, which uses identity where it is safe.
+   */
+  public VarType intern() {
+    if (owner != null || getClass() != VarType.class ||
+        typeFamily != getFamily(type, arrayDim) || stackSize != getStackSize(type, arrayDim)) {
+      return this;
+    }
+
+    VarType vt = PERMANENT.get(this);
+    if (vt != null) {
+      return vt;
+    }
+
+    InternTable table = internTable;
+    vt = table.get(this);
+    if (vt == null) {
+      vt = table.add(new VarType(type, arrayDim, value, typeFamily, stackSize, falseBoolean, table));
+    }
+    return vt;
+  }
+
+  public boolean isInterned() {
+    return owner != null;
+  }
+
+  /**
+   * Drops the canonical instances of all but the predefined types. Types interned before stay valid, they are just
+   * no longer handed out.
+   */
+  public static void clearInternTables() {
+    internTable = new InternTable();
   }
 
   private static String getChar(int type) {
@@ -208,7 +318,15 @@ public class VarType {  // TODO: optimize switch
 
   public VarType decreaseArrayDim() {
     if (arrayDim > 0) {
-      return new VarType(type, arrayDim - 1, value);
+      if (owner == null) {
+        return of(type, arrayDim - 1, value);
+      }
+
+      VarType vt = decreased;
+      if (vt == null) {
+        decreased = vt = of(type, arrayDim - 1, value);
+      }
+      return vt;
     }
     else {
       //throw new RuntimeException("array dimension equals 0!"); FIXME: investigate this case
@@ -217,7 +335,25 @@ public class VarType {  // TODO: optimize switch
   }
 
   public VarType resizeArrayDim(int newArrayDim) {
-    return new VarType(type, newArrayDim, value, typeFamily, stackSize, falseBoolean);
+    if (owner == null) {
+      return new VarType(type, newArrayDim, value, typeFamily, stackSize, falseBoolean).intern();
+    }
+    else if (newArrayDim == arrayDim) {
+      return this;
+    }
+
+    VarType[] cache = resized;
+    if (cache != null && newArrayDim < cache.length && cache[newArrayDim] != null) {
+      return cache[newArrayDim];
+    }
+
+    VarType vt = new VarType(type, newArrayDim, value, typeFamily, stackSize, falseBoolean).intern();
+    if (newArrayDim >= 0 && newArrayDim <= 255) {
+      VarType[] newCache = cache == null ? new VarType[Math.max(4, newArrayDim + 1)] : Arrays.copyOf(cache, Math.max(cache.length, newArrayDim + 1));
+      newCache[newArrayDim] = vt;
+      resized = newCache;
+    }
+    return vt;
   }
 
   public VarType copy() {
@@ -225,7 +361,10 @@ public class VarType {  // TODO: optimize switch
   }
 
   public VarType copy(boolean forceFalseBoolean) {
-    return new VarType(type, arrayDim, value, typeFamily, stackSize, falseBoolean || forceFalseBoolean);
+    if (owner != null && (falseBoolean || !forceFalseBoolean)) {
+      return this;
+    }
+    return new VarType(type, arrayDim, value, typeFamily, stackSize, falseBoolean || forceFalseBoolean).intern();
   }
 
   public boolean isFalseBoolean() {
@@ -298,9 +437,19 @@ public class VarType {  // TODO: optimize switch
     }
 
     VarType vt = (VarType)o;
+    if (isDistinctCanonical(vt)) {
+      return false;
+    }
     return type == vt.type && arrayDim == vt.arrayDim && InterpreterUtil.equalObjects(value, vt.value);
   }
 
+  // Two canonical instances of the same table are different types, unless they only differ in the false boolean flag.
+  // Keys of the permanent table are never added to another one, so its instances are distinct from all canonical ones.
+  private boolean isDistinctCanonical(VarType vt) {
+    return owner != null && vt.owner != null && falseBoolean == vt.falseBoolean &&
+           (owner == vt.owner || owner == PERMANENT || vt.owner == PERMANENT);
+  }
+
   @Override
   public String toString() {
     StringBuilder res = new StringBuilder();
@@ -446,4 +595,27 @@ public class VarType {  // TODO: optimize switch
     }
     return this;
   }
+
+  private static final class InternTable {
+    private final Map<VarType, VarType> types = new ConcurrentHashMap<>();
+    private final Map<VarType, VarType> falseBooleanTypes = new ConcurrentHashMap<>();
+    private final Map<String, VarType> signatures = new ConcurrentHashMap<>();
+
+    VarType get(VarType vt) {
+      return (vt.falseBoolean ? falseBooleanTypes : types).get(vt);
+    }
+
+    VarType add(VarType canonical) {
+      Map<VarType, VarType> map = canonical.falseBoolean ? falseBooleanTypes : types;
+      VarType vt = map.putIfAbsent(canonical, canonical);
+      if (vt != null) {
+        return vt;
+      }
+
+      if (this != PERMANENT && map.size() > MAX_INTERNED && internTable == this) {
+        internTable = new InternTable();
+      }
+      return canonical;
+    }
+  }
 }
@@ -125,14 +125,14 @@ public class GenericType extends VarType {
     }
     else if (type == CodeConstants.TYPE_OBJECT) {
       if (parent == null && params == null && wildcard == WILDCARD_NO) {
-        return new VarType(type, arrayDim, value);
+        return VarType.of(type, arrayDim, value);
       }
       else {
         return new GenericType(type, arrayDim, value, parent, params, wildcard);
       }
     }
     else {
-      return new VarType(type, arrayDim, value);
+      return VarType.of(type, arrayDim, value);
     }
   }
 
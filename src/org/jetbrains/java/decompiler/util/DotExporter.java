@@ -449,7 +449,7 @@ public class DotExporter {
     return buffer.toString();
   }
 
-  private static String digraphToDot(DirectGraph graph, Map<String, SFormsFastMapDirect> vars) {
+  private static String digraphToDot(DirectGraph graph, SFormsFastMapDirect[] vars) {
 
     StringBuffer buffer = new StringBuffer();
 
@@ -467,8 +467,8 @@ public class DotExporter {
         label.append("\\n");
         label.append(buf.convertToStringAndAllowDataDiscard());
       }
-      if (vars != null && vars.containsKey(block.id)) {
-        SFormsFastMapDirect map = vars.get(block.id);
+      if (vars != null && vars[block.index] != null) {
+        SFormsFastMapDirect map = vars[block.index];
 
         List<Entry<Integer, FastSparseSet<Integer>>> lst = map.entryList();
         if (lst != null) {
@@ -519,7 +519,7 @@ public class DotExporter {
     toDotFile(dgraph, mt, suffix, null);
   }
 
-  public static void toDotFile(DirectGraph dgraph, StructMethod mt, String suffix, Map<String, SFormsFastMapDirect> vars) {
+  public static void toDotFile(DirectGraph dgraph, StructMethod mt, String suffix, SFormsFastMapDirect[] vars) {
     if (!DUMP_DOTS)
       return;
     try{
@@ -73,16 +73,17 @@ public class FastSparseSetFactory<E> {
 
     private final VBStyleCollection<int[], E> colValuesInternal;
 
+    // Most sets (e.g. variable versions) hold at most one element. Such sets keep it inline as a block and mask and only
+    // allocate the block arrays once a second element is added. A null data array marks this compact form.
     private int[] data;
     private int[] next;
 
+    private int singleBlock;
+    private int singleMask; // 0 if the compact set is empty
+
     private FastSparseSet(FastSparseSetFactory<E> factory) {
       this.factory = factory;
       this.colValuesInternal = factory.getInternalValuesCollection();
-
-      int length = factory.getLastBlock() + 1;
-      this.data = new int[length];
-      this.next = new int[length];
     }
 
     private FastSparseSet(FastSparseSetFactory<E> factory, int[] data, int[] next) {
@@ -94,6 +95,13 @@ public class FastSparseSetFactory<E> {
     }
 
     public FastSparseSet<E> getCopy() {
+      if (data == null) {
+        FastSparseSet<E> copy = new FastSparseSet<>(factory);
+        copy.singleBlock = singleBlock;
+        copy.singleMask = singleMask;
+        return copy;
+      }
+
       int[] newData = new int[this.data.length];
       int[] newNext = new int[this.next.length];
       System.arraycopy(this.data, 0, newData, 0, newData.length);
@@ -119,6 +127,30 @@ public class FastSparseSetFactory<E> {
       return data;
     }
 
+    // switches from the compact form to the block arrays
+    private void inflate(int minLength) {
+      int length = Math.max(factory.getLastBlock() + 1, minLength);
+      if (singleMask != 0 && singleBlock >= length) {
+        length = singleBlock + 1;
+      }
+
+      data = new int[length];
+      next = new int[length];
+
+      if (singleMask != 0) {
+        data[singleBlock] = singleMask;
+        changeNext(next, singleBlock, 0, singleBlock);
+        singleMask = 0;
+      }
+    }
+
+    private void compact(int block, int mask) {
+      data = null;
+      next = null;
+      singleBlock = block;
+      singleMask = mask;
+    }
+
     public void add(E element) {
       int[] index = colValuesInternal.getWithKey(element);
 
@@ -126,12 +158,25 @@ public class FastSparseSetFactory<E> {
         index = factory.addElement(element);
       }
 
-      int block = index[0];
+      add(index[0], index[1]);
+    }
+
+    private void add(int block, int mask) {
+      if (data == null) {
+        if (singleMask == 0 || (singleBlock == block && singleMask == mask)) {
+          singleBlock = block;
+          singleMask = mask;
+          return;
+        }
+
+        inflate(block + 1);
+      }
+
       if (block >= data.length) {
         ensureCapacity(block);
       }
 
-      data[block] |= index[1];
+      data[block] |= mask;
 
       changeNext(next, block, next[block], block);
     }
@@ -143,9 +188,19 @@ public class FastSparseSetFactory<E> {
         index = factory.addElement(element);
       }
 
-      int block = index[0];
+      remove(index[0], index[1]);
+    }
+
+    private void remove(int block, int mask) {
+      if (data == null) {
+        if (contains(block, mask)) {
+          singleMask = 0;
+        }
+        return;
+      }
+
       if (block < data.length) {
-        data[block] &= ~index[1];
+        data[block] &= ~mask;
 
         if (data[block] == 0) {
           changeNext(next, block, block, next[block]);
@@ -160,7 +215,15 @@ public class FastSparseSetFactory<E> {
         index = factory.addElement(element);
       }
 
-      return index[0] < data.length && ((data[index[0]] & index[1]) != 0);
+      return contains(index[0], index[1]);
+    }
+
+    private boolean contains(int block, int mask) {
+      if (data == null) {
+        return singleBlock == block && (singleMask & mask) != 0;
+      }
+
+      return block < data.length && ((data[block] & mask) != 0);
     }
 
     private void setNext() {
@@ -187,8 +250,19 @@ public class FastSparseSetFactory<E> {
 
     public void union(FastSparseSet<E> set) {
 
-      int[] extdata = set.getData();
-      int[] extnext = set.getNext();
+      if (set.data == null) {
+        if (set.singleMask != 0) {
+          add(set.singleBlock, set.singleMask);
+        }
+        return;
+      }
+
+      if (data == null) {
+        inflate(set.data.length);
+      }
+
+      int[] extdata = set.data;
+      int[] extnext = set.next;
       int[] intdata = data;
       int intlength = intdata.length;
 
@@ -211,7 +285,21 @@ public class FastSparseSetFactory<E> {
     }
 
     public void intersection(FastSparseSet<E> set) {
-      int[] extdata = set.getData();
+
+      if (data == null) {
+        if (singleMask != 0 && !set.contains(singleBlock, singleMask)) {
+          singleMask = 0;
+        }
+        return;
+      }
+
+      if (set.data == null) {
+        boolean keep = set.singleMask != 0 && contains(set.singleBlock, set.singleMask);
+        compact(set.singleBlock, keep ? set.singleMask : 0);
+        return;
+      }
+
+      int[] extdata = set.data;
       int[] intdata = data;
 
       int minlength = Math.min(extdata.length, intdata.length);
@@ -229,7 +317,21 @@ public class FastSparseSetFactory<E> {
 
     public void complement(FastSparseSet<E> set) {
 
-      int[] extdata = set.getData();
+      if (set.data == null) {
+        if (set.singleMask != 0) {
+          remove(set.singleBlock, set.singleMask);
+        }
+        return;
+      }
+
+      if (data == null) {
+        if (singleMask != 0 && set.contains(singleBlock, singleMask)) {
+          singleMask = 0;
+        }
+        return;
+      }
+
+      int[] extdata = set.data;
       int[] intdata = data;
       int extlength = extdata.length;
 
@@ -254,7 +356,16 @@ public class FastSparseSetFactory<E> {
       if (o == this) return true;
       if (!(o instanceof FastSparseSet)) return false;
 
-      int[] longdata = ((FastSparseSet)o).getData();
+      FastSparseSet<?> set = (FastSparseSet<?>)o;
+
+      if (data == null) {
+        return set.containsOnly(singleBlock, singleMask);
+      }
+      else if (set.data == null) {
+        return containsOnly(set.singleBlock, set.singleMask);
+      }
+
+      int[] longdata = set.data;
       int[] shortdata = data;
 
       if (data.length > longdata.length) {
@@ -277,8 +388,31 @@ public class FastSparseSetFactory<E> {
       return true;
     }
 
+    // whether this set holds exactly the given element, or nothing if the mask is 0
+    private boolean containsOnly(int block, int mask) {
+      if (data == null) {
+        return singleMask == mask && (mask == 0 || singleBlock == block);
+      }
+
+      if (mask != 0 && block >= data.length) {
+        return false;
+      }
+
+      for (int i = data.length - 1; i >= 0; i--) {
+        if (data[i] != (i == block ? mask : 0)) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
     public int getCardinality() {
 
+      if (data == null) {
+        return singleMask != 0 ? 1 : 0;
+      }
+
       boolean found = false;
       int[] intdata = data;
 
@@ -303,6 +437,10 @@ public class FastSparseSetFactory<E> {
     }
 
     public boolean isEmpty() {
+      if (data == null) {
+        return singleMask == 0;
+      }
+
       return data.length == 0 || (next[0] == 0 && data[0] == 0);
     }
 
@@ -314,6 +452,13 @@ public class FastSparseSetFactory<E> {
     public Set<E> toPlainSet() {
       HashSet<E> set = new HashSet<>();
 
+      if (data == null) {
+        if (singleMask != 0) {
+          set.add(colValuesInternal.getKey((singleBlock << 5) + Integer.numberOfTrailingZeros(singleMask)));
+        }
+        return set;
+      }
+
       int[] intdata = data;
 
       int size = data.length * 32;
@@ -336,14 +481,6 @@ public class FastSparseSetFactory<E> {
       return toPlainSet().toString();
     }
 
-    private int[] getData() {
-      return data;
-    }
-
-    private int[] getNext() {
-      return next;
-    }
-
     public FastSparseSetFactory<E> getFactory() {
       return factory;
     }
@@ -351,24 +488,33 @@ public class FastSparseSetFactory<E> {
 
   public static final class FastSparseSetIterator<E> implements Iterator<E> {
 
+    private final FastSparseSet<E> set;
     private final VBStyleCollection<int[], E> colValuesInternal;
     private final int[] data;
     private final int[] next;
+    private final int single; // element index of a compact set, -1 if it is empty
     private final int size;
 
     private int pointer = -1;
     private int next_pointer = -1;
 
     private FastSparseSetIterator(FastSparseSet<E> set) {
+      this.set = set;
       colValuesInternal = set.getFactory().getInternalValuesCollection();
-      data = set.getData();
-      next = set.getNext();
+      data = set.data;
+      next = set.next;
+      single = set.singleMask != 0 ? (set.singleBlock << 5) + Integer.numberOfTrailingZeros(set.singleMask) : -1;
       size = colValuesInternal.size();
     }
 
     private int getNextIndex(int index) {
 
       index++;
+
+      if (data == null) {
+        return single >= index ? single : -1;
+      }
+
       int bindex = index >>> 5;
       int dindex = index & 0x1F;
 
@@ -422,8 +568,12 @@ public class FastSparseSetFactory<E> {
     @Override
     public void remove() {
       int[] index = colValuesInternal.get(pointer);
-      data[index[0]] &= ~index[1];
+      if (data == null) {
+        set.remove(index[0], index[1]);
+      }
+      else {
+        data[index[0]] &= ~index[1];
+      }
     }
   }
 }
-
@@ -0,0 +1,43 @@
+// Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.java.decompiler.util;
+
+/**
+ * Java Flight Recorder events for loading and writing classes, decompiling methods, the passes of the method pipeline
+ * and saving results. Flight Recorder events need Java 11, so this version does nothing; the multi-release jar carries
+ * the version that emits them. Events are only created while a recording has them enabled.
+ */
+public final class JfrEvents {
+  public interface Recording {
+    void commit();
+  }
+
+  public interface PassRecording {
+    /**
+     * Ends the current pass under the given name and starts the next one.
+     */
+    void mark(String pass);
+  }
+
+  private static final Recording NONE = () -> { };
+  private static final PassRecording NO_PASSES = pass -> { };
+
+  public static Recording beginClassLoad(String className) {
+    return NONE;
+  }
+
+  public static Recording beginClassWrite(String className) {
+    return NONE;
+  }
+
+  public static Recording beginMethod(String className, String methodName, String descriptor) {
+    return NONE;
+  }
+
+  public static PassRecording beginPasses(String className, String methodName, String descriptor) {
+    return NO_PASSES;
+  }
+
+  public static Recording beginSave(String path, String entryName) {
+    return NONE;
+  }
+}
@@ -20,6 +20,9 @@ public class SFormsFastMapDirect {
 
   private final int[][] next = new int[3][];
 
+  // segments whose arrays are still shared with the map this one was forked from, or with a fork of this one
+  private final boolean[] shared = new boolean[3];
+
   public SFormsFastMapDirect() {
     this(true);
   }
@@ -34,22 +37,27 @@ public class SFormsFastMapDirect {
     }
   }
 
+  // Forks the map, sharing the contained sets. The segment arrays are shared as well and only copied by whichever of
+  // the two maps changes them first.
   public SFormsFastMapDirect(SFormsFastMapDirect map) {
     for (int i = 2; i >= 0; i--) {
-      FastSparseSet<Integer>[] arr = map.elements[i];
-      int[] arrnext = map.next[i];
-
-      int length = arr.length;
-      @SuppressWarnings("unchecked") FastSparseSet<Integer>[] arrnew = new FastSparseSet[length];
-      int[] arrnextnew = new int[length];
+      elements[i] = map.elements[i];
+      next[i] = map.next[i];
 
-      System.arraycopy(arr, 0, arrnew, 0, length);
-      System.arraycopy(arrnext, 0, arrnextnew, 0, length);
+      if (elements[i].length > 0) {
+        shared[i] = true;
+        map.shared[i] = true;
+      }
+    }
 
-      elements[i] = arrnew;
-      next[i] = arrnextnew;
+    size = map.size;
+  }
 
-      size = map.size;
+  private void own(int index) {
+    if (shared[index]) {
+      elements[index] = elements[index].clone();
+      next[index] = next[index].clone();
+      shared[index] = false;
     }
   }
 
@@ -110,6 +118,8 @@ public class SFormsFastMapDirect {
   }
 
   public void removeAllFields() {
+    own(2);
+
     FastSparseSet<Integer>[] arr = elements[2];
     int[] arrnext = next[2];
 
@@ -142,6 +152,14 @@ public class SFormsFastMapDirect {
         arr = ensureCapacity(index, ikey + 1, false);
       }
     }
+    else {
+      if (remove && arr[ikey] == null) {
+        return;
+      }
+
+      own(index);
+      arr = elements[index];
+    }
 
     FastSparseSet<Integer> oldval = arr[ikey];
     arr[ikey] = value;
@@ -194,12 +212,13 @@ public class SFormsFastMapDirect {
   public void complement(SFormsFastMapDirect map) {
 
     for (int i = 2; i >= 0; i--) {
-      FastSparseSet<Integer>[] lstOwn = elements[i];
-
-      if (lstOwn.length == 0) {
+      if (elements[i].length == 0) {
         continue;
       }
 
+      own(i);
+      FastSparseSet<Integer>[] lstOwn = elements[i];
+
       FastSparseSet<Integer>[] lstExtern = map.elements[i];
       int[] arrnext = next[i];
 
@@ -232,12 +251,13 @@ public class SFormsFastMapDirect {
   public void intersection(SFormsFastMapDirect map) {
 
     for (int i = 2; i >= 0; i--) {
-      FastSparseSet<Integer>[] lstOwn = elements[i];
-
-      if (lstOwn.length == 0) {
+      if (elements[i].length == 0) {
         continue;
       }
 
+      own(i);
+      FastSparseSet<Integer>[] lstOwn = elements[i];
+
       FastSparseSet<Integer>[] lstExtern = map.elements[i];
       int[] arrnext = next[i];
 
@@ -277,6 +297,7 @@ public class SFormsFastMapDirect {
         continue;
       }
 
+      own(i);
       FastSparseSet<Integer>[] lstOwn = elements[i];
       int[] arrnext = next[i];
       int[] arrnextExtern = map.next[i];
@@ -389,6 +410,7 @@ public class SFormsFastMapDirect {
 
     elements[index] = arrnew;
     next[index] = arrnextnew;
+    shared[index] = false;
 
     return arrnew;
   }
@@ -0,0 +1,154 @@
+package org.jetbrains.java.decompiler;
+
+import org.jetbrains.java.decompiler.main.decompiler.AsyncPrintStreamLogger;
+import org.jetbrains.java.decompiler.main.decompiler.AsyncPrintStreamLogger.OverflowPolicy;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger.Severity;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncPrintStreamLoggerTest {
+  private static final String INFO = Severity.INFO.prefix;
+
+  private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+  @Test
+  public void testOrderPerThread() throws Exception {
+    AsyncPrintStreamLogger logger = new AsyncPrintStreamLogger(newStream(bytes), 16, OverflowPolicy.BLOCK);
+    runThreads(logger, 4, 2000, null);
+    logger.close();
+
+    assertThreadMessages(getLines(), 4, 2000);
+  }
+
+  @Test
+  public void testFlushOnClose() throws Exception {
+    AsyncPrintStreamLogger logger = new AsyncPrintStreamLogger(newStream(bytes));
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      logger.writeMessage("message " + i, Severity.INFO);
+      expected.add(INFO + "message " + i);
+    }
+    logger.writeMessage("filtered", Severity.TRACE);
+    logger.close();
+    assertEquals(expected, getLines());
+
+    // written directly once closed
+    logger.writeMessage("late", Severity.WARN);
+    expected.add(Severity.WARN.prefix + "late");
+    assertEquals(expected, getLines());
+  }
+
+  @Test
+  public void testCloseWhileLogging() throws Exception {
+    AsyncPrintStreamLogger logger = new AsyncPrintStreamLogger(newStream(bytes), 8, OverflowPolicy.BLOCK);
+    CountDownLatch started = new CountDownLatch(8);
+    Thread closer = new Thread(() -> {
+      try {
+        started.await();
+      }
+      catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      logger.close();
+    });
+    closer.start();
+
+    runThreads(logger, 8, 1000, started);
+    closer.join();
+
+    // nothing claimed before the close is lost, and every thread keeps its order across it
+    assertThreadMessages(getLines(), 8, 1000);
+  }
+
+  @Test
+  public void testDropCount() throws Exception {
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    OutputStream blocking = new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        write(new byte[]{(byte)b}, 0, 1);
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        entered.countDown();
+        try {
+          release.await();
+        }
+        catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+        bytes.write(b, off, len);
+      }
+    };
+
+    AsyncPrintStreamLogger logger = new AsyncPrintStreamLogger(newStream(blocking), 4, OverflowPolicy.DROP);
+    logger.writeMessage("first", Severity.INFO);
+    entered.await();
+
+    // the writer is stuck on the first message, so the buffer takes four more and the rest is dropped
+    for (int i = 0; i < 100; i++) {
+      logger.writeMessage("message " + i, Severity.INFO);
+    }
+    release.countDown();
+    logger.close();
+
+    List<String> expected = new ArrayList<>(Arrays.asList(INFO + "first", INFO + "message 0", INFO + "message 1",
+                                                          INFO + "message 2", INFO + "message 3"));
+    expected.add(Severity.WARN.prefix + "96 log messages dropped, the log buffer was full");
+    assertEquals(expected, getLines());
+  }
+
+  // every thread logs its messages numbered from 0
+  private static void runThreads(AsyncPrintStreamLogger logger, int count, int messages, CountDownLatch started)
+    throws InterruptedException {
+    Thread[] threads = new Thread[count];
+    for (int t = 0; t < count; t++) {
+      int thread = t;
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < messages; i++) {
+          logger.writeMessage(thread + " " + i, Severity.INFO);
+          if (i == messages / 10 && started != null) {
+            started.countDown();
+          }
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+  }
+
+  private static void assertThreadMessages(List<String> lines, int count, int messages) {
+    assertEquals(count * messages, lines.size());
+    int[] next = new int[count];
+    for (String line : lines) {
+      assertTrue(line.startsWith(INFO), line);
+      String[] parts = line.substring(INFO.length()).split(" ");
+      int thread = Integer.parseInt(parts[0]);
+      assertEquals(next[thread]++, Integer.parseInt(parts[1]), line);
+    }
+  }
+
+  private static PrintStream newStream(OutputStream out) throws UnsupportedEncodingException {
+    return new PrintStream(out, false, "UTF-8");
+  }
+
+  private List<String> getLines() throws UnsupportedEncodingException {
+    String text = bytes.toString("UTF-8");
+    return text.isEmpty() ? new ArrayList<>() : new ArrayList<>(Arrays.asList(text.split(System.lineSeparator())));
+  }
+}
@@ -0,0 +1,150 @@
+package org.jetbrains.java.decompiler;
+
+import org.jetbrains.java.decompiler.main.decompiler.BaseDecompiler;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.jetbrains.java.decompiler.main.extern.IResultSaver;
+import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ClassDeduplicationTest {
+  private DecompilerTestFixture fixture;
+  private byte[] mainClass;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    fixture = new DecompilerTestFixture();
+    fixture.setUp();
+
+    try (ZipFile zip = new ZipFile(fixture.getTestDataDir().resolve("bulk.jar").toFile())) {
+      mainClass = InterpreterUtil.getBytes(zip, zip.getEntry("pkg/Main.class"));
+    }
+  }
+
+  @AfterEach
+  public void tearDown() {
+    fixture.tearDown();
+    fixture = null;
+  }
+
+  @Test
+  public void testIdenticalCopiesDecompiledOnce() throws IOException {
+    Result result = decompile("1", mainClass, mainClass);
+
+    assertEquals(Collections.singletonList("pkg/Main"), result.decompiled);
+    assertEquals(2, result.saved.size());
+    assertEquals(result.saved.get("a.jar"), result.saved.get("b.jar"));
+  }
+
+  @Test
+  public void testDifferentBytesDecompiledSeparately() throws IOException {
+    byte[] changed = mainClass.clone();
+    changed[5]++; // minor version
+
+    Result result = decompile("1", mainClass, changed);
+
+    assertEquals(Arrays.asList("pkg/Main", "pkg/Main"), result.decompiled);
+    assertEquals(2, result.saved.size());
+  }
+
+  @Test
+  public void testCopiesDecompiledWithoutOption() throws IOException {
+    Result result = decompile("0", mainClass, mainClass);
+
+    assertEquals(Arrays.asList("pkg/Main", "pkg/Main"), result.decompiled);
+    assertEquals(result.saved.get("a.jar"), result.saved.get("b.jar"));
+  }
+
+  // decompiles one archive per copy of pkg/Main, named a.jar, b.jar, ...
+  private Result decompile(String deduplicate, byte[]... copies) throws IOException {
+    Result result = new Result();
+
+    Map<String, Object> options = new HashMap<>();
+    options.put(IFernflowerPreferences.LOG_LEVEL, "warn");
+    options.put(IFernflowerPreferences.DEDUPLICATE_CLASSES, deduplicate);
+
+    BaseDecompiler decompiler = new BaseDecompiler((externalPath, internalPath) -> {
+      throw new IOException("Unexpected read of " + externalPath);
+    }, result, options, result);
+
+    for (int i = 0; i < copies.length; i++) {
+      Path archive = fixture.getTempDir().resolve((char)('a' + i) + ".jar");
+      try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive.toFile()))) {
+        out.putNextEntry(new ZipEntry("pkg/Main.class"));
+        out.write(copies[i]);
+        out.closeEntry();
+      }
+      decompiler.addSource(archive.toFile());
+    }
+
+    decompiler.decompileContext();
+    Collections.sort(result.decompiled);
+    return result;
+  }
+
+  private static final class Result extends IFernflowerLogger implements IResultSaver {
+    private final List<String> decompiled = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, String> saved = Collections.synchronizedMap(new HashMap<>());
+
+    @Override
+    public void startReadingClass(String className) {
+      decompiled.add(className);
+    }
+
+    @Override
+    public void writeMessage(String message, Severity severity) {
+      if (accepts(severity)) {
+        System.out.println(severity.prefix + message);
+      }
+    }
+
+    @Override
+    public void writeMessage(String message, Severity severity, Throwable t) {
+      writeMessage(message, severity);
+      if (accepts(severity)) {
+        t.printStackTrace(System.out);
+      }
+    }
+
+    @Override
+    public void saveClassEntry(String path, String archiveName, String qualifiedName, String entryName, String content) {
+      saved.put(archiveName, content);
+    }
+
+    @Override
+    public void saveFolder(String path) { }
+
+    @Override
+    public void copyFile(String source, String path, String entryName) { }
+
+    @Override
+    public void saveClassFile(String path, String qualifiedName, String entryName, String content, int[] mapping) { }
+
+    @Override
+    public void createArchive(String path, String archiveName, Manifest manifest) { }
+
+    @Override
+    public void saveDirEntry(String path, String archiveName, String entryName) { }
+
+    @Override
+    public void copyEntry(String source, String path, String archiveName, String entry) { }
+
+    @Override
+    public void closeArchive(String path, String archiveName) { }
+  }
+}
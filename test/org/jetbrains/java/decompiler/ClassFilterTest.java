@@ -0,0 +1,190 @@
+package org.jetbrains.java.decompiler;
+
+import org.jetbrains.java.decompiler.main.decompiler.ConsoleDecompiler;
+import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ClassFilterTest {
+  private static final String MAIN = "pkg/Main";
+  private static final String LOADER = "pkg/res/Loader";
+  private static final String NESTED = "pkg/TestInnerClassConstructor";
+
+  private DecompilerTestFixture fixture;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    fixture = new DecompilerTestFixture();
+    fixture.setUp();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    fixture.tearDown();
+    fixture = null;
+  }
+
+  @Test
+  public void testOnlyExact() throws IOException {
+    Map<String, String> sources = decompile(Collections.singletonList(NESTED), Collections.emptyList());
+    assertEquals(Collections.singleton(NESTED), sources.keySet());
+    assertNestedClasses(sources.get(NESTED));
+  }
+
+  @Test
+  public void testOnlyPrefix() throws IOException {
+    Map<String, String> sources = decompile(Collections.singletonList("pkg/res/"), Collections.emptyList());
+    assertEquals(Collections.singleton(LOADER), sources.keySet());
+  }
+
+  @Test
+  public void testOnlyWithinPackage() throws IOException {
+    Map<String, String> sources = decompile(Collections.singletonList("pkg/*"), Collections.emptyList());
+    assertEquals(new HashSet<>(Arrays.asList(MAIN, NESTED)), sources.keySet());
+    assertNestedClasses(sources.get(NESTED));
+  }
+
+  @Test
+  public void testOnlyOutermostGlob() throws IOException {
+    // the nested classes are named pkg/TestInnerClassConstructor$Inner etc. and follow their outermost class
+    Map<String, String> sources = decompile(Collections.singletonList("pkg/*Constructor"), Collections.emptyList());
+    assertEquals(Collections.singleton(NESTED), sources.keySet());
+    assertNestedClasses(sources.get(NESTED));
+  }
+
+  @Test
+  public void testOnlyAcrossPackages() throws IOException {
+    Map<String, String> sources = decompile(Collections.singletonList("**/*"), Collections.emptyList());
+    assertEquals(new HashSet<>(Arrays.asList(MAIN, LOADER, NESTED)), sources.keySet());
+    assertNestedClasses(sources.get(NESTED));
+  }
+
+  @Test
+  public void testExcludeExact() throws IOException {
+    Map<String, String> sources = decompile(Collections.emptyList(), Collections.singletonList(NESTED));
+    assertEquals(new HashSet<>(Arrays.asList(MAIN, LOADER)), sources.keySet());
+  }
+
+  @Test
+  public void testExcludeWithinPackage() throws IOException {
+    Map<String, String> sources = decompile(Collections.emptyList(), Collections.singletonList("pkg/*Constructor"));
+    assertEquals(new HashSet<>(Arrays.asList(MAIN, LOADER)), sources.keySet());
+  }
+
+  @Test
+  public void testExcludeAcrossPackages() throws IOException {
+    Map<String, String> sources = decompile(Collections.emptyList(), Collections.singletonList("**/Loader"));
+    assertEquals(new HashSet<>(Arrays.asList(MAIN, NESTED)), sources.keySet());
+    assertNestedClasses(sources.get(NESTED));
+  }
+
+  @Test
+  public void testOnlyAndExclude() throws IOException {
+    Map<String, String> sources = decompile(Collections.singletonList("pkg/**"), Collections.singletonList("pkg/Main"));
+    assertEquals(new HashSet<>(Arrays.asList(LOADER, NESTED)), sources.keySet());
+  }
+
+  @Test
+  public void testDirectory() throws IOException {
+    Path dir = fixture.getTempDir().resolve("classes");
+    copyClasses((name, data) -> {
+      Path file = dir.resolve(name + ".class");
+      Files.createDirectories(file.getParent());
+      Files.write(file, data);
+    });
+    // rejected classes are only read when they are referenced, so this one is never parsed
+    Files.write(dir.resolve("pkg/res/Broken.class"), new byte[]{1, 2, 3});
+
+    ConsoleDecompiler decompiler = fixture.getDecompiler();
+    decompiler.addWhitelist("pkg/*");
+    decompiler.addBlacklist("pkg/Main");
+    decompiler.addSource(dir.toFile());
+    decompiler.decompileContext();
+
+    Set<String> sources = new HashSet<>();
+    try (Stream<Path> files = Files.walk(fixture.getTargetDir())) {
+      files.filter(file -> file.toString().endsWith(".java")).forEach(file -> {
+        String name = fixture.getTargetDir().relativize(file).toString().replace(File.separatorChar, '/');
+        sources.add(name.substring(0, name.length() - 5));
+      });
+    }
+    assertEquals(Collections.singleton(NESTED), sources);
+    assertNestedClasses(new String(Files.readAllBytes(fixture.getTargetDir().resolve(NESTED + ".java")), StandardCharsets.UTF_8));
+  }
+
+  private static void assertNestedClasses(String source) {
+    assertThat(source, containsString("class Another"));
+    assertThat(source, containsString("class Inner"));
+  }
+
+  // decompiles a jar with pkg/Main, pkg/res/Loader and pkg/TestInnerClassConstructor along with its member and
+  // anonymous classes, returns the saved sources by class name
+  private Map<String, String> decompile(List<String> only, List<String> exclude) throws IOException {
+    Path archive = fixture.getTempDir().resolve("filtered.jar");
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive.toFile()))) {
+      copyClasses((name, data) -> {
+        out.putNextEntry(new ZipEntry(name + ".class"));
+        out.write(data);
+        out.closeEntry();
+      });
+    }
+
+    ConsoleDecompiler decompiler = fixture.getDecompiler();
+    for (String prefix : only) {
+      decompiler.addWhitelist(prefix);
+    }
+    for (String filter : exclude) {
+      decompiler.addBlacklist(filter);
+    }
+    decompiler.addSource(archive.toFile());
+    decompiler.decompileContext();
+
+    Map<String, String> sources = new HashMap<>();
+    try (ZipFile zip = new ZipFile(fixture.getTargetDir().resolve("filtered.jar").toFile())) {
+      Enumeration<? extends ZipEntry> entries = zip.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        if (entry.getName().endsWith(".java")) {
+          String name = entry.getName().substring(0, entry.getName().length() - 5);
+          sources.put(name, new String(InterpreterUtil.getBytes(zip, entry), StandardCharsets.UTF_8));
+        }
+      }
+    }
+    return sources;
+  }
+
+  // passes pkg/Main, pkg/res/Loader and pkg/TestInnerClassConstructor along with its member and anonymous classes
+  private void copyClasses(ClassConsumer consumer) throws IOException {
+    try (ZipFile zip = new ZipFile(fixture.getTestDataDir().resolve("bulk.jar").toFile())) {
+      for (String name : Arrays.asList(MAIN, LOADER)) {
+        consumer.accept(name, InterpreterUtil.getBytes(zip, zip.getEntry(name + ".class")));
+      }
+    }
+    Path classes = fixture.getTestDataDir().resolve("classes/custom/v11");
+    for (String suffix : Arrays.asList("", "$1", "$Inner", "$Another")) {
+      String name = NESTED + suffix;
+      consumer.accept(name, Files.readAllBytes(classes.resolve(name.substring(4) + ".class")));
+    }
+  }
+
+  private interface ClassConsumer {
+    void accept(String name, byte[] data) throws IOException;
+  }
+}
@@ -0,0 +1,81 @@
+package org.jetbrains.java.decompiler;
+
+import org.jetbrains.java.decompiler.modules.decompiler.decompose.DominatorTree;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DominatorTreeTest {
+
+  // 0 -> 1, 0 -> 2, 1 -> 3, 2 -> 3, 3 -> 4, 4 -> 3 (loop)
+  @Test
+  public void testSingleRoot() {
+    DominatorTree tree = new DominatorTree(new int[][]{{}, {0}, {0}, {1, 2, 4}, {3}}, roots(5, 0));
+
+    assertEquals(5, tree.size());
+    assertIDoms(tree, 0, 0, 0, 0, 3);
+
+    assertTrue(tree.isDominator(4, 0));
+    assertTrue(tree.isDominator(4, 3));
+    assertFalse(tree.isDominator(3, 1));
+    assertFalse(tree.isDominator(3, 4));
+  }
+
+  // 0 -> 2, 1 -> 3, 2 -> 4, 3 -> 4, 4 -> 5 with the roots 0 and 1
+  @Test
+  public void testMergingRoots() {
+    DominatorTree tree = new DominatorTree(new int[][]{{}, {}, {0}, {1}, {2, 3}, {4}}, roots(6, 0, 1));
+
+    // the trees of both roots meet at 4, which is dominated by neither of them
+    assertIDoms(tree, 0, 1, 0, 1, 4, 4);
+
+    assertTrue(tree.isDominator(2, 0));
+    assertTrue(tree.isDominator(3, 1));
+    assertTrue(tree.isDominator(5, 4));
+    assertFalse(tree.isDominator(4, 0));
+    assertFalse(tree.isDominator(5, 1));
+    assertFalse(tree.isDominator(1, 0));
+  }
+
+  // 0 -> 1, 1 -> 4, 2 -> 3, 3 -> 4, where 2 is no root and has no predecessors
+  @Test
+  public void testUnreachableNodes() {
+    DominatorTree tree = new DominatorTree(new int[][]{{}, {0}, {}, {2}, {1, 3}}, roots(5, 0));
+
+    assertIDoms(tree, 0, 0, 2, 2, 4);
+
+    assertTrue(tree.isDominator(3, 2));
+    assertFalse(tree.isDominator(3, 0));
+    assertFalse(tree.isDominator(4, 0));
+    assertFalse(tree.isDominator(4, 2));
+  }
+
+  @Test
+  public void testDominatesSelf() {
+    DominatorTree tree = new DominatorTree(new int[][]{{}, {0}, {1}, {}}, roots(4, 0));
+
+    for (int node = 0; node < tree.size(); node++) {
+      assertTrue(tree.isDominator(node, node));
+    }
+    // ancestors dominate, descendants and unrelated nodes don't
+    assertTrue(tree.isDominator(2, 0));
+    assertTrue(tree.isDominator(2, 1));
+    assertFalse(tree.isDominator(0, 2));
+    assertFalse(tree.isDominator(2, 3));
+    assertFalse(tree.isDominator(3, 0));
+  }
+
+  private static boolean[] roots(int size, int... roots) {
+    boolean[] result = new boolean[size];
+    for (int root : roots) {
+      result[root] = true;
+    }
+    return result;
+  }
+
+  private static void assertIDoms(DominatorTree tree, int... idoms) {
+    for (int node = 0; node < idoms.length; node++) {
+      assertEquals(idoms[node], tree.getIDom(node), "idom of " + node);
+    }
+  }
+}
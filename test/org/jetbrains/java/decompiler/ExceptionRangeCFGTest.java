@@ -0,0 +1,98 @@
+package org.jetbrains.java.decompiler;
+
+import org.jetbrains.java.decompiler.code.cfg.BasicBlock;
+import org.jetbrains.java.decompiler.code.cfg.ExceptionRangeCFG;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExceptionRangeCFGTest {
+  private final BasicBlock[] blocks = new BasicBlock[40];
+
+  {
+    for (int i = 0; i < blocks.length; i++) {
+      blocks[i] = new BasicBlock(i);
+    }
+  }
+
+  @Test
+  public void testDuplicates() {
+    List<BasicBlock> range = range(0, 1, 1, 2);
+
+    range.remove(blocks[1]);
+    assertContains(range, 0, 1, 2);
+    range.remove(blocks[1]);
+    assertContains(range, 0, 2);
+    assertEquals(-1, range.indexOf(blocks[1]));
+
+    range.add(blocks[2]);
+    range.remove(0);
+    range.remove(blocks[2]);
+    assertContains(range, 2);
+    range.remove(blocks[2]);
+    assertContains(range);
+  }
+
+  @Test
+  public void testSetSameBlock() {
+    List<BasicBlock> range = range(0, 1, 1);
+
+    assertSame(blocks[1], range.set(1, blocks[1]));
+    assertContains(range, 0, 1);
+    assertSame(blocks[0], range.set(0, blocks[0]));
+    assertContains(range, 0, 1);
+
+    // replacing one of two copies keeps the other one
+    range.set(2, blocks[3]);
+    assertContains(range, 0, 1, 3);
+    range.set(1, blocks[3]);
+    assertContains(range, 0, 3);
+    assertEquals(1, range.indexOf(blocks[3]));
+  }
+
+  @Test
+  public void testBulkRemoval() {
+    List<BasicBlock> range = range(0, 1, 2, 1, 3, 35, 35);
+
+    range.removeAll(Arrays.asList(blocks[1], blocks[35]));
+    assertEquals(Arrays.asList(blocks[0], blocks[2], blocks[3]), range);
+    assertContains(range, 0, 2, 3);
+
+    range.addAll(Arrays.asList(blocks[2], blocks[4]));
+    range.retainAll(Arrays.asList(blocks[2], blocks[4]));
+    assertEquals(Arrays.asList(blocks[2], blocks[2], blocks[4]), range);
+    assertContains(range, 2, 4);
+
+    for (Iterator<BasicBlock> it = range.iterator(); it.hasNext(); ) {
+      if (it.next() == blocks[2]) {
+        it.remove();
+      }
+    }
+    assertContains(range, 4);
+
+    range.clear();
+    assertContains(range);
+    range.add(blocks[39]);
+    assertContains(range, 39);
+  }
+
+  private List<BasicBlock> range(int... ids) {
+    List<BasicBlock> lst = new ArrayList<>();
+    for (int id : ids) {
+      lst.add(blocks[id]);
+    }
+    return new ExceptionRangeCFG(lst, blocks[blocks.length - 2], "java/lang/Exception").getProtectedRange();
+  }
+
+  private void assertContains(List<BasicBlock> range, int... ids) {
+    Set<Integer> expected = new HashSet<>();
+    for (int id : ids) {
+      expected.add(id);
+    }
+    for (BasicBlock block : blocks) {
+      assertEquals(expected.contains(block.id), range.contains(block), "contains " + block.id);
+    }
+  }
+}
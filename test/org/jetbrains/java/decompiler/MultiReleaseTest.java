@@ -0,0 +1,160 @@
+package org.jetbrains.java.decompiler;
+
+import org.jetbrains.java.decompiler.main.decompiler.ConsoleDecompiler;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MultiReleaseTest {
+  private static final String LOADER = "pkg/res/Loader";
+  private static final String MESSAGE = "Resource missing";
+
+  private DecompilerTestFixture fixture;
+
+  @AfterEach
+  public void tearDown() {
+    fixture.tearDown();
+    fixture = null;
+  }
+
+  @Test
+  public void testJarAllVariants() throws IOException {
+    List<String> sources = decompileJar("0");
+    assertEquals(3, sources.size());
+  }
+
+  @Test
+  public void testJarBelowVariants() throws IOException {
+    assertSingleSource(decompileJar("8"), MESSAGE);
+  }
+
+  @Test
+  public void testJarHighestVariant() throws IOException {
+    assertSingleSource(decompileJar("10"), "Resource rel.  9");
+    assertSingleSource(decompileJar("17"), "Resource rel. 11");
+  }
+
+  @Test
+  public void testDirectoryAllVariants() throws IOException {
+    List<String> sources = decompileDirectory("0");
+    assertEquals(3, sources.size());
+  }
+
+  @Test
+  public void testDirectoryHighestVariant() throws IOException {
+    assertSingleSource(decompileDirectory("8"), MESSAGE);
+    assertSingleSource(decompileDirectory("9"), "Resource rel.  9");
+    assertSingleSource(decompileDirectory("11"), "Resource rel. 11");
+  }
+
+  private static void assertSingleSource(List<String> sources, String message) {
+    assertEquals(1, sources.size(), String.valueOf(sources));
+    assertThat(sources.get(0), containsString('"' + message + '"'));
+  }
+
+  // decompiles a multi-release jar with variants of the loader for releases 9 and 11, returns the sources it contains
+  private List<String> decompileJar(String release) throws IOException {
+    setUp(release);
+
+    Path archive = fixture.getTempDir().resolve("mr.jar");
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive.toFile()))) {
+      for (String[] entry : getEntries()) {
+        out.putNextEntry(new ZipEntry(entry[0]));
+        out.write(getLoader(entry[1]));
+        out.closeEntry();
+      }
+    }
+
+    ConsoleDecompiler decompiler = fixture.getDecompiler();
+    decompiler.addSource(archive.toFile());
+    decompiler.decompileContext();
+
+    List<String> sources = new ArrayList<>();
+    try (ZipFile zip = new ZipFile(fixture.getTargetDir().resolve("mr.jar").toFile())) {
+      for (ZipEntry entry : zip.stream().filter(e -> e.getName().endsWith(".java")).collect(Collectors.toList())) {
+        assertThat(entry.getName(), containsString(LOADER));
+        sources.add(new String(InterpreterUtil.getBytes(zip, entry), StandardCharsets.UTF_8));
+      }
+    }
+    return sources;
+  }
+
+  private List<String> decompileDirectory(String release) throws IOException {
+    setUp(release);
+
+    Path classes = fixture.getTempDir().resolve("classes");
+    for (String[] entry : getEntries()) {
+      Path file = classes.resolve(entry[0]);
+      Files.createDirectories(file.getParent());
+      Files.write(file, getLoader(entry[1]));
+    }
+
+    ConsoleDecompiler decompiler = fixture.getDecompiler();
+    decompiler.addSource(classes.toFile());
+    decompiler.decompileContext();
+
+    List<String> sources = new ArrayList<>();
+    try (Stream<Path> files = Files.walk(fixture.getTargetDir())) {
+      for (Path file : files.filter(f -> f.toString().endsWith(".java")).collect(Collectors.toList())) {
+        assertThat(file.toString().replace(File.separatorChar, '/'), containsString(LOADER));
+        sources.add(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+      }
+    }
+    return sources;
+  }
+
+  private void setUp(String release) throws IOException {
+    if (fixture != null) {
+      fixture.tearDown();
+    }
+    fixture = new DecompilerTestFixture();
+    fixture.setUp(IFernflowerPreferences.MULTI_RELEASE_VERSION, release);
+  }
+
+  // entry name and message of every class, the messages have the length of the original one
+  private static String[][] getEntries() {
+    return new String[][]{
+      {LOADER + ".class", MESSAGE},
+      {"META-INF/versions/9/" + LOADER + ".class", "Resource rel.  9"},
+      {"META-INF/versions/11/" + LOADER + ".class", "Resource rel. 11"}
+    };
+  }
+
+  private byte[] getLoader(String message) throws IOException {
+    byte[] bytes;
+    try (ZipFile zip = new ZipFile(fixture.getTestDataDir().resolve("bulk.jar").toFile())) {
+      bytes = InterpreterUtil.getBytes(zip, zip.getEntry(LOADER + ".class"));
+    }
+
+    byte[] original = MESSAGE.getBytes(StandardCharsets.UTF_8);
+    byte[] replacement = message.getBytes(StandardCharsets.UTF_8);
+    for (int i = 0; i <= bytes.length - original.length; i++) {
+      int j = 0;
+      while (j < original.length && bytes[i + j] == original[j]) j++;
+      if (j == original.length) {
+        System.arraycopy(replacement, 0, bytes, i, replacement.length);
+        return bytes;
+      }
+    }
+    throw new AssertionError("Message not found in " + LOADER);
+  }
+}
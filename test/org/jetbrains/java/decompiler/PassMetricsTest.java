@@ -0,0 +1,243 @@
+package org.jetbrains.java.decompiler;
+
+import org.jetbrains.java.decompiler.main.decompiler.ConsoleDecompiler;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PassMetricsTest {
+  private static final String LOADER = "pkg/res/Loader";
+  private static final String GET_RESOURCE = "getResource ()Ljava/lang/String;";
+
+  private DecompilerTestFixture fixture;
+
+  @AfterEach
+  public void tearDown() {
+    fixture.tearDown();
+    fixture = null;
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testJson() throws IOException {
+    Map<String, Object> json = (Map<String, Object>)new JsonParser(decompile("metrics.json")).parse();
+
+    List<Object> classes = (List<Object>)json.get("classes");
+    assertEquals(1, classes.size());
+    Map<String, Object> cl = (Map<String, Object>)classes.get(0);
+    assertEquals(LOADER, cl.get("name"));
+    assertFalse(((Map<String, Object>)cl.get("stages")).isEmpty());
+
+    Map<String, Map<String, Object>> methods = new HashMap<>();
+    for (Object method : (List<Object>)cl.get("methods")) {
+      methods.put((String)((Map<String, Object>)method).get("name"), (Map<String, Object>)method);
+    }
+    assertEquals(new HashSet<>(Arrays.asList("<init> ()V", GET_RESOURCE)), methods.keySet());
+
+    Map<String, Long> classInvocations = new HashMap<>();
+    long classNanos = 0;
+    for (Map<String, Object> method : methods.values()) {
+      Map<String, Object> passes = (Map<String, Object>)method.get("passes");
+      assertTrue(passes.containsKey("Initial"));
+
+      long nanos = 0;
+      for (Map.Entry<String, Object> pass : passes.entrySet()) {
+        assertFalse(pass.getKey().matches(".*_\\d+"), pass.getKey());
+        Map<String, Object> stats = (Map<String, Object>)pass.getValue();
+        nanos += (Long)stats.get("nanos");
+        classInvocations.merge(pass.getKey(), (Long)stats.get("invocations"), Long::sum);
+      }
+      assertEquals(method.get("nanos"), nanos);
+      classNanos += nanos;
+
+      // every iteration of the loops starts with a marker pass
+      assertEquals(method.get("mainLoopIterations"), getInvocations(passes, "Start"));
+      assertEquals(method.get("mergeLoopIterations"), getInvocations(passes, "MergeLoopStart"));
+    }
+    assertEquals(cl.get("nanos"), classNanos);
+
+    Map<String, Object> getResource = methods.get(GET_RESOURCE);
+    assertTrue((Long)getResource.get("mainLoopIterations") > 0);
+    assertTrue((Long)getResource.get("mergeLoopIterations") >= (Long)getResource.get("mainLoopIterations"));
+
+    // the totals of the class and of the run add up the methods
+    assertInvocations(classInvocations, (Map<String, Object>)cl.get("passes"));
+    assertInvocations(classInvocations, (Map<String, Object>)json.get("passes"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCsvMatchesJson() throws IOException {
+    List<String> lines = Arrays.asList(decompile("metrics.csv").split("\n"));
+    assertEquals("class,method,main_loop_iterations,merge_loop_iterations,pass,invocations,nanos,bytes", lines.get(0));
+
+    // pass invocations and loop iterations don't depend on timing, so both formats of two runs agree on them
+    Map<String, Object> json = (Map<String, Object>)new JsonParser(decompile("metrics.json")).parse();
+    Map<String, Object> cl = (Map<String, Object>)((List<Object>)json.get("classes")).get(0);
+
+    Set<String> expected = new HashSet<>();
+    Map<String, Object> stages = (Map<String, Object>)cl.get("stages");
+    for (String stage : stages.keySet()) {
+      expected.add(LOADER + ",,0,0," + stage + ',' + getInvocations(stages, stage));
+    }
+    for (Object value : (List<Object>)cl.get("methods")) {
+      Map<String, Object> method = (Map<String, Object>)value;
+      Map<String, Object> passes = (Map<String, Object>)method.get("passes");
+      for (String pass : passes.keySet()) {
+        expected.add(LOADER + ',' + method.get("name") + ',' + method.get("mainLoopIterations") + ',' +
+                     method.get("mergeLoopIterations") + ',' + pass + ',' + getInvocations(passes, pass));
+      }
+    }
+
+    // rows without the timing columns
+    Set<String> rows = new HashSet<>();
+    for (String line : lines.subList(1, lines.size())) {
+      String[] columns = line.split(",");
+      assertEquals(8, columns.length, line);
+      rows.add(String.join(",", Arrays.asList(columns).subList(0, 6)));
+    }
+    assertEquals(expected, rows);
+  }
+
+  private static void assertInvocations(Map<String, Long> expected, Map<String, Object> passes) {
+    assertEquals(expected.keySet(), passes.keySet());
+    for (Map.Entry<String, Long> entry : expected.entrySet()) {
+      assertEquals(entry.getValue(), getInvocations(passes, entry.getKey()), entry.getKey());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Long getInvocations(Map<String, Object> passes, String pass) {
+    Map<String, Object> stats = (Map<String, Object>)passes.get(pass);
+    return stats == null ? 0L : (Long)stats.get("invocations");
+  }
+
+  // decompiles pkg/res/Loader with the given metrics file and returns its content
+  private String decompile(String metricsFile) throws IOException {
+    if (fixture != null) {
+      fixture.tearDown();
+    }
+    fixture = new DecompilerTestFixture();
+    Path metrics = Files.createTempDirectory("decompiler_metrics_").resolve(metricsFile);
+    fixture.setUp(IFernflowerPreferences.COLLECT_PASS_METRICS, "1", IFernflowerPreferences.PASS_METRICS_FILE, metrics.toString());
+
+    Path classFile = fixture.getTempDir().resolve("Loader.class");
+    try (ZipFile zip = new ZipFile(fixture.getTestDataDir().resolve("bulk.jar").toFile())) {
+      Files.write(classFile, InterpreterUtil.getBytes(zip, zip.getEntry(LOADER + ".class")));
+    }
+
+    ConsoleDecompiler decompiler = fixture.getDecompiler();
+    decompiler.addSource(classFile.toFile());
+    decompiler.decompileContext();
+
+    try {
+      return new String(Files.readAllBytes(metrics), StandardCharsets.UTF_8);
+    }
+    finally {
+      Files.delete(metrics);
+      Files.delete(metrics.getParent());
+    }
+  }
+
+  // Just enough JSON for the metrics file: objects, arrays, strings and integers
+  private static final class JsonParser {
+    private final String text;
+    private int pos;
+
+    JsonParser(String text) {
+      this.text = text;
+    }
+
+    Object parse() {
+      Object value = parseValue();
+      skipWhitespace();
+      assertEquals(text.length(), pos, "trailing content");
+      return value;
+    }
+
+    private Object parseValue() {
+      skipWhitespace();
+      char c = text.charAt(pos);
+      if (c == '{') {
+        Map<String, Object> map = new LinkedHashMap<>();
+        pos++;
+        if (!consume('}')) {
+          do {
+            skipWhitespace();
+            String key = parseString();
+            assertTrue(consume(':'), "':' expected at " + pos);
+            assertNull(map.put(key, parseValue()), "duplicate key " + key);
+          }
+          while (consume(','));
+          assertTrue(consume('}'), "'}' expected at " + pos);
+        }
+        return map;
+      }
+      if (c == '[') {
+        List<Object> list = new ArrayList<>();
+        pos++;
+        if (!consume(']')) {
+          do {
+            list.add(parseValue());
+          }
+          while (consume(','));
+          assertTrue(consume(']'), "']' expected at " + pos);
+        }
+        return list;
+      }
+      if (c == '"') {
+        return parseString();
+      }
+
+      int start = pos;
+      while (pos < text.length() && (text.charAt(pos) == '-' || Character.isDigit(text.charAt(pos)))) {
+        pos++;
+      }
+      return Long.parseLong(text.substring(start, pos));
+    }
+
+    private String parseString() {
+      assertEquals('"', text.charAt(pos++));
+      StringBuilder builder = new StringBuilder();
+      while (true) {
+        char c = text.charAt(pos++);
+        if (c == '"') {
+          return builder.toString();
+        }
+        if (c == '\\') {
+          c = text.charAt(pos++);
+          if (c == 'u') {
+            c = (char)Integer.parseInt(text.substring(pos, pos + 4), 16);
+            pos += 4;
+          }
+        }
+        builder.append(c);
+      }
+    }
+
+    private boolean consume(char c) {
+      skipWhitespace();
+      if (pos < text.length() && text.charAt(pos) == c) {
+        pos++;
+        return true;
+      }
+      return false;
+    }
+
+    private void skipWhitespace() {
+      while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+        pos++;
+      }
+    }
+  }
+}
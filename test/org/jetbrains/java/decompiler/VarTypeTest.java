@@ -0,0 +1,61 @@
+package org.jetbrains.java.decompiler;
+
+import org.jetbrains.java.decompiler.code.CodeConstants;
+import org.jetbrains.java.decompiler.struct.gen.VarType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VarTypeTest {
+  @Test
+  public void testCanonicalWithinRun() {
+    VarType type = VarType.of("Lpkg/Interned;");
+    assertSame(type, VarType.of(CodeConstants.TYPE_OBJECT, 0, "pkg/Interned"));
+    assertSame(type, VarType.of("[Lpkg/Interned;").decreaseArrayDim());
+    assertSame(VarType.VARTYPE_INT, VarType.of("I"));
+    assertNotEquals(type, VarType.of("Lpkg/Other;"));
+  }
+
+  @Test
+  public void testEqualityAcrossClear() {
+    VarType before = VarType.of("Lpkg/Cleared;");
+    VarType other = VarType.of("Lpkg/Other;");
+    VarType.clearInternTables();
+    VarType after = VarType.of("Lpkg/Cleared;");
+
+    assertNotSame(before, after);
+    assertEquals(before, after);
+    assertEquals(after, before);
+    assertEquals(before.hashCode(), after.hashCode());
+    assertNotEquals(other, after);
+
+    // predefined types stay canonical
+    assertSame(VarType.VARTYPE_STRING, VarType.of("Ljava/lang/String;"));
+    assertSame(VarType.VARTYPE_INT, VarType.of(CodeConstants.TYPE_INT));
+  }
+
+  @Test
+  public void testFalseBoolean() {
+    VarType falseBoolean = VarType.VARTYPE_BOOLEAN.copy(true);
+    assertTrue(falseBoolean.isFalseBoolean());
+    assertSame(falseBoolean, VarType.VARTYPE_BOOLEAN.copy(true));
+    assertEquals(VarType.VARTYPE_BOOLEAN, falseBoolean);
+    assertNotEquals(VarType.VARTYPE_INT, falseBoolean);
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void testConstructors() {
+    VarType[] created = {new VarType(CodeConstants.TYPE_INT), new VarType(CodeConstants.TYPE_INT, 1),
+      new VarType(CodeConstants.TYPE_OBJECT, 0, "pkg/Created"), new VarType("Lpkg/Created;"), new VarType("pkg/Created", true)};
+    VarType[] canonical = {VarType.VARTYPE_INT, VarType.of(CodeConstants.TYPE_INT, 1), VarType.of("Lpkg/Created;"),
+      VarType.of("Lpkg/Created;"), VarType.of("pkg/Created", true)};
+
+    for (int i = 0; i < created.length; i++) {
+      assertFalse(created[i].isInterned());
+      assertEquals(canonical[i], created[i]);
+      assertEquals(created[i], canonical[i]);
+      assertSame(canonical[i], created[i].intern());
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package org.jetbrains.java.decompiler;
+
+import org.jetbrains.java.decompiler.main.decompiler.ConsoleDecompiler;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class WorkBudgetTest {
+  private static final String COMMENT = "$FF: Work budget exceeded";
+
+  private DecompilerTestFixture fixture;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    fixture = new DecompilerTestFixture();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    fixture.tearDown();
+    fixture = null;
+  }
+
+  @Test
+  public void testExhausted() throws IOException {
+    String source = decompile("1");
+    assertThat(source, containsString(COMMENT));
+    // optional passes are skipped, the result must still be valid Java
+    assertCompiles(source);
+  }
+
+  @Test
+  public void testUnlimited() throws IOException {
+    String source = decompile("0");
+    assertThat(source, not(containsString(COMMENT)));
+    assertCompiles(source);
+  }
+
+  // compiles the nested loops fixture and decompiles it with the given work budget
+  private String decompile(String budget) throws IOException {
+    fixture.setUp(IFernflowerPreferences.METHOD_WORK_BUDGET, budget);
+
+    Path classes = Files.createDirectories(fixture.getTempDir().resolve("classes"));
+    compile(fixture.getTestDataDir().resolve("src/java8/pkg/TestNestedLoops.java"), classes);
+
+    ConsoleDecompiler decompiler = fixture.getDecompiler();
+    decompiler.addSource(classes.resolve("pkg/TestNestedLoops.class").toFile());
+    decompiler.decompileContext();
+
+    return new String(Files.readAllBytes(fixture.getTargetDir().resolve("TestNestedLoops.java")), StandardCharsets.UTF_8);
+  }
+
+  private void assertCompiles(String source) throws IOException {
+    Path dir = Files.createDirectories(fixture.getTempDir().resolve("recompiled"));
+    Path file = Files.write(Files.createDirectories(dir.resolve("pkg")).resolve("TestNestedLoops.java"),
+                            source.getBytes(StandardCharsets.UTF_8));
+    compile(file, dir);
+  }
+
+  private static void compile(Path source, Path target) {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    assertNotNull(compiler, "a JDK is needed to compile the fixture");
+
+    ByteArrayOutputStream errors = new ByteArrayOutputStream();
+    int result = compiler.run(null, null, errors, "-g", "-nowarn", "-d", target.toString(), source.toString());
+    assertEquals(0, result, errors::toString);
+  }
+}